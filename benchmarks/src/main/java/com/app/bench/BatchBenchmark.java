@@ -0,0 +1,76 @@
+package com.app.bench;
+
+import com.app.batch.BatchJob;
+import com.app.batch.BatchRunner;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@code jobs} scenario variants of the same inputs, differing only in rating bands, run as one
+ * batch, which parses the files once and runs the jobs concurrently, vs one job at a time, each
+ * parsing its own inputs as separate runs would. Both write every job's reports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({ "8" })
+    public int jobs;
+
+    private final BatchRunner runner = new BatchRunner(Runtime.getRuntime().availableProcessors());
+    private Path dir;
+    private List<BatchJob> batch;
+
+    @Setup(Level.Trial)
+    public void writeFiles(BenchmarkState state) throws IOException {
+        dir = Files.createTempDirectory("batch-bench");
+        Path employeesCsv = state.data.writeEmployeesCsv(dir);
+        Path kpiCsv = state.data.writeKpiCsv(dir);
+        batch = new ArrayList<>();
+        for (int j = 0; j < jobs; j++) {
+            String bands = (1.5 + 0.1 * j) + ",0.75,0,-0.75";
+            batch.add(new BatchJob("job" + j, employeesCsv, kpiCsv, "linear", dir.resolve("job" + j), bands));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public int batch() throws InterruptedException {
+        return check(runner.run(batch));
+    }
+
+    @Benchmark
+    public int oneAtATime() throws InterruptedException {
+        int employees = 0;
+        for (BatchJob job : batch) employees += check(runner.run(List.of(job)));
+        return employees;
+    }
+
+    private static int check(List<BatchRunner.Outcome> outcomes) {
+        int employees = 0;
+        for (BatchRunner.Outcome o : outcomes) {
+            if (!o.succeeded()) throw new IllegalStateException(o.error());
+            employees += o.employees();
+        }
+        return employees;
+    }
+}
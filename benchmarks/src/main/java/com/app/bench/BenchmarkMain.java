@@ -0,0 +1,43 @@
+package com.app.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the JMH benchmarks and, unless {@code -rf}/{@code -rff} are given, writes the results
+ * as JSON to {@code results/jmh-<version>.json} so runs can be compared release over release.
+ * Accepts all regular JMH command line options.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldList()) {
+            new Runner(cli).list();
+            return;
+        }
+
+        String version = BenchmarkMain.class.getPackage().getImplementationVersion();
+        Path defaultResult = Path.of("results", "jmh-" + (version == null ? "dev" : version) + ".json");
+        if (!cli.getResult().hasValue()) {
+            Files.createDirectories(defaultResult.getParent());
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cli.getResult().orElse(defaultResult.toString()))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,29 @@
+package com.app.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shared data-shape parameters; override with e.g. {@code -p employees=2000000}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkState {
+
+    @Param({ "10000", "100000" })
+    public int employees;
+
+    @Param({ "8" })
+    public int kpisPerEmployee;
+
+    @Param({ "20" })
+    public int departments;
+
+    public SyntheticData data;
+
+    @Setup
+    public void generate() {
+        data = new SyntheticData(employees, kpisPerEmployee, departments);
+    }
+}
@@ -0,0 +1,33 @@
+package com.app.bench;
+
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.ResultsTable;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synthetic data already run through evaluation, for summary and export benchmarks.
+ */
+@State(Scope.Benchmark)
+public class EvaluatedState {
+
+    public ResultsTable evaluations;
+    public final Map<String, DeptSummary> deptSummaries = new HashMap<>();
+    public RankingIndex ranking;
+
+    @Setup
+    public void evaluate(BenchmarkState state) {
+        evaluations = new ResultsTable(state.data.employees().values());
+        deptSummaries.clear();
+        new ParallelEvaluator(new LinearWeightsPolicy(), state.data.kpiStore(), 1).evaluate(evaluations, deptSummaries);
+        ranking = new RankingIndex(evaluations);
+    }
+}
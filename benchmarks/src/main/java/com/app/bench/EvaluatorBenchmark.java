@@ -0,0 +1,73 @@
+package com.app.bench;
+
+import com.app.evaluator.DepartmentEvaluator;
+import com.app.evaluator.Evaluator;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiRecord;
+import com.app.policies.WeightingPolicy;
+import com.app.policies.ZScorePolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.RunningStats;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work saved by handing Evaluator the precomputed raw score instead of rescoring the KPI list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    private final WeightingPolicy policy = new ZScorePolicy();
+
+    private Employee[] employees;
+    private List<KpiRecord>[] kpis;
+    private double[] raw;
+    private Evaluator evaluator;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void prepare(BenchmarkState state) {
+        employees = state.data.employees().values().toArray(new Employee[0]);
+        kpis = new List[employees.length];
+        raw = new double[employees.length];
+        Map<String, RunningStats> byDept = new HashMap<>();
+
+        for (int i = 0; i < employees.length; i++) {
+            kpis[i] = state.data.kpiByEmployee().get(employees[i].getId());
+            raw[i] = policy.computeScore(kpis[i]);
+            byDept.computeIfAbsent(employees[i].getDept(), d -> new RunningStats()).add(raw[i]);
+        }
+
+        Map<String, DeptStats> stats = new HashMap<>();
+        byDept.forEach((dept, s) -> stats.put(dept, s.toDeptStats()));
+        evaluator = new DepartmentEvaluator(policy, stats);
+    }
+
+    @Benchmark
+    public double rescoreFromKpis() {
+        double sum = 0;
+        for (int i = 0; i < employees.length; i++) {
+            sum += evaluator.evaluate(employees[i], kpis[i]).getNormalizedScore();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double reuseRawScore() {
+        double sum = 0;
+        for (int i = 0; i < employees.length; i++) {
+            sum += evaluator.evaluate(employees[i], raw[i]).getNormalizedScore();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,64 @@
+package com.app.bench;
+
+import com.app.export.BonusListExporter;
+import com.app.export.DeptSummaryExporter;
+import com.app.export.ExportPipeline;
+import com.app.export.PoorPerformanceCsvExporter;
+import com.app.export.PromotionCandidatesExporter;
+import com.app.export.RatingsCsvExporter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The exporters write their fixed file names into the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Benchmark
+    public void ratings(EvaluatedState state) throws IOException {
+        new RatingsCsvExporter(state.evaluations).export();
+    }
+
+    @Benchmark
+    public void bonusList(EvaluatedState state) throws IOException {
+        new BonusListExporter(state.ranking).export();
+    }
+
+    @Benchmark
+    public void promotionCandidates(EvaluatedState state) throws IOException {
+        new PromotionCandidatesExporter(state.ranking).export();
+    }
+
+    @Benchmark
+    public void deptSummary(EvaluatedState state) throws IOException {
+        new DeptSummaryExporter(state.deptSummaries).export();
+    }
+
+    @Benchmark
+    public void poorPerformers(EvaluatedState state) throws IOException {
+        new PoorPerformanceCsvExporter(state.ranking).export();
+    }
+
+    @Benchmark
+    public void allSequential(EvaluatedState state) throws IOException {
+        ratings(state);
+        bonusList(state);
+        promotionCandidates(state);
+        deptSummary(state);
+        poorPerformers(state);
+    }
+
+    @Benchmark
+    public void singleScanPipeline(EvaluatedState state) throws IOException {
+        new ExportPipeline(state.ranking, state.deptSummaries).export();
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.bench;
+
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.policies.FormulaPolicy;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled formulas against the hand-written {@link LinearWeightsPolicy}, scoring every
+ * employee through the columnar batch form and the record form. {@code formulaLinear} is the
+ * same score as {@code linear} via {@code linear()}; {@code formulaWeighted} spells out
+ * value times weight for every metric by name; {@code formulaPiecewise} adds caps, a
+ * conditional multiplier and a penalty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormulaBenchmark {
+
+    @Param({ "linear", "formulaLinear", "formulaWeighted", "formulaPiecewise" })
+    public String policy;
+
+    private WeightingPolicy scorer;
+    private KpiStore store;
+    private List<List<KpiRecord>> lists;
+    private double[] out;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        int metrics = state.data.kpisPerEmployee();
+        scorer = switch (policy) {
+            case "linear" -> new LinearWeightsPolicy();
+            case "formulaLinear" -> FormulaPolicy.compile("score = linear()");
+            case "formulaWeighted" -> FormulaPolicy.compile("score = " + weightedSum(metrics));
+            case "formulaPiecewise" -> FormulaPolicy.compile("""
+                    capped = min([M0], 100) * weight([M0])
+                    boosted = [M1] > 90 ? 1.5 * [M1] * weight([M1]) : [M1] * weight([M1])
+                    score = capped + boosted + clamp([M2], 50, 110) * 0.25 - ([M3] < 45 ? 5 : 0)
+                    """);
+            default -> throw new IllegalArgumentException(policy);
+        };
+        store = state.data.kpiStore();
+        lists = List.copyOf(state.data.kpiByEmployee().values());
+        out = new double[store.employeeCount()];
+    }
+
+    private static String weightedSum(int metrics) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < metrics; k++) {
+            if (k > 0) sb.append(" + ");
+            sb.append("[M").append(k).append("] * weight([M").append(k).append("])");
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public double[] columnar() {
+        store.score(scorer, 0, out.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public double list() {
+        double sum = 0;
+        for (List<KpiRecord> kpis : lists) sum += scorer.computeScore(kpis);
+        return sum;
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.bench;
+
+import com.app.evaluator.IncrementalEvaluator;
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying a KPI delta touching {@code deltaPercent} of employees incrementally vs a full
+ * re-evaluation. Invocations alternate between two deltas so every update moves scores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalBenchmark {
+
+    @Param({ "1" })
+    public double deltaPercent;
+
+    private final WeightingPolicy policy = new LinearWeightsPolicy();
+    private final Map<String, DeptSummary> deptSummaries = new HashMap<>();
+
+    private Map<String, Employee> employees;
+    private KpiStore kpiStore;
+    private IncrementalEvaluator incremental;
+    private final List<Map<String, List<KpiRecord>>> deltas = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        employees = state.data.employees();
+        kpiStore = state.data.kpiStore();
+        ResultsTable evaluations = new ResultsTable(employees.values());
+        new ParallelEvaluator(policy, kpiStore, 1).evaluate(evaluations, deptSummaries);
+        incremental = new IncrementalEvaluator(policy, evaluations, deptSummaries);
+
+        Random rnd = new Random(7);
+        String[] ids = employees.keySet().toArray(new String[0]);
+        int touched = Math.max(1, (int) (ids.length * deltaPercent / 100));
+        for (int d = 0; d < 2; d++) {
+            Map<String, List<KpiRecord>> delta = new LinkedHashMap<>();
+            for (int i = 0; i < touched; i++) {
+                String id = ids[rnd.nextInt(ids.length)];
+                List<KpiRecord> rows = new ArrayList<>(state.data.kpiByEmployee().get(id));
+                KpiRecord k = rows.get(0);
+                rows.set(0, new KpiRecord(id, k.getMetric(), k.getValue() + 1 + d, k.getWeight()));
+                delta.put(id, rows);
+            }
+            deltas.add(delta);
+        }
+    }
+
+    @Benchmark
+    public int incrementalUpdate() {
+        return incremental.update(deltas.get(next++ & 1));
+    }
+
+    @Benchmark
+    public int fullEvaluation() {
+        ResultsTable results = new ResultsTable(employees.values());
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        new ParallelEvaluator(policy, kpiStore, 1).evaluate(results, summaries);
+        return results.size();
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.bench;
+
+import com.app.inputs.Employee;
+import com.app.inputs.EmployeeCsvLoader;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.ParallelKpiLoader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({ "4" })
+    public int threads;
+
+    private Path dir;
+    private Path employeesCsv;
+    private Path kpiCsv;
+
+    @Setup(Level.Trial)
+    public void writeFiles(BenchmarkState state) throws IOException {
+        dir = Files.createTempDirectory("ingestion-bench");
+        employeesCsv = state.data.writeEmployeesCsv(dir);
+        kpiCsv = state.data.writeKpiCsv(dir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Employee> loadEmployees() throws IOException {
+        Map<String, Employee> employees = new HashMap<>();
+        new EmployeeCsvLoader(employees).load(employeesCsv);
+        return employees;
+    }
+
+    @Benchmark
+    public Map<String, List<KpiRecord>> loadKpisStreaming() throws IOException {
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        new KpiCsvLoader(kpis).load(kpiCsv);
+        return kpis;
+    }
+
+    @Benchmark
+    public Map<String, List<KpiRecord>> loadKpisParallel() throws IOException {
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        new ParallelKpiLoader(kpis, threads).load(kpiCsv);
+        return kpis;
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.bench;
+
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.PipelinedEvaluator;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * KPI load followed by evaluation vs the pipelined mode that scores while reading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadAndEvaluateBenchmark {
+
+    @Param({ "4" })
+    public int threads;
+
+    @Param({ "4", "64" })
+    public int queueDepth;
+
+    private final WeightingPolicy policy = new LinearWeightsPolicy();
+    private Path dir;
+    private Path kpiCsv;
+
+    @Setup(Level.Trial)
+    public void writeFiles(BenchmarkState state) throws IOException {
+        dir = Files.createTempDirectory("load-evaluate-bench");
+        kpiCsv = state.data.writeKpiCsv(dir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public ResultsTable loadThenEvaluate(BenchmarkState state) throws IOException {
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        ResultsTable evaluations = new ResultsTable(state.data.employees().values());
+        new KpiCsvLoader(kpis).load(kpiCsv);
+        new ParallelEvaluator(policy, KpiStore.from(kpis), threads)
+                .evaluate(evaluations, new HashMap<String, DeptSummary>());
+        return evaluations;
+    }
+
+    @Benchmark
+    public ResultsTable pipelined(BenchmarkState state) throws IOException {
+        ResultsTable evaluations = new ResultsTable(state.data.employees().values());
+        new PipelinedEvaluator(policy, threads, queueDepth).run(kpiCsv, new HashMap<>(), evaluations, new HashMap<>());
+        return evaluations;
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.bench;
+
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metrics hooks on a full evaluation: the default fork has them compiled out,
+ * the {@code -Dmetrics} fork records every counter, timer and throughput sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private final WeightingPolicy policy = new LinearWeightsPolicy();
+
+    private Collection<Employee> employees;
+    private KpiStore kpiStore;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        employees = state.data.employees().values();
+        kpiStore = state.data.kpiStore();
+    }
+
+    @Benchmark
+    public int metricsOff() {
+        return evaluate();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dmetrics=/dev/null")
+    public int metricsOn() {
+        return evaluate();
+    }
+
+    private int evaluate() {
+        ResultsTable results = new ResultsTable(employees);
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        new ParallelEvaluator(policy, kpiStore, 1).evaluate(results, summaries);
+        return results.size();
+    }
+}
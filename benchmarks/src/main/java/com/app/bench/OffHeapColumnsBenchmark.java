@@ -0,0 +1,87 @@
+package com.app.bench;
+
+import com.app.columns.ColumnAllocator;
+import com.app.columns.Columns;
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap vs off-heap KPI and score columns. {@code evaluate} runs a full evaluation into a fresh
+ * run of columns and releases it; run it with {@code -prof gc} and compare {@code gc.count} and
+ * {@code gc.time}. {@code fullGc} times a full collection while a KPI store and a result table
+ * are live, which is where columns on the heap are marked and compacted.
+ *
+ * <p>The synthetic rows are dropped once the store is built, so employees are the only other
+ * sizeable heap data, identical in both layouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--enable-preview", "-Xms3g", "-Xmx3g" })
+public class OffHeapColumnsBenchmark {
+
+    @Param({ "heap", "offheap" })
+    public String columns;
+
+    @Param({ "1000000" })
+    public int employees;
+
+    @Param({ "16" })
+    public int kpisPerEmployee;
+
+    private final WeightingPolicy policy = new LinearWeightsPolicy();
+    private ColumnAllocator storeColumns;
+    private ColumnAllocator tableColumns;
+    private KpiStore store;
+    private Employee[] population;
+    private ResultsTable resident;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        boolean offHeap = columns.equals("offheap");
+        if (offHeap && !Columns.offHeapAvailable()) {
+            throw new IllegalStateException("Off-heap columns unavailable; build and run on Java 22 or later, or on Java 21 with --enable-preview");
+        }
+        SyntheticData data = new SyntheticData(employees, kpisPerEmployee, 20);
+        population = data.employees().values().toArray(new Employee[0]);
+        storeColumns = Columns.open(offHeap);
+        store = KpiStore.from(data.kpiByEmployee(), storeColumns);
+
+        tableColumns = Columns.open(offHeap);
+        resident = new ResultsTable(population, tableColumns);
+        new ParallelEvaluator(policy, store, 1).evaluate(resident, new HashMap<String, DeptSummary>());
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+        tableColumns.close();
+        storeColumns.close();
+    }
+
+    @Benchmark
+    public double evaluate() {
+        try (ColumnAllocator run = Columns.open(storeColumns.isOffHeap())) {
+            ResultsTable results = new ResultsTable(population, run);
+            new ParallelEvaluator(policy, store, 1).evaluate(results, new HashMap<String, DeptSummary>());
+            return results.normalizedScore(results.size() - 1);
+        }
+    }
+
+    @Benchmark
+    public double fullGc() {
+        System.gc();
+        return resident.rawScore(0) + store.values().get(0);
+    }
+}
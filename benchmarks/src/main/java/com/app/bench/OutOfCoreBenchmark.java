@@ -0,0 +1,83 @@
+package com.app.bench;
+
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.RatingBands;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.EmployeeCsvLoader;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.spill.OutOfCoreEvaluator;
+import com.app.spill.SpilledEvaluation;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading and evaluating both files on the heap vs the out-of-core evaluator, whose run count
+ * grows as {@code heapBudgetMb} shrinks. Neither writes reports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutOfCoreBenchmark {
+
+    @Param({ "4", "256" })
+    public int heapBudgetMb;
+
+    private final WeightingPolicy policy = new LinearWeightsPolicy();
+    private Path dir;
+    private Path employeesCsv;
+    private Path kpiCsv;
+
+    @Setup(Level.Trial)
+    public void writeFiles(BenchmarkState state) throws IOException {
+        dir = Files.createTempDirectory("out-of-core-bench");
+        employeesCsv = state.data.writeEmployeesCsv(dir);
+        kpiCsv = state.data.writeKpiCsv(dir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public ResultsTable inMemory() throws IOException {
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        new EmployeeCsvLoader(employees).load(employeesCsv);
+        new KpiCsvLoader(kpis).load(kpiCsv);
+        ResultsTable evaluations = new ResultsTable(employees.values());
+        new ParallelEvaluator(policy, KpiStore.from(kpis), 1).evaluate(evaluations, new HashMap<String, DeptSummary>());
+        return evaluations;
+    }
+
+    @Benchmark
+    public long outOfCore() throws IOException {
+        OutOfCoreEvaluator evaluator = new OutOfCoreEvaluator(policy, RatingBands.DEFAULT,
+                (long) heapBudgetMb << 20, dir);
+        try (SpilledEvaluation evaluation = evaluator.evaluate(employeesCsv, kpiCsv)) {
+            return evaluation.size() + evaluation.runCount();
+        }
+    }
+}
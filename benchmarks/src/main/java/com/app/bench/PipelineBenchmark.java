@@ -0,0 +1,53 @@
+package com.app.bench;
+
+import com.app.apps.Main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End to end: {@code Main.evaluateAll} followed by {@code Main.exportReports} on loaded data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private Path dir;
+    private Main engine;
+
+    @Setup(Level.Trial)
+    public void load(BenchmarkState state) throws IOException {
+        dir = Files.createTempDirectory("pipeline-bench");
+        Path employees = state.data.writeEmployeesCsv(dir);
+        Path kpis = state.data.writeKpiCsv(dir);
+
+        engine = new Main(threads);
+        engine.load(employees.toString(), kpis.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public void evaluateAndExport() throws IOException {
+        engine.evaluateAll();
+        engine.exportReports();
+    }
+}
@@ -0,0 +1,95 @@
+package com.app.bench;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RatingBands;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.service.Evaluation;
+import com.app.service.EvaluationService;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query throughput of {@link EvaluationService} from several reader threads, with and without
+ * a writer re-evaluating and publishing in a loop. Each query is one of: by id, a department's
+ * best ten, the overall top ten, a department summary.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryServiceBenchmark {
+
+    private EvaluationService service;
+    private Collection<Employee> employees;
+    private KpiStore kpiStore;
+    private String[] ids;
+    private String[] depts;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        employees = state.data.employees().values();
+        kpiStore = state.data.kpiStore();
+        service = new EvaluationService(new LinearWeightsPolicy(), RatingBands.DEFAULT, 1);
+        service.evaluate(employees, kpiStore);
+        ids = state.data.employees().keySet().toArray(new String[0]);
+        depts = service.current().deptSummaries().keySet().toArray(new String[0]);
+    }
+
+    @Benchmark
+    @Group("idle")
+    @GroupThreads(4)
+    public double queryIdle(Cursor cursor) {
+        return query(cursor);
+    }
+
+    @Benchmark
+    @Group("duringEvaluation")
+    @GroupThreads(4)
+    public double query(Cursor cursor) {
+        int q = cursor.next++;
+        switch (q & 3) {
+            case 0 -> {
+                EvaluationResult r = service.byId(ids[(q >>> 2) % ids.length]);
+                return r == null ? 0 : r.getNormalizedScore();
+            }
+            case 1 -> {
+                List<EvaluationResult> best = service.byDept(depts[(q >>> 2) % depts.length]);
+                return sum(best.subList(0, Math.min(10, best.size())));
+            }
+            case 2 -> {
+                return sum(service.topN(10));
+            }
+            default -> {
+                DeptSummary s = service.deptSummary(depts[(q >>> 2) % depts.length]);
+                return s == null ? 0 : s.getAvgNormScore();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("duringEvaluation")
+    @GroupThreads(1)
+    public Evaluation reevaluate() {
+        return service.evaluate(employees, kpiStore);
+    }
+
+    private static double sum(List<EvaluationResult> results) {
+        double total = 0;
+        for (EvaluationResult r : results) total += r.getNormalizedScore();
+        return total;
+    }
+}
@@ -0,0 +1,44 @@
+package com.app.bench;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RankingIndex;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * One-off index build versus the per-query full sort {@code Main.topN} used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({ "20" })
+    public int n;
+
+    @Benchmark
+    public RankingIndex buildIndex(EvaluatedState state) {
+        return new RankingIndex(state.evaluations);
+    }
+
+    @Benchmark
+    public List<EvaluationResult> topNFromIndex(EvaluatedState state) {
+        return List.copyOf(state.ranking.topN(n));
+    }
+
+    @Benchmark
+    public List<EvaluationResult> topNFullSort(EvaluatedState state) {
+        return IntStream.range(0, state.evaluations.size()).<EvaluationResult>mapToObj(state.evaluations::get)
+                .sorted(Comparator.comparingDouble(EvaluationResult::getNormalizedScore).reversed())
+                .limit(n)
+                .toList();
+    }
+}
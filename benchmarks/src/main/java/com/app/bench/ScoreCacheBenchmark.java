@@ -0,0 +1,78 @@
+package com.app.bench;
+
+import com.app.cache.CachingPolicy;
+import com.app.cache.ScoreCache;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.policies.ZScorePolicy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw scoring of every employee without the score cache, through a cache that already holds
+ * every score ({@code warm}, a rerun on unchanged KPIs) and through an empty one ({@code cold},
+ * all hashing and inserting overhead). {@code reload} reads the saved cache back, the cost a
+ * rerun pays up front.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreCacheBenchmark {
+
+    @Param({ "linear", "zscore" })
+    public String policy;
+
+    private WeightingPolicy scorer;
+    private KpiStore store;
+    private double[] out;
+    private CachingPolicy warm;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) throws IOException {
+        scorer = policy.equals("zscore") ? new ZScorePolicy() : new LinearWeightsPolicy();
+        store = state.data.kpiStore();
+        out = new double[store.employeeCount()];
+        warm = new CachingPolicy(scorer, new ScoreCache(store.employeeCount()));
+        store.score(warm, 0, out.length, out);
+        file = Files.createTempFile("score-cache-bench", ".bin");
+        warm.cache().save(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public double[] uncached() {
+        store.score(scorer, 0, out.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] warm() {
+        store.score(warm, 0, out.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] cold() {
+        store.score(new CachingPolicy(scorer, new ScoreCache(out.length)), 0, out.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public ScoreCache reload() throws IOException {
+        return ScoreCache.load(file, out.length);
+    }
+}
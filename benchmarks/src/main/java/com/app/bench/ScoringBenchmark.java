@@ -0,0 +1,68 @@
+package com.app.bench;
+
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.policies.WeightingPolicy;
+import com.app.policies.ZScorePolicy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores every employee once per invocation, through the List and the columnar overloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    private final WeightingPolicy linear = new LinearWeightsPolicy();
+    private final WeightingPolicy zscore = new ZScorePolicy();
+
+    private List<List<KpiRecord>> lists;
+    private KpiStore store;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        lists = List.copyOf(state.data.kpiByEmployee().values());
+        store = state.data.kpiStore();
+    }
+
+    @Benchmark
+    public double linearList() {
+        return scoreLists(linear);
+    }
+
+    @Benchmark
+    public double zscoreList() {
+        return scoreLists(zscore);
+    }
+
+    @Benchmark
+    public double linearColumnar() {
+        return scoreStore(linear);
+    }
+
+    @Benchmark
+    public double zscoreColumnar() {
+        return scoreStore(zscore);
+    }
+
+    private double scoreLists(WeightingPolicy policy) {
+        double sum = 0;
+        for (List<KpiRecord> kpis : lists) sum += policy.computeScore(kpis);
+        return sum;
+    }
+
+    private double scoreStore(WeightingPolicy policy) {
+        double sum = 0;
+        for (int e = 0; e < store.employeeCount(); e++) sum += store.score(policy, e);
+        return sum;
+    }
+}
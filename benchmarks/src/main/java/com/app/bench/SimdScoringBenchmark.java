@@ -0,0 +1,52 @@
+package com.app.bench;
+
+import com.app.inputs.KpiStore;
+import com.app.policies.SimdPolicies;
+import com.app.policies.WeightingPolicy;
+import com.app.policies.ZScorePolicy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch ZScore scoring of the whole KPI store, scalar vs the Vector API kernel. The fork adds
+ * the incubator module; setup fails fast if it is not picked up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class SimdScoringBenchmark {
+
+    private final WeightingPolicy zScore = new ZScorePolicy();
+
+    private WeightingPolicy simdZScore;
+    private KpiStore store;
+    private double[] out;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        if (!SimdPolicies.available()) throw new IllegalStateException("Vector API not available");
+        simdZScore = SimdPolicies.zScore();
+        store = state.data.kpiStore();
+        out = new double[store.employeeCount()];
+    }
+
+    @Benchmark
+    public double[] scalarZScore() {
+        return score(zScore);
+    }
+
+    @Benchmark
+    public double[] simdZScore() {
+        return score(simdZScore);
+    }
+
+    private double[] score(WeightingPolicy policy) {
+        store.score(policy, 0, out.length, out);
+        return out;
+    }
+}
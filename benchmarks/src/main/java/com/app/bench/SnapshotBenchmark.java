@@ -0,0 +1,79 @@
+package com.app.bench;
+
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.EmployeeCsvLoader;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiHistory;
+import com.app.inputs.KpiRecord;
+import com.app.snapshot.EngineSnapshot;
+import com.app.summary.DeptSummary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Restoring state from a binary snapshot vs re-parsing the CSV inputs (which, unlike the
+ * snapshot, still leaves evaluation to be run).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    private Path dir;
+    private Path employeesCsv;
+    private Path kpiCsv;
+    private Path snapshot;
+    private EngineSnapshot evaluated;
+
+    @Setup(Level.Trial)
+    public void writeFiles(BenchmarkState state, EvaluatedState results) throws IOException {
+        dir = Files.createTempDirectory("snapshot-bench");
+        employeesCsv = state.data.writeEmployeesCsv(dir);
+        kpiCsv = state.data.writeKpiCsv(dir);
+        snapshot = dir.resolve("state.snap");
+        evaluated = new EngineSnapshot(state.data.employees(), state.data.kpiByEmployee(), new KpiHistory(),
+                results.evaluations, results.deptSummaries);
+        evaluated.save(snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        return evaluated.save(snapshot);
+    }
+
+    @Benchmark
+    public ResultsTable loadSnapshot() throws IOException {
+        return new EngineSnapshot(new HashMap<>(), new HashMap<>(), new KpiHistory(), null, new HashMap<String, DeptSummary>())
+                .load(snapshot);
+    }
+
+    @Benchmark
+    public Map<String, List<KpiRecord>> loadCsv() throws IOException {
+        Map<String, Employee> employees = new HashMap<>();
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        new EmployeeCsvLoader(employees).load(employeesCsv);
+        new KpiCsvLoader(kpis).load(kpiCsv);
+        return kpis;
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.bench;
+
+import com.app.evaluator.ResultsTable;
+import com.app.summary.DeptSummary;
+import com.app.summary.DeptSummaryBuilder;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SummaryBenchmark {
+
+    @Benchmark
+    public Map<String, DeptSummary> build(EvaluatedState state) {
+        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+        ResultsTable.Row row = state.evaluations.row();
+        for (int i = 0; i < state.evaluations.size(); i++) builder.add(row.moveTo(i));
+        return builder.build();
+    }
+}
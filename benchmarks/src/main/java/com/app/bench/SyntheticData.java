@@ -0,0 +1,83 @@
+package com.app.bench;
+
+import com.app.inputs.Employee;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic employees and KPI rows. Department sizes are skewed
+ * (a few large departments, a long tail) to resemble real org charts.
+ */
+public class SyntheticData {
+
+    private static final String[] LEVELS = { "Junior", "Mid", "Senior", "Principal", "Lead" };
+
+    private final Map<String, Employee> employees = new LinkedHashMap<>();
+    private final Map<String, List<KpiRecord>> kpiByEmployee = new LinkedHashMap<>();
+    private final int kpisPerEmployee;
+
+    public SyntheticData(int employeeCount, int kpisPerEmployee, int departments) {
+        this(employeeCount, kpisPerEmployee, departments, 42L);
+    }
+
+    public SyntheticData(int employeeCount, int kpisPerEmployee, int departments, long seed) {
+        this.kpisPerEmployee = kpisPerEmployee;
+        Random rnd = new Random(seed);
+
+        for (int i = 0; i < employeeCount; i++) {
+            String id = "E" + i;
+            int dept = (int) Math.min(departments - 1, Math.abs(rnd.nextGaussian()) * departments / 3);
+            employees.put(id, new Employee(id, "D" + dept, LEVELS[rnd.nextInt(LEVELS.length)]));
+
+            List<KpiRecord> rows = new ArrayList<>(kpisPerEmployee);
+            for (int k = 0; k < kpisPerEmployee; k++) {
+                double value = Math.round((40 + rnd.nextDouble() * 80) * 100) / 100.0;
+                double weight = (1 + rnd.nextInt(8)) * 0.05;
+                rows.add(new KpiRecord(id, "M" + k, value, weight));
+            }
+            kpiByEmployee.put(id, rows);
+        }
+    }
+
+    public Map<String, Employee> employees() { return employees; }
+    public Map<String, List<KpiRecord>> kpiByEmployee() { return kpiByEmployee; }
+    public KpiStore kpiStore() { return KpiStore.from(kpiByEmployee); }
+
+    public Path writeEmployeesCsv(Path dir) throws IOException {
+        Path file = dir.resolve("employees.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("id,dept,level\n");
+            for (Employee e : employees.values()) {
+                out.write(e.getId() + "," + e.getDept() + "," + e.getLevel() + "\n");
+            }
+        }
+        return file;
+    }
+
+    public Path writeKpiCsv(Path dir) throws IOException {
+        Path file = dir.resolve("kpi.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("id,metric,value,weight\n");
+            for (List<KpiRecord> rows : kpiByEmployee.values()) {
+                for (KpiRecord k : rows) {
+                    out.write(String.format(Locale.ROOT, "%s,%s,%.2f,%.2f%n",
+                            k.getid(), k.getMetric(), k.getValue(), k.getWeight()));
+                }
+            }
+        }
+        return file;
+    }
+
+    public int kpisPerEmployee() { return kpisPerEmployee; }
+}
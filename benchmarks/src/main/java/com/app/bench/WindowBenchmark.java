@@ -0,0 +1,98 @@
+package com.app.bench;
+
+import com.app.inputs.KpiAggregate;
+import com.app.inputs.KpiHistory;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.inputs.KpiWindow;
+import com.app.inputs.SymbolTable;
+import com.app.policies.WeightingPolicy;
+import com.app.policies.ZScorePolicy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw scores over a {@code window}-period window: sliding the window over pre-aggregated
+ * partitions vs re-scanning the window's rows into a KPI store. Invocations alternate between
+ * windows ending at the last two periods, so every slide adds one partition and drops one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowBenchmark {
+
+    @Param({ "4" })
+    public int window;
+
+    @Param({ "8" })
+    public int periods;
+
+    private final WeightingPolicy policy = new ZScorePolicy();
+    private final List<Map<String, List<KpiRecord>>> rowsByPeriod = new ArrayList<>();
+    private final KpiAggregate aggregate = new KpiAggregate();
+
+    private List<String> ids;
+    private KpiWindow kpiWindow;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        KpiHistory history = new KpiHistory();
+        for (int p = 0; p < periods; p++) {
+            int period = SymbolTable.PERIODS.intern(String.format("P%03d", p));
+            SyntheticData data = new SyntheticData(state.employees, state.kpisPerEmployee, state.departments, p);
+            Map<String, List<KpiRecord>> rows = new HashMap<>();
+            data.kpiByEmployee().forEach((id, kpis) -> {
+                List<KpiRecord> tagged = new ArrayList<>(kpis.size());
+                for (KpiRecord k : kpis) {
+                    tagged.add(new KpiRecord(id, k.getMetricCode(), k.getValue(), k.getWeight(), period));
+                }
+                rows.put(id, tagged);
+            });
+            history.addAll(rows);
+            rowsByPeriod.add(rows);
+        }
+        ids = new ArrayList<>(rowsByPeriod.get(0).keySet());
+        kpiWindow = history.window(window);
+        kpiWindow.advance();
+    }
+
+    @Benchmark
+    public double slide() {
+        int last = periods - 1 - (next++ & 1);
+        kpiWindow.moveTo(String.format("P%03d", last));
+
+        double total = 0;
+        for (String id : ids) {
+            if (kpiWindow.aggregate(id, aggregate)) total += policy.computeScore(aggregate);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double rescan() {
+        int last = periods - 1 - (next++ & 1);
+        KpiStore.Builder builder = new KpiStore.Builder();
+        for (int p = last - window + 1; p <= last; p++) {
+            rowsByPeriod.get(p).forEach((id, kpis) -> {
+                for (KpiRecord k : kpis) builder.add(id, k.getMetricCode(), k.getValue(), k.getWeight());
+            });
+        }
+        KpiStore store = builder.build();
+
+        double[] scores = new double[store.employeeCount()];
+        store.score(policy, 0, scores.length, scores);
+        double total = 0;
+        for (double s : scores) total += s;
+        return total;
+    }
+}
@@ -0,0 +1,55 @@
+package com.app.evaluator;
+
+import com.app.bench.BenchmarkState;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.policies.LinearWeightsPolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.RunningStats;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lives in {@code com.app.evaluator} to reach the protected {@code normalize}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NormalizeBenchmark {
+
+    private Employee[] employees;
+    private double[] raw;
+    private DepartmentEvaluator evaluator;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        LinearWeightsPolicy policy = new LinearWeightsPolicy();
+        KpiStore store = state.data.kpiStore();
+        employees = state.data.employees().values().toArray(new Employee[0]);
+        raw = new double[employees.length];
+        Map<String, RunningStats> byDept = new HashMap<>();
+
+        for (int i = 0; i < employees.length; i++) {
+            raw[i] = store.score(policy, store.indexOf(employees[i].getId()));
+            byDept.computeIfAbsent(employees[i].getDept(), d -> new RunningStats()).add(raw[i]);
+        }
+
+        Map<String, DeptStats> stats = new HashMap<>();
+        byDept.forEach((dept, s) -> stats.put(dept, s.toDeptStats()));
+        evaluator = new DepartmentEvaluator(policy, stats);
+    }
+
+    @Benchmark
+    public double normalize() {
+        double sum = 0;
+        for (int i = 0; i < employees.length; i++) sum += evaluator.normalize(employees[i], raw[i]);
+        return sum;
+    }
+}
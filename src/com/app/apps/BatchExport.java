@@ -0,0 +1,57 @@
+package com.app.apps;
+
+import com.app.batch.BatchJob;
+import com.app.batch.BatchRunner;
+import com.app.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Runs the evaluation jobs of a manifest concurrently, writing each job's reports to its own
+ * directory; see {@link BatchJob#readManifest} for the format. Exits 1 if any job failed.
+ *
+ * <pre>java -Dthreads=8 com.app.apps.BatchExport jobs.csv</pre>
+ */
+public class BatchExport {
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("usage: BatchExport <manifest.csv>");
+            System.exit(2);
+        }
+        Path metrics = Metrics.outputFile();
+        // -Dthreads bounds the platform threads scoring all jobs; jobs themselves run on virtual threads.
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        int failed = 0;
+        try {
+            List<BatchJob> jobs = BatchJob.readManifest(Paths.get(args[0]));
+            long start = System.nanoTime();
+            List<BatchRunner.Outcome> outcomes = new BatchRunner(threads).run(jobs);
+            for (BatchRunner.Outcome o : outcomes) {
+                if (o.succeeded()) {
+                    System.out.printf("%s: %d employees, %.1f ms -> %s%n",
+                            o.job().name(), o.employees(), o.nanos() / 1e6, o.job().output());
+                } else {
+                    failed++;
+                    System.out.printf("%s: FAILED: %s%n", o.job().name(), o.error().getMessage());
+                }
+            }
+            System.out.printf("%d jobs, %d failed, %.1f ms%n", outcomes.size(), failed, (System.nanoTime() - start) / 1e6);
+            if (metrics != null) {
+                Metrics.write(metrics);
+                System.out.println("Metrics written to " + metrics);
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.exit(1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            System.err.println("ERROR: interrupted");
+            System.exit(1);
+        }
+        if (failed > 0) System.exit(1);
+    }
+}
@@ -1,49 +1,192 @@
 package com.app.apps;
 
+import com.app.cache.CachingPolicy;
+import com.app.cache.ScoreCache;
+import com.app.columns.ColumnAllocator;
+import com.app.columns.Columns;
+import com.app.columns.DoubleColumn;
 import com.app.inputs.*;
 import com.app.exception.*;
 import com.app.evaluator.*;
 import com.app.policies.*;
 import com.app.summary.*;
 import com.app.export.*;
+import com.app.metrics.Metrics;
+import com.app.metrics.Throughput;
+import com.app.metrics.Timer;
+import com.app.service.Evaluation;
+import com.app.service.EvaluationService;
+import com.app.snapshot.EngineSnapshot;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 
 public class Main {
 
-    private final Map<String, Employee> employees = new HashMap<>();
+    private static final long PARALLEL_LOAD_BYTES = 64L << 20;
+    // -DqueueDepth sets how many batches of employee groups the pipelined mode lets the reader run ahead.
+    private static final int PIPELINE_QUEUE_DEPTH = Integer.getInteger("queueDepth", 64);
+    // -Dcolumns=offheap keeps KPI and score columns in native memory (Java 22+, or --enable-preview on Java 21).
+    private static final boolean OFF_HEAP = "offheap".equalsIgnoreCase(System.getProperty("columns"));
+    // -DscoreCacheSize bounds the raw scores -DscoreCache keeps (64 bytes of heap each).
+    private static final int SCORE_CACHE_SIZE = Integer.getInteger("scoreCacheSize", 1_000_000);
+    // -DoutputDir=<dir> is where menu option 4 writes the reports, created if missing.
+    private static final Path OUTPUT_DIR = Paths.get(System.getProperty("outputDir", ""));
+
+    private static final Timer LOAD_EMPLOYEES = EvaluationMetrics.phase("load_employees");
+    private static final Timer LOAD_KPIS = EvaluationMetrics.phase("load_kpis");
+    private static final Timer KPI_STORE = EvaluationMetrics.phase("kpi_store");
+    private static final Timer HISTORY_ADD = EvaluationMetrics.phase("history_add");
+    private static final Timer WINDOW_SLIDE = EvaluationMetrics.phase("window_slide");
+    private static final Timer EVALUATE_ALL = EvaluationMetrics.phase("evaluate_all");
+    private static final Timer EXPORT = EvaluationMetrics.phase("export");
+    private static final Timer LOAD_AND_EVALUATE = EvaluationMetrics.phase("pipelined_load_evaluate");
+    private static final Timer APPLY_DELTA = EvaluationMetrics.phase("apply_delta");
+    private static final Timer SNAPSHOT_SAVE = EvaluationMetrics.phase("snapshot_save");
+    private static final Timer SNAPSHOT_LOAD = EvaluationMetrics.phase("snapshot_load");
+
+    // File order of first occurrence, which is also result order; the out-of-core path reproduces it.
+    private final Map<String, Employee> employees = new LinkedHashMap<>();
     private final Map<String, List<KpiRecord>> kpiByEmployee = new HashMap<>();
-    private final Map<String, EvaluationResult> evaluations = new HashMap<>();
-    private final Map<String, DeptSummary> deptSummaries = new HashMap<>();
+    private final WeightingPolicy policy;
+    // -DratingBands=1.5,0.75,0,-0.75 sets the lowest score of each rating band, best band first.
+    private final RatingBands ratingBands = ratingBands();
+    private KpiStore kpiStore;
+    private ColumnAllocator kpiColumns = Columns.heap();
+    // -Dwindow=4 keeps every loaded KPI period in a history and evaluates the latest 4 periods.
+    private final KpiHistory history = new KpiHistory();
+    private final KpiWindow window = kpiWindow(history);
+    private IncrementalEvaluator incremental;
+    private final int threads;
+    private final Path snapshot;
+    private final Path scoreCacheFile;
+    private final ScoreCache scoreCache;
+    private long reportedHits;
+    private long reportedMisses;
+    // Results, ranking and summaries live in the service; every change publishes a new set.
+    private final EvaluationService service;
+
+    public Main(int threads) {
+        this(threads, null);
+    }
+
+    public Main(int threads, Path snapshot) {
+        this(threads, snapshot, new LinearWeightsPolicy(), null);
+    }
+
+    /** {@code scoreCache}, if not null, is the file raw scores are cached in between runs. */
+    public Main(int threads, Path snapshot, WeightingPolicy policy, Path scoreCache) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        if (window != null && !policy.scoresAggregates()) {
+            throw new IllegalArgumentException("-Dwindow scores KPI aggregates, which "
+                    + policy.getClass().getSimpleName() + " cannot; use the linear or zscore policy");
+        }
+        this.threads = threads;
+        this.snapshot = snapshot;
+        this.scoreCacheFile = scoreCache;
+        this.scoreCache = scoreCache == null ? null : openScoreCache(scoreCache);
+        this.policy = this.scoreCache == null ? policy : new CachingPolicy(policy, this.scoreCache);
+        this.service = new EvaluationService(this.policy, ratingBands, threads);
+    }
+
+    /** Query API over the latest evaluation, safe to call from other threads while the menu runs. */
+    public EvaluationService getService() { return service; }
 
     public static void main(String[] args) {
-        new Main().runMenu();
+        // -Dthreads=1 forces the sequential load/evaluate paths.
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        // -Dsnapshot=<file> restores state from the file at startup and saves it after each evaluation.
+        String snapshot = System.getProperty("snapshot");
+        // -DscoreCache=<file> keeps raw scores there between runs, so only changed employees are rescored.
+        String scoreCache = System.getProperty("scoreCache");
+        // -Dmetrics=<file> turns on metrics and writes them there on exit (.prom/.txt for Prometheus text, else JSON).
+        Path metrics = Metrics.outputFile();
+        if (metrics != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Metrics.write(metrics);
+                    System.out.println("Metrics written to " + metrics);
+                } catch (IOException ex) {
+                    System.err.println("ERROR: could not write metrics: " + ex.getMessage());
+                }
+            }));
+        }
+        // -Dpolicy=linear|zscore|formula:<file> picks the scoring policy; see FormulaPolicy for formulas.
+        WeightingPolicy policy;
+        try {
+            policy = Policies.forName(System.getProperty("policy", "linear"));
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (policy instanceof FormulaPolicy formula) {
+            System.out.println("Scoring with " + formula.formula());
+            formula.departments().forEach((dept, p) -> System.out.println("  dept " + dept + ": " + p.formula()));
+        }
+        if (OFF_HEAP && !Columns.offHeapAvailable()) {
+            System.out.println("Off-heap columns need Java 22 or later, or --enable-preview on Java 21; using heap columns.");
+        }
+        Main main;
+        try {
+            main = new Main(threads, snapshot == null ? null : Paths.get(snapshot), policy,
+                    scoreCache == null ? null : Paths.get(scoreCache));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+        main.runMenu();
     }
 
     private void runMenu() {
         Scanner sc = new Scanner(System.in);
         int choice;
 
+        if (snapshot != null && Files.exists(snapshot)) {
+            try {
+                loadSnapshot(snapshot);
+            } catch (IOException | RuntimeException ex) {
+                System.out.println("ERROR: " + ex.getMessage());
+            }
+        }
+
         do {
             printMenu();
-            while (!sc.hasNextInt()) {
+            while (sc.hasNext() && !sc.hasNextInt()) {
                 System.out.print("Enter a number: ");
                 sc.next();
             }
+            // End of input, e.g. a script that never chose Exit, exits.
+            if (!sc.hasNext()) {
+                System.out.println("Exiting...");
+                break;
+            }
             choice = sc.nextInt();
-            sc.nextLine();
+            if (sc.hasNextLine()) sc.nextLine();
 
             try {
                 switch (choice) {
                     case 1 -> loadFiles(sc);
-                    case 2 -> evaluateAll();
+                    case 2 -> {
+                        evaluateAll();
+                        autoSave();
+                    }
                     case 3 -> topN(sc);
                     case 4 -> exportReports();
                     case 5 -> showPoorPerformers();   // ✅ NEW
                     case 6 -> System.out.println("Exiting...");
+                    case 7 -> {
+                        applyDeltaFile(sc);
+                        autoSave();
+                    }
+                    case 8 -> {
+                        loadAndEvaluateFiles(sc);
+                        autoSave();
+                    }
                     default -> System.out.println("Invalid choice.");
                 }
             } catch (IOException | RuntimeException ex) {
@@ -61,6 +204,8 @@ public class Main {
         System.out.println("4. Export Reports");
         System.out.println("5. Show Poor Performance Employees"); // ✅ NEW
         System.out.println("6. Exit");
+        System.out.println("7. Apply KPI Delta File");
+        System.out.println("8. Load & Evaluate (Pipelined)");
         System.out.print("Enter choice: ");
     }
 
@@ -70,6 +215,10 @@ public class Main {
         System.out.print("Enter KPI file path: ");
         String kpiFile = sc.nextLine().trim();
 
+        load(empFile, kpiFile);
+    }
+
+    public void load(String empFile, String kpiFile) throws IOException {
         loadEmployees(empFile);
         loadKpis(kpiFile);
 
@@ -77,131 +226,309 @@ public class Main {
     }
 
     private void loadEmployees(String filePath) throws IOException {
+        long t = Metrics.start();
         employees.clear();
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
-        int lineno = 0;
+        incremental = null;
+        new EmployeeCsvLoader(employees).load(Paths.get(filePath));
+        LOAD_EMPLOYEES.stop(t);
 
-        for (String rawLine : lines) {
-            lineno++;
-            if (rawLine == null) continue;
+        System.out.printf("Loaded %d employees from %s%n", employees.size(), filePath);
+    }
 
-            String line = rawLine.replace("\uFEFF", "").trim();
-            if (line.isBlank() || line.startsWith("#")) continue;
+    private void loadKpis(String filePath) throws IOException {
+        long t = Metrics.start();
+        kpiByEmployee.clear();
+        Path path = Paths.get(filePath);
+
+        if (threads > 1 && Files.size(path) >= PARALLEL_LOAD_BYTES) {
+            ParallelKpiLoader loader = new ParallelKpiLoader(kpiByEmployee, threads);
+            loader.load(path);
+            for (ParallelKpiLoader.ChunkReport c : loader.getChunkReports()) {
+                System.out.printf("  chunk %d: %d bytes, %d rows, %.1f ms%n",
+                        c.getIndex(), c.getLength(), c.getRows(), c.getNanos() / 1e6);
+            }
+        } else {
+            new KpiCsvLoader(kpiByEmployee).load(path);
+        }
+        LOAD_KPIS.stop(t);
+        dropKpiStore();
+        if (window == null) kpiStore = buildKpiStore();
 
-            String[] parts = line.contains(",")
-                    ? line.split("\\s*,\\s*")
-                    : line.split("\\s+");
+        System.out.printf("Loaded KPIs for %d employees%n", kpiByEmployee.size());
+        if (window != null) {
+            t = Metrics.start();
+            int periods = history.addAll(kpiByEmployee);
+            HISTORY_ADD.stop(t);
+            System.out.printf("KPI history: %d periods written, %d held%n", periods, history.periodCount());
+        }
+    }
 
-            String first = parts[0].toLowerCase();
-            if (lineno == 1 &&
-                    (first.equals("id") || first.equals("empid") || first.equals("employee"))) {
-                continue;
-            }
+    private void loadAndEvaluateFiles(Scanner sc) throws IOException {
+        System.out.print("Enter employees file path: ");
+        String empFile = sc.nextLine().trim();
+        System.out.print("Enter KPI file path: ");
+        String kpiFile = sc.nextLine().trim();
+
+        loadAndEvaluate(empFile, kpiFile);
+    }
+
+    /** Loads both files and evaluates, scoring employees while the KPI file is still being read. */
+    public void loadAndEvaluate(String empFile, String kpiFile) throws IOException {
+        if (window != null) throw new IllegalStateException("Pipelined loading does not keep KPI history; load and evaluate separately.");
+        loadEmployees(empFile);
 
-            if (parts.length < 3) continue;
+        long t = Metrics.start();
+        kpiByEmployee.clear();
+        dropKpiStore();
+
+        PipelinedEvaluator pipeline = new PipelinedEvaluator(policy, ratingBands, threads, PIPELINE_QUEUE_DEPTH);
+        ResultsTable results = new ResultsTable(employees.values(), Columns.openCollected(OFF_HEAP));
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        int rows = pipeline.run(Paths.get(kpiFile), kpiByEmployee, results, summaries);
+        LOAD_AND_EVALUATE.stop(t);
+        publish(results, summaries);
+
+        System.out.printf("Loaded %d KPI rows for %d employees; scored %d groups (%d rescored), reader waited %.1f ms%n",
+                rows, kpiByEmployee.size(), pipeline.getGroups(), pipeline.getRescored(),
+                pipeline.getStallNanos() / 1e6);
+        System.out.println("Evaluation completed.");
+    }
 
-            String id = parts[0].trim();
-            String dept = parts[1].trim();
-            String level = parts[2].trim();
+    public void evaluateAll() {
+        if (employees.isEmpty()) throw new IllegalStateException("No employees loaded.");
 
-            if (!id.isEmpty()) {
-                employees.put(id, new Employee(id, dept, level));
+        long t = Metrics.start();
+        incremental = null;
+
+        // Queries keep answering from the published evaluation until this one replaces it.
+        // Its columns are freed by the garbage collector once no reader holds them.
+        ResultsTable results = new ResultsTable(employees.values(), Columns.openCollected(OFF_HEAP));
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        if (window != null) {
+            evaluateWindow(results, summaries);
+        } else {
+            // A delta leaves the columnar store stale; it is rebuilt on the next full evaluation.
+            if (kpiStore == null) kpiStore = buildKpiStore();
+            if (threads > 1) {
+                new ParallelEvaluator(policy, ratingBands, kpiStore, threads).evaluate(results, summaries);
+            } else {
+                evaluateSequential(results, summaries);
             }
         }
-
-        System.out.printf("Loaded %d employees from %s%n", employees.size(), filePath);
+        EVALUATE_ALL.stop(t);
+        publish(results, summaries);
+        System.out.println("Evaluation completed.");
     }
 
-    private void loadKpis(String filePath) throws IOException {
-        kpiByEmployee.clear();
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
+    private static RatingBands ratingBands() {
+        String bounds = System.getProperty("ratingBands");
+        return bounds == null ? RatingBands.DEFAULT : RatingBands.parse(bounds);
+    }
 
-        for (String rawLine : lines) {
-            if (rawLine == null) continue;
+    private static KpiWindow kpiWindow(KpiHistory history) {
+        int periods = Integer.getInteger("window", 0);
+        return periods > 0 ? history.window(periods) : null;
+    }
 
-            String line = rawLine.replace("\uFEFF", "").trim();
-            if (line.isBlank() || line.startsWith("#")) continue;
+    private KpiStore buildKpiStore() {
+        long t = Metrics.start();
+        dropKpiStore();
+        kpiColumns = Columns.open(OFF_HEAP);
+        KpiStore store = KpiStore.from(kpiByEmployee, kpiColumns);
+        KPI_STORE.stop(t);
+        return store;
+    }
 
-            String[] parts = line.contains(",")
-                    ? line.split("\\s*,\\s*")
-                    : line.split("\\s+");
+    private void dropKpiStore() {
+        kpiStore = null;
+        kpiColumns.close();
+        kpiColumns = Columns.heap();
+    }
 
-            if (parts.length < 4) continue;
+    private void publish(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        service.publish(results, deptSummaries);
+    }
 
-            try {
-                String id = parts[0].trim();
-                String metric = parts[1].trim();
-                double value = Double.parseDouble(parts[2].trim());
-                double weight = Double.parseDouble(parts[3].trim());
+    private void evaluateSequential(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        int n = results.size();
+        double[] rawScores = new double[n];
+        Throughput scoring = EvaluationMetrics.scoring(policy);
 
-                if (weight <= 0) continue;
+        int[] kpiIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            Employee e = results.employee(i);
+            int idx = kpiStore == null ? -1 : kpiStore.indexOf(e.getId());
+            if (idx < 0 || kpiStore.count(idx) == 0)
+                throw new MissingKpiException("Missing KPI records for " + e.getId());
 
-                kpiByEmployee.computeIfAbsent(id, k -> new ArrayList<>())
-                             .add(new KpiRecord(id, metric, value, weight));
+            kpiIndex[i] = idx;
+        }
 
-            } catch (NumberFormatException ignored) {}
+        long t = Metrics.start();
+        if (policy.variesByDepartment()) {
+            // Each employee takes its department's policy, so the store is not scored as one batch.
+            for (int i = 0; i < n; i++) {
+                rawScores[i] = kpiStore.score(policy.forDepartment(results.employee(i).getDeptCode()), kpiIndex[i]);
+            }
+            scoring.stop(t, n);
+        } else {
+            DoubleColumn storeScores = results.columns().doubles(kpiStore.employeeCount());
+            kpiStore.score(policy, 0, storeScores.length(), storeScores);
+            for (int i = 0; i < n; i++) rawScores[i] = storeScores.get(kpiIndex[i]);
+            scoring.stop(t, storeScores.length());
         }
+        EvaluationMetrics.RAW_SCORING.stop(t);
+
+        t = Metrics.start();
+        RunningStats[] rawByDept = new RunningStats[SymbolTable.DEPARTMENTS.size()];
+        for (int i = 0; i < n; i++) {
+            int code = results.employee(i).getDeptCode();
+            if (rawByDept[code] == null) rawByDept[code] = new RunningStats();
+            rawByDept[code].add(rawScores[i]);
+        }
+        DeptStats[] statsByDept = new DeptStats[rawByDept.length];
+        for (int code = 0; code < rawByDept.length; code++) {
+            if (rawByDept[code] != null) statsByDept[code] = rawByDept[code].toDeptStats();
+        }
+        EvaluationMetrics.DEPT_STATS.stop(t);
 
-        System.out.printf("Loaded KPIs for %d employees%n", kpiByEmployee.size());
-    }
+        t = Metrics.start();
+        Evaluator evaluator = new DepartmentEvaluator(policy, ratingBands, statsByDept);
+        for (int i = 0; i < n; i++) evaluator.evaluate(results.employee(i), rawScores[i], results, i);
+        EvaluationMetrics.EVALUATE.stop(t);
 
-    private void evaluateAll() {
-        if (employees.isEmpty()) throw new IllegalStateException("No employees loaded.");
+        t = Metrics.start();
+        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+        ResultsTable.Row row = results.row();
+        for (int i = 0; i < n; i++) builder.add(row.moveTo(i));
+        deptSummaries.putAll(builder.build());
+        EvaluationMetrics.SUMMARY.stop(t);
+    }
 
-        evaluations.clear();
-        deptSummaries.clear();
+    /** Scores employees from their totals over the window, without rescanning KPI rows. */
+    private void evaluateWindow(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        long t = Metrics.start();
+        int slid = window.advance();
+        WINDOW_SLIDE.stop(t);
+
+        t = Metrics.start();
+        double[] rawScores = new double[results.size()];
+        KpiAggregate aggregate = new KpiAggregate();
+        for (int i = 0; i < rawScores.length; i++) {
+            Employee e = results.employee(i);
+            if (!window.aggregate(e.getId(), aggregate))
+                throw new MissingKpiException("Missing KPI records for " + e.getId() + " in window " + window.periods());
+
+            rawScores[i] = policy.forDepartment(e.getDeptCode()).computeScore(aggregate);
+        }
+        EvaluationMetrics.RAW_SCORING.stop(t);
 
-        WeightingPolicy policy = new LinearWeightsPolicy();
-        Map<String, Double> rawScores = new HashMap<>();
+        new ParallelEvaluator(policy, ratingBands, null, threads).evaluateScored(rawScores, results, deptSummaries);
+        System.out.printf("Scored window %s (%d periods added or dropped)%n", window.periods(), slid);
+    }
 
-        for (Employee e : employees.values()) {
-            List<KpiRecord> kpis = kpiByEmployee.get(e.getId());
-            if (kpis == null || kpis.isEmpty())
-                throw new MissingKpiException("Missing KPI records for " + e.getId());
+    private void applyDeltaFile(Scanner sc) throws IOException {
+        System.out.print("Enter KPI delta file path: ");
+        applyDelta(sc.nextLine().trim());
+    }
 
-            rawScores.put(e.getId(), policy.computeScore(kpis));
+    public int applyDelta(String deltaFile) throws IOException {
+        Evaluation current = service.current();
+        if (current.isEmpty()) throw new IllegalStateException("Run a full evaluation first.");
+        if (window != null) throw new IllegalStateException("Deltas do not apply to KPI history; reload the corrected period.");
+
+        long t = Metrics.start();
+        KpiDelta delta = KpiDelta.load(Paths.get(deltaFile));
+        Map<String, List<KpiRecord>> changedKpis = delta.resolve(kpiByEmployee);
+
+        // Copy on write: readers keep the published results while the delta is applied.
+        ResultsTable results = current.table().copy(Columns.openCollected(OFF_HEAP));
+        Map<String, DeptSummary> summaries = new HashMap<>(current.deptSummaries());
+        if (incremental == null) {
+            incremental = new IncrementalEvaluator(policy, ratingBands, results, summaries);
+        } else {
+            incremental.retarget(results, summaries);
         }
+        int changed = incremental.update(changedKpis);
+
+        changedKpis.forEach((id, kpis) -> {
+            if (kpis.isEmpty()) kpiByEmployee.remove(id);
+            else kpiByEmployee.put(id, kpis);
+        });
+        if (!changedKpis.isEmpty()) dropKpiStore();
+        APPLY_DELTA.stop(t);
+        // The next delta starts from a fresh copy, so an unchanged one is dropped.
+        if (changed > 0) publish(results, summaries);
+
+        System.out.printf("Applied %d delta rows: %d employees rescored, %d results changed%n",
+                delta.getRows(), incremental.getLastRescored(), changed);
+        return changed;
+    }
 
-        Map<String, DeptStats> statsByDept = computeDeptStats(rawScores);
-        Evaluator evaluator = new DepartmentEvaluator(policy, statsByDept);
-        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+    private void autoSave() throws IOException {
+        if (snapshot != null) saveSnapshot(snapshot);
+        if (scoreCache != null) saveScoreCache();
+    }
 
-        for (Employee e : employees.values()) {
-            EvaluationResult result = evaluator.evaluate(e, kpiByEmployee.get(e.getId()));
-            evaluations.put(e.getId(), result);
-            builder.add(result);
+    private static ScoreCache openScoreCache(Path file) {
+        try {
+            ScoreCache cache = ScoreCache.load(file, SCORE_CACHE_SIZE);
+            if (cache.size() > 0) System.out.printf("Score cache: %d entries from %s%n", cache.size(), file);
+            return cache;
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("ERROR: " + ex.getMessage() + "; starting with an empty score cache.");
+            return new ScoreCache(SCORE_CACHE_SIZE);
         }
-
-        deptSummaries.putAll(builder.build());
-        System.out.println("Evaluation completed.");
     }
 
-    private Map<String, DeptStats> computeDeptStats(Map<String, Double> rawScores) {
-        Map<String, List<Double>> byDept = new HashMap<>();
+    private void saveScoreCache() throws IOException {
+        long hits = scoreCache.hits(), misses = scoreCache.misses();
+        System.out.printf("Score cache: %d hits, %d misses, %d entries%n",
+                hits - reportedHits, misses - reportedMisses, scoreCache.size());
+        reportedHits = hits;
+        reportedMisses = misses;
+        if (scoreCache.isDirty()) scoreCache.save(scoreCacheFile);
+    }
 
-        for (Employee e : employees.values()) {
-            byDept.computeIfAbsent(e.getDept(), d -> new ArrayList<>())
-                  .add(rawScores.getOrDefault(e.getId(), 0.0));
-        }
+    public void saveSnapshot(Path file) throws IOException {
+        long start = System.nanoTime();
+        Evaluation current = service.current();
+        long bytes = new EngineSnapshot(employees, kpiByEmployee, history, current.table(), current.deptSummaries()).save(file);
+        SNAPSHOT_SAVE.record(System.nanoTime() - start);
 
-        Map<String, DeptStats> stats = new HashMap<>();
-        for (var entry : byDept.entrySet()) {
-            List<Double> v = entry.getValue();
-            double mean = v.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-            double std = Math.sqrt(v.stream().mapToDouble(x -> (x - mean) * (x - mean)).average().orElse(0));
-            double min = v.stream().mapToDouble(Double::doubleValue).min().orElse(mean);
-            double max = v.stream().mapToDouble(Double::doubleValue).max().orElse(mean);
+        System.out.printf("Snapshot saved to %s (%d bytes, %.1f ms)%n", file, bytes, (System.nanoTime() - start) / 1e6);
+    }
 
-            stats.put(entry.getKey(), new DeptStats(mean, std, min, max));
+    public void loadSnapshot(Path file) throws IOException {
+        long start = System.nanoTime();
+        employees.clear();
+        kpiByEmployee.clear();
+        history.clear();
+        if (window != null) window.reset();
+        dropKpiStore();
+        incremental = null;
+
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        ResultsTable results;
+        try {
+            results = new EngineSnapshot(employees, kpiByEmployee, history, null, summaries).load(file);
+        } catch (IOException | RuntimeException ex) {
+            employees.clear();
+            kpiByEmployee.clear();
+            history.clear();
+            publish(new ResultsTable(new Employee[0]), new HashMap<>());
+            throw ex;
         }
-        return stats;
+        publish(results, summaries);
+        SNAPSHOT_LOAD.record(System.nanoTime() - start);
+
+        System.out.printf("Restored %d employees, %d evaluations from %s (%.1f ms)%n",
+                employees.size(), results.size(), file, (System.nanoTime() - start) / 1e6);
     }
 
     private void topN(Scanner sc) {
         System.out.println("Top N : ");
-		evaluations.values().stream()
-                .sorted(Comparator.comparingDouble(EvaluationResult::getNormalizedScore).reversed())
-                .limit(sc.nextInt())
+        service.topN(sc.nextInt())
                 .forEach(r -> {
                     Employee e = r.getEmployee();
                     System.out.printf("ID=%s Dept=%s Score=%.4f Rating=%s%n",
@@ -213,9 +540,8 @@ public class Main {
     private void showPoorPerformers() {
         System.out.println("---- POOR PERFORMANCE EMPLOYEES ----");
 
-        evaluations.values().stream()
-                .filter(r -> "POOR".equalsIgnoreCase(r.getRating()))
-                .sorted(Comparator.comparingDouble(EvaluationResult::getNormalizedScore))
+        service.current().ranking().ascending().stream()
+                .filter(r -> r.getRating().isPoor())
                 .forEach(r -> {
                     Employee e = r.getEmployee();
                     System.out.printf(
@@ -226,18 +552,12 @@ public class Main {
                 });
     }
 
-    private void exportReports() throws IOException {
-        List<ReportExporter> exporters = List.of(
-                new RatingsCsvExporter(evaluations),
-                new BonusListExporter(evaluations),
-                new PromotionCandidatesExporter(evaluations),
-                new DeptSummaryExporter(deptSummaries),
-                new PoorPerformanceCsvExporter(evaluations)
-        );
-
-        for (ReportExporter exporter : exporters) {
-            exporter.export();
-        }
+    public void exportReports() throws IOException {
+        Evaluation current = service.current();
+        long t = Metrics.start();
+        Files.createDirectories(OUTPUT_DIR.toAbsolutePath());
+        new ExportPipeline(current.ranking(), current.deptSummaries(), OUTPUT_DIR).export();
+        EXPORT.stop(t);
 
         System.out.println("All reports exported successfully.");
     }
@@ -0,0 +1,87 @@
+package com.app.apps;
+
+import com.app.evaluator.EvaluationMetrics;
+import com.app.evaluator.RatingBands;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
+import com.app.policies.Policies;
+import com.app.policies.WeightingPolicy;
+import com.app.spill.OutOfCoreEvaluator;
+import com.app.spill.SpilledEvaluation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Evaluates an employees file and a KPI file and writes the reports, holding at most about
+ * {@code -DheapBudget} of rows and results on the heap and spilling the rest to
+ * {@code -DspillDir}. Reports are the files menu option 4 of {@link Main} writes after loading
+ * and evaluating the same files.
+ *
+ * <pre>java -DheapBudget=256m com.app.apps.OutOfCoreExport employees.csv kpi.csv</pre>
+ */
+public class OutOfCoreExport {
+
+    private static final Timer EVALUATE_ALL = EvaluationMetrics.phase("evaluate_all");
+    private static final Timer EXPORT = EvaluationMetrics.phase("export");
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("usage: OutOfCoreExport <employees.csv> <kpi.csv>");
+            System.exit(2);
+        }
+        Path metrics = Metrics.outputFile();
+        try {
+            // -DheapBudget=256m bounds the rows and results held on the heap (k, m or g suffix).
+            long heapBudget = parseSize(System.getProperty("heapBudget", "256m"));
+            // -DspillDir=<dir> is where run files go, in a directory of their own that is removed afterwards.
+            Path spillDir = Paths.get(System.getProperty("spillDir", System.getProperty("java.io.tmpdir")));
+            String bounds = System.getProperty("ratingBands");
+            RatingBands bands = bounds == null ? RatingBands.DEFAULT : RatingBands.parse(bounds);
+            // -Dpolicy=linear|zscore|formula:<file>, as for Main.
+            WeightingPolicy policy = Policies.forName(System.getProperty("policy", "linear"));
+            // -DoutputDir=<dir> is where the reports go, created if missing.
+            Path outputDir = Paths.get(System.getProperty("outputDir", ""));
+
+            OutOfCoreEvaluator evaluator = new OutOfCoreEvaluator(policy, bands, heapBudget, spillDir);
+            long t = Metrics.start();
+            try (SpilledEvaluation evaluation = evaluator.evaluate(Paths.get(args[0]), Paths.get(args[1]))) {
+                EVALUATE_ALL.stop(t);
+                System.out.printf("Evaluated %d employees in %d departments; %d run files%n",
+                        evaluation.size(), evaluation.deptSummaries().size(), evaluation.runCount());
+
+                t = Metrics.start();
+                Files.createDirectories(outputDir.toAbsolutePath());
+                evaluation.exporter(outputDir).export();
+                EXPORT.stop(t);
+            }
+            System.out.println("All reports exported successfully.");
+            if (metrics != null) {
+                Metrics.write(metrics);
+                System.out.println("Metrics written to " + metrics);
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static long parseSize(String size) {
+        String s = size.trim().toLowerCase(Locale.ROOT);
+        int shift = switch (s.isEmpty() ? ' ' : s.charAt(s.length() - 1)) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        if (shift > 0) s = s.substring(0, s.length() - 1);
+        try {
+            return Long.parseLong(s) << shift;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Bad heapBudget: " + size);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.app.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One evaluation of a batch: an employees file and a KPI file scored with a policy, reports
+ * written to {@code output}. {@code ratingBands} is in {@code -DratingBands} form, or null for
+ * the default bands.
+ */
+public record BatchJob(String name, Path employees, Path kpis, String policy, Path output, String ratingBands) {
+
+    private static final String FORMULA = "formula:";
+
+    /**
+     * Reads a manifest of one job per line,
+     *
+     * <pre>
+     * # name,employees,kpis,policy,output[,ratingBands]
+     * base,emp.csv,kpi.csv,linear,out/base
+     * strict,emp.csv,kpi.csv,linear,out/strict,2,1,0,-1
+     * sales,emp.csv,kpi.csv,formula:sales.formula,out/sales
+     * </pre>
+     *
+     * <p>The rating bands, if given, are the rest of the line. Relative paths, including a
+     * formula file's, are resolved against the manifest's directory. Blank lines, {@code #}
+     * comments and a {@code name,...} header are skipped; names must be unique.
+     */
+    public static List<BatchJob> readManifest(Path manifest) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<BatchJob> jobs = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            lineNo++;
+            String l = line.strip();
+            if (l.isEmpty() || l.startsWith("#")) continue;
+
+            String[] f = l.split(",", 6);
+            for (int i = 0; i < f.length; i++) f[i] = f[i].strip();
+            if (jobs.isEmpty() && f[0].equalsIgnoreCase("name")) continue;
+            if (f.length < 5) {
+                throw new IllegalArgumentException(manifest + " line " + lineNo
+                        + ": expected name,employees,kpis,policy,output[,ratingBands]");
+            }
+            if (!names.add(f[0])) {
+                throw new IllegalArgumentException(manifest + " line " + lineNo + ": duplicate job '" + f[0] + "'");
+            }
+            String policy = f[3].startsWith(FORMULA)
+                    ? FORMULA + base.resolve(f[3].substring(FORMULA.length()).strip())
+                    : f[3];
+            jobs.add(new BatchJob(f[0], base.resolve(f[1]), base.resolve(f[2]), policy, base.resolve(f[4]),
+                    f.length > 5 && !f[5].isEmpty() ? f[5] : null));
+        }
+        return jobs;
+    }
+}
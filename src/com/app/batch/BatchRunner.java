@@ -0,0 +1,196 @@
+package com.app.batch;
+
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.RatingBands;
+import com.app.evaluator.ResultsTable;
+import com.app.export.ExportPipeline;
+import com.app.inputs.Employee;
+import com.app.inputs.EmployeeCsvLoader;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.KpiStore;
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+import com.app.policies.Policies;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent evaluation jobs concurrently, each on its own virtual thread, which blocks
+ * cheaply on reading inputs and writing reports. Scoring, evaluation and ranking go to one
+ * fork-join pool of platform threads shared by every job, so however many jobs are running, at
+ * most {@code scoringThreads} cores score at once. Jobs naming the same employees or KPI file
+ * share one parse of it, kept until the last of them finishes. A failed job does not stop the
+ * others; its error is in its {@link Outcome}.
+ *
+ * <p>Each job's reports are the files {@code Main} writes for the same inputs, policy and bands.
+ */
+public class BatchRunner {
+
+    private static final Counter SUCCEEDED = Metrics.counter("engine_batch_jobs_total", "result", "succeeded");
+    private static final Counter FAILED = Metrics.counter("engine_batch_jobs_total", "result", "failed");
+    private static final Counter EMPLOYEE_LOADS = Metrics.counter("engine_batch_input_loads_total", "file", "employees");
+    private static final Counter KPI_LOADS = Metrics.counter("engine_batch_input_loads_total", "file", "kpi");
+
+    private final int scoringThreads;
+
+    public BatchRunner(int scoringThreads) {
+        if (scoringThreads < 1) throw new IllegalArgumentException("scoringThreads must be >= 1");
+        this.scoringThreads = scoringThreads;
+    }
+
+    /** A job's result: employees evaluated and wall time, or the error that stopped it. */
+    public record Outcome(BatchJob job, int employees, long nanos, Exception error) {
+        public boolean succeeded() { return error == null; }
+    }
+
+    /** Runs every job, returning their outcomes in job order once all have finished. */
+    public List<Outcome> run(List<BatchJob> jobs) throws InterruptedException {
+        Inputs inputs = new Inputs(jobs);
+        ForkJoinPool scoring = new ForkJoinPool(scoringThreads);
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Outcome>> running = new ArrayList<>();
+            for (BatchJob job : jobs) running.add(threads.submit(() -> run(job, inputs, scoring)));
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> f : running) {
+                try {
+                    outcomes.add(f.get());
+                } catch (ExecutionException ex) {
+                    // Jobs return their exceptions; only errors get here.
+                    if (ex.getCause() instanceof Error e) throw e;
+                    throw new IllegalStateException(ex.getCause());
+                }
+            }
+            return outcomes;
+        } finally {
+            scoring.shutdown();
+        }
+    }
+
+    private static Outcome run(BatchJob job, Inputs inputs, ForkJoinPool scoring) {
+        long start = System.nanoTime();
+        try {
+            WeightingPolicy policy = Policies.forName(job.policy());
+            RatingBands bands = job.ratingBands() == null ? RatingBands.DEFAULT : RatingBands.parse(job.ratingBands());
+            Map<String, Employee> employees = inputs.employees(job.employees());
+            KpiStore kpis = inputs.kpis(job.kpis());
+            if (employees.isEmpty()) throw new IllegalStateException("No employees loaded.");
+
+            ResultsTable results = new ResultsTable(employees.values());
+            Map<String, DeptSummary> summaries = new HashMap<>();
+            new ParallelEvaluator(policy, bands, kpis, scoring).evaluate(results, summaries);
+            RankingIndex ranking = scoring.invoke(ForkJoinTask.adapt(() -> new RankingIndex(results)));
+
+            Files.createDirectories(job.output());
+            new ExportPipeline(ranking, summaries, job.output(), Thread.ofVirtual().factory()).export();
+            SUCCEEDED.increment();
+            return new Outcome(job, results.size(), System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException ex) {
+            FAILED.increment();
+            return new Outcome(job, 0, System.nanoTime() - start, ex);
+        } finally {
+            inputs.release(job);
+        }
+    }
+
+    private static Map<String, Employee> loadEmployees(Path file) throws IOException {
+        // File order of first occurrence, the result order Main uses.
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        new EmployeeCsvLoader(employees).load(file);
+        EMPLOYEE_LOADS.increment();
+        return employees;
+    }
+
+    private static KpiStore loadKpis(Path file) throws IOException {
+        Map<String, List<KpiRecord>> kpiByEmployee = new HashMap<>();
+        new KpiCsvLoader(kpiByEmployee).load(file);
+        KPI_LOADS.increment();
+        return KpiStore.from(kpiByEmployee);
+    }
+
+    /**
+     * Parsed input files of one run. The first job to ask for a file parses it while later
+     * ones wait for that parse; the entry is dropped when the last job naming the file is done.
+     * Shared inputs are only read.
+     */
+    private static final class Inputs {
+        private final Map<Path, Shared<Map<String, Employee>>> employees = new ConcurrentHashMap<>();
+        private final Map<Path, Shared<KpiStore>> kpis = new ConcurrentHashMap<>();
+
+        Inputs(List<BatchJob> jobs) {
+            for (BatchJob job : jobs) {
+                Path e = key(job.employees()), k = key(job.kpis());
+                employees.computeIfAbsent(e, p -> new Shared<>(() -> loadEmployees(p))).users.incrementAndGet();
+                kpis.computeIfAbsent(k, p -> new Shared<>(() -> loadKpis(p))).users.incrementAndGet();
+            }
+        }
+
+        Map<String, Employee> employees(Path file) throws IOException {
+            return employees.get(key(file)).get();
+        }
+
+        KpiStore kpis(Path file) throws IOException {
+            return kpis.get(key(file)).get();
+        }
+
+        void release(BatchJob job) {
+            release(employees, key(job.employees()));
+            release(kpis, key(job.kpis()));
+        }
+
+        private static void release(Map<Path, ? extends Shared<?>> inputs, Path key) {
+            if (inputs.get(key).users.decrementAndGet() == 0) inputs.remove(key);
+        }
+
+        private static Path key(Path file) {
+            return file.toAbsolutePath().normalize();
+        }
+    }
+
+    private static final class Shared<T> {
+        final FutureTask<T> load;
+        final AtomicInteger users = new AtomicInteger();
+
+        Shared(Callable<T> load) {
+            this.load = new FutureTask<>(load);
+        }
+
+        // Only the first caller's run() parses; the rest return at once and wait in get().
+        T get() throws IOException {
+            load.run();
+            try {
+                return load.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading inputs", ex);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof RuntimeException re) throw re;
+                if (cause instanceof Error e) throw e;
+                throw new IOException(cause);
+            }
+        }
+    }
+}
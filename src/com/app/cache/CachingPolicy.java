@@ -0,0 +1,269 @@
+package com.app.cache;
+
+import com.app.columns.DoubleColumn;
+import com.app.inputs.KpiAggregate;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.SymbolTable;
+import com.app.policies.WeightingPolicy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Scores through a {@link ScoreCache}, so employees whose KPI rows are unchanged since an
+ * earlier evaluation, in this run or a saved one, skip scoring. Only raw scores are cached;
+ * normalization against department statistics still runs on every evaluation.
+ *
+ * <p>The key is a 128-bit hash of the wrapped policy's {@link WeightingPolicy#identity()} and the
+ * bits of every value and weight in row order, plus each row's metric name when the policy
+ * {@link WeightingPolicy#readsMetrics() reads metrics}: everything the policy sees. The record
+ * form and the forms with metric codes, which are the ones the evaluators call, are cached;
+ * the forms without metric codes and scoring from {@link KpiAggregate}s are passed through.
+ * A department's policy, from {@link #forDepartment(int)}, caches through the same store under
+ * its own identity.
+ */
+public final class CachingPolicy implements WeightingPolicy {
+
+    private static final long K1 = 0x9E3779B97F4A7C15L;
+    private static final long K2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final WeightingPolicy policy;
+    private final ScoreCache cache;
+    private final boolean readsMetrics;
+    private final long seedHi;
+    private final long seedLo;
+    // Hashes of metric names by SymbolTable code; names, unlike codes, are the same in every run.
+    private volatile long[] metricHashes = new long[16];
+    // Wrapped department policies by SymbolTable code, filled on first use.
+    private volatile WeightingPolicy[] byDeptCode = new WeightingPolicy[0];
+
+    public CachingPolicy(WeightingPolicy policy, ScoreCache cache) {
+        this.policy = policy;
+        this.cache = cache;
+        this.readsMetrics = policy.readsMetrics();
+        long hi = K1, lo = K2;
+        for (byte b : policy.identity().getBytes(StandardCharsets.UTF_8)) {
+            hi = Long.rotateLeft(hi ^ b, 29) * K1;
+            lo = Long.rotateLeft(lo ^ b, 31) * K2;
+        }
+        this.seedHi = mix(hi);
+        this.seedLo = mix(lo);
+    }
+
+    public WeightingPolicy delegate() { return policy; }
+
+    public ScoreCache cache() { return cache; }
+
+    @Override
+    public String identity() { return policy.identity(); }
+
+    @Override
+    public boolean readsMetrics() { return readsMetrics; }
+
+    @Override
+    public double computeScore(List<KpiRecord> kpis) {
+        long hi = seedHi, lo = seedLo;
+        for (KpiRecord k : kpis) {
+            long v = Double.doubleToLongBits(k.getValue()), w = Double.doubleToLongBits(k.getWeight());
+            long m = readsMetrics ? metricHash(k.getMetricCode()) : 0;
+            hi = Long.rotateLeft(hi ^ v, 29) * K1 + (w ^ m);
+            lo = Long.rotateLeft(lo ^ w ^ m, 31) * K2 + v;
+        }
+        return cached(mix(hi ^ kpis.size()), mix(lo + kpis.size()), () -> policy.computeScore(kpis));
+    }
+
+    @Override
+    public double computeScore(int[] metrics, double[] values, double[] weights, int from, int to) {
+        Keys keys = new Keys(1);
+        keys.hash(0, metrics, values, weights, from, to);
+        return cached(keys.hi[0], keys.lo[0], () -> policy.computeScore(metrics, values, weights, from, to));
+    }
+
+    @Override
+    public double computeScore(int[] metrics, DoubleColumn values, DoubleColumn weights, int from, int to) {
+        Keys keys = new Keys(1);
+        keys.hash(0, metrics, values, weights, from, to);
+        return cached(keys.hi[0], keys.lo[0], () -> policy.computeScore(metrics, values, weights, from, to));
+    }
+
+    @Override
+    public void computeScores(int[] metrics, double[] values, double[] weights, int[] offsets, int from, int to,
+                              double[] out) {
+        Keys keys = new Keys(to - from);
+        for (int e = from; e < to; e++) keys.hash(e - from, metrics, values, weights, offsets[e], offsets[e + 1]);
+        int hits = keys.lookUp();
+        if (hits == 0) {
+            // Cold cache: keep the policy's batch loop.
+            policy.computeScores(metrics, values, weights, offsets, from, to, out);
+            for (int e = from; e < to; e++) keys.scores[e - from] = out[e];
+        } else {
+            for (int e = from; e < to; e++) {
+                int i = e - from;
+                if (!keys.found[i]) {
+                    keys.scores[i] = policy.computeScore(metrics, values, weights, offsets[e], offsets[e + 1]);
+                }
+                out[e] = keys.scores[i];
+            }
+        }
+        keys.store(hits);
+    }
+
+    @Override
+    public void computeScores(int[] metrics, DoubleColumn values, DoubleColumn weights, int[] offsets,
+                              int from, int to, DoubleColumn out) {
+        Keys keys = new Keys(to - from);
+        for (int e = from; e < to; e++) keys.hash(e - from, metrics, values, weights, offsets[e], offsets[e + 1]);
+        int hits = keys.lookUp();
+        if (hits == 0) {
+            policy.computeScores(metrics, values, weights, offsets, from, to, out);
+            for (int e = from; e < to; e++) keys.scores[e - from] = out.get(e);
+        } else {
+            for (int e = from; e < to; e++) {
+                int i = e - from;
+                if (!keys.found[i]) {
+                    keys.scores[i] = policy.computeScore(metrics, values, weights, offsets[e], offsets[e + 1]);
+                }
+                out.set(e, keys.scores[i]);
+            }
+        }
+        keys.store(hits);
+    }
+
+    @Override
+    public double computeScore(double[] values, double[] weights, int from, int to) {
+        return policy.computeScore(values, weights, from, to);
+    }
+
+    @Override
+    public double computeScore(DoubleColumn values, DoubleColumn weights, int from, int to) {
+        return policy.computeScore(values, weights, from, to);
+    }
+
+    @Override
+    public void computeScores(double[] values, double[] weights, int[] offsets, int from, int to, double[] out) {
+        policy.computeScores(values, weights, offsets, from, to, out);
+    }
+
+    @Override
+    public void computeScores(DoubleColumn values, DoubleColumn weights, int[] offsets, int from, int to,
+                              DoubleColumn out) {
+        policy.computeScores(values, weights, offsets, from, to, out);
+    }
+
+    @Override
+    public boolean variesByDepartment() { return policy.variesByDepartment(); }
+
+    @Override
+    public WeightingPolicy forDepartment(int deptCode) {
+        if (!policy.variesByDepartment() || deptCode < 0) return this;
+        WeightingPolicy[] policies = byDeptCode;
+        if (deptCode < policies.length && policies[deptCode] != null) return policies[deptCode];
+        return wrap(deptCode);
+    }
+
+    private synchronized WeightingPolicy wrap(int deptCode) {
+        WeightingPolicy[] policies = byDeptCode;
+        if (deptCode < policies.length && policies[deptCode] != null) return policies[deptCode];
+        policies = Arrays.copyOf(policies, Math.max(deptCode + 1, policies.length));
+        WeightingPolicy dept = policy.forDepartment(deptCode);
+        policies[deptCode] = dept == policy ? this : new CachingPolicy(dept, cache);
+        byDeptCode = policies;
+        return policies[deptCode];
+    }
+
+    @Override
+    public boolean scoresAggregates() { return policy.scoresAggregates(); }
+
+    @Override
+    public double computeScore(KpiAggregate aggregate) {
+        return policy.computeScore(aggregate);
+    }
+
+    private double cached(long hi, long lo, DoubleSupplier score) {
+        double[] hit = new double[1];
+        if (cache.get(hi, lo, hit, 0)) return hit[0];
+        double s = score.getAsDouble();
+        cache.put(hi, lo, s);
+        return s;
+    }
+
+    private long metricHash(int code) {
+        long[] hashes = metricHashes;
+        long h = code >= 0 && code < hashes.length ? hashes[code] : 0;
+        return h != 0 ? h : hashMetric(code);
+    }
+
+    private synchronized long hashMetric(int code) {
+        if (code < 0) return K2;
+        long[] hashes = metricHashes;
+        if (code < hashes.length && hashes[code] != 0) return hashes[code];
+        // Copied on write, so readers never see a partly written array.
+        hashes = Arrays.copyOf(hashes, Math.max(code + 1, hashes.length));
+        long h = K2;
+        for (byte b : SymbolTable.METRICS.name(code).getBytes(StandardCharsets.UTF_8)) {
+            h = Long.rotateLeft(h ^ b, 29) * K1;
+        }
+        hashes[code] = mix(h) | 1;
+        metricHashes = hashes;
+        return hashes[code];
+    }
+
+    // murmur3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Keys, lookup results and scores of one batch of employees. */
+    private final class Keys {
+        final long[] hi;
+        final long[] lo;
+        final double[] scores;
+        final boolean[] found;
+
+        Keys(int n) {
+            hi = new long[n];
+            lo = new long[n];
+            scores = new double[n];
+            found = new boolean[n];
+        }
+
+        void hash(int i, int[] metrics, double[] values, double[] weights, int from, int to) {
+            long h = seedHi, l = seedLo;
+            for (int r = from; r < to; r++) {
+                long v = Double.doubleToLongBits(values[r]), w = Double.doubleToLongBits(weights[r]);
+                long m = readsMetrics ? metricHash(metrics[r]) : 0;
+                h = Long.rotateLeft(h ^ v, 29) * K1 + (w ^ m);
+                l = Long.rotateLeft(l ^ w ^ m, 31) * K2 + v;
+            }
+            hi[i] = mix(h ^ (to - from));
+            lo[i] = mix(l + (to - from));
+        }
+
+        void hash(int i, int[] metrics, DoubleColumn values, DoubleColumn weights, int from, int to) {
+            long h = seedHi, l = seedLo;
+            for (int r = from; r < to; r++) {
+                long v = Double.doubleToLongBits(values.get(r)), w = Double.doubleToLongBits(weights.get(r));
+                long m = readsMetrics ? metricHash(metrics[r]) : 0;
+                h = Long.rotateLeft(h ^ v, 29) * K1 + (w ^ m);
+                l = Long.rotateLeft(l ^ w ^ m, 31) * K2 + v;
+            }
+            hi[i] = mix(h ^ (to - from));
+            lo[i] = mix(l + (to - from));
+        }
+
+        int lookUp() {
+            return cache.getAll(hi, lo, hi.length, scores, found);
+        }
+
+        void store(int hits) {
+            if (hits < hi.length) cache.putAll(hi, lo, hi.length, scores, found);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.app.cache;
+
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bounded map from 128-bit keys to raw scores, kept between runs in a local file. The keys are
+ * opaque here; {@link CachingPolicy} derives them from a policy's identity and an employee's
+ * KPI rows.
+ *
+ * <p>Entries live in an open-addressing table at most half full, with linear probing and
+ * backward-shift removal, so there are no tombstones. Each slot is four adjacent longs (key
+ * halves, score bits, state), so a probe usually touches a single cache line. When the table
+ * holds {@code maxEntries} an insert evicts by CLOCK: a hand sweeps the slots, clearing the
+ * referenced bit that every hit sets and removing the first entry it finds without one. All
+ * methods are synchronized; callers look up and insert whole batches at a time.
+ *
+ * <p>File layout, big-endian: magic, version, entry count, referenced entry count, then each
+ * entry's two key halves and score, and the magic again. Referenced entries come first, and
+ * each group runs backwards from the hand, so a smaller bound at load time keeps roughly the
+ * entries CLOCK would have kept. Only roughly: removals shift entries back past the hand.
+ */
+public final class ScoreCache {
+
+    private static final int MAGIC = 0x50455343; // "PESC"
+    private static final int VERSION = 2;
+
+    private static final long EMPTY = 0;
+    private static final long PRESENT = 1;
+    private static final long REFERENCED = 2;
+
+    // Slot layout in the table: key halves, score bits, state.
+    private static final int HI = 0, LO = 1, SCORE = 2, STATE = 3;
+
+    private static final Counter HITS = Metrics.counter("engine_score_cache_lookups_total", "result", "hit");
+    private static final Counter MISSES = Metrics.counter("engine_score_cache_lookups_total", "result", "miss");
+    private static final Counter EVICTIONS = Metrics.counter("engine_score_cache_evictions_total");
+
+    private final int maxEntries;
+    private final int mask;
+    private final long[] table;
+    private int size;
+    private int hand;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean dirty;
+
+    public ScoreCache(int maxEntries) {
+        if (maxEntries < 1 || maxEntries > 1 << 27) throw new IllegalArgumentException("maxEntries out of range: " + maxEntries);
+        this.maxEntries = maxEntries;
+        int capacity = Integer.highestOneBit(2 * maxEntries - 1) << 1;
+        this.mask = capacity - 1;
+        this.table = new long[capacity * 4];
+    }
+
+    /** Reads the entries saved in {@code file}; an absent file gives an empty cache. */
+    public static ScoreCache load(Path file, int maxEntries) throws IOException {
+        ScoreCache cache = new ScoreCache(maxEntries);
+        if (!Files.exists(file)) return cache;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a score cache file: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported score cache version " + version);
+            int n = in.readInt();
+            int referenced = in.readInt();
+            for (int i = 0; i < n; i++) {
+                long hi = in.readLong(), lo = in.readLong();
+                double score = Double.longBitsToDouble(in.readLong());
+                // A smaller bound than the saving run's keeps the entries saved first.
+                if (cache.size < maxEntries) {
+                    int at = cache.insert(hi, lo, score);
+                    if (i < referenced) cache.table[at + STATE] = REFERENCED;
+                }
+            }
+            if (in.readInt() != MAGIC) throw new IOException("Corrupt score cache trailer: " + file);
+        }
+        cache.dirty = false;
+        return cache;
+    }
+
+    /** Writes every entry to {@code file}, replacing it atomically. Returns the file size. */
+    public synchronized long save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            int referenced = 0;
+            for (int at = STATE; at < table.length; at += 4) {
+                if (table[at] == REFERENCED) referenced++;
+            }
+            out.writeInt(size);
+            out.writeInt(referenced);
+            // evict() checks the slots after the hand first, so walking back from the hand
+            // visits the entries it would reach last; referenced ones survive its first sweep.
+            for (long state : new long[] { REFERENCED, PRESENT }) {
+                for (int k = 0; k <= mask; k++) {
+                    int at = ((hand - k) & mask) << 2;
+                    if (table[at + STATE] != state) continue;
+                    out.writeLong(table[at + HI]);
+                    out.writeLong(table[at + LO]);
+                    out.writeLong(table[at + SCORE]);
+                }
+            }
+            out.writeInt(MAGIC);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+        return Files.size(file);
+    }
+
+    /**
+     * Looks up keys {@code [0, n)}. Each hit gets its score in {@code out[i]} and
+     * {@code found[i] = true}; misses get {@code found[i] = false}. Returns the number of hits.
+     */
+    public synchronized int getAll(long[] hi, long[] lo, int n, double[] out, boolean[] found) {
+        int hit = 0;
+        for (int i = 0; i < n; i++) {
+            int at = find(hi[i], lo[i]);
+            found[i] = at >= 0;
+            if (at >= 0) {
+                out[i] = Double.longBitsToDouble(table[at + SCORE]);
+                hit++;
+            }
+        }
+        count(hit, n - hit);
+        return hit;
+    }
+
+    /** Inserts the scores of keys {@code [0, n)} that {@link #getAll} did not find. */
+    public synchronized void putAll(long[] hi, long[] lo, int n, double[] scores, boolean[] found) {
+        for (int i = 0; i < n; i++) {
+            if (!found[i]) put(hi[i], lo[i], scores[i]);
+        }
+    }
+
+    /** Single-key {@link #getAll}: stores a hit in {@code out[at]} and returns whether it was one. */
+    public synchronized boolean get(long hi, long lo, double[] out, int at) {
+        int slot = find(hi, lo);
+        if (slot >= 0) out[at] = Double.longBitsToDouble(table[slot + SCORE]);
+        count(slot >= 0 ? 1 : 0, slot >= 0 ? 0 : 1);
+        return slot >= 0;
+    }
+
+    public synchronized void put(long hi, long lo, double score) {
+        int at = find(hi, lo);
+        if (at >= 0) {
+            table[at + SCORE] = Double.doubleToRawLongBits(score);
+        } else {
+            if (size == maxEntries) evict();
+            insert(hi, lo, score);
+        }
+        dirty = true;
+    }
+
+    public synchronized int size() { return size; }
+
+    public int maxEntries() { return maxEntries; }
+
+    public synchronized long hits() { return hits; }
+
+    public synchronized long misses() { return misses; }
+
+    public synchronized long evictions() { return evictions; }
+
+    /** Whether entries changed since the cache was loaded or last saved. */
+    public synchronized boolean isDirty() { return dirty; }
+
+    private void count(int hit, int miss) {
+        hits += hit;
+        misses += miss;
+        HITS.add(hit);
+        MISSES.add(miss);
+    }
+
+    private int home(long lo) {
+        return (int) lo & mask;
+    }
+
+    // Index of the key's slot in the table, or -1.
+    private int find(long hi, long lo) {
+        for (int slot = home(lo); ; slot = (slot + 1) & mask) {
+            int at = slot << 2;
+            if (table[at + STATE] == EMPTY) return -1;
+            if (table[at + LO] == lo && table[at + HI] == hi) {
+                table[at + STATE] = REFERENCED;
+                return at;
+            }
+        }
+    }
+
+    // Returns the index of the new entry's slot in the table.
+    private int insert(long hi, long lo, double score) {
+        int slot = home(lo);
+        while (table[(slot << 2) + STATE] != EMPTY) slot = (slot + 1) & mask;
+        int at = slot << 2;
+        table[at + HI] = hi;
+        table[at + LO] = lo;
+        table[at + SCORE] = Double.doubleToRawLongBits(score);
+        table[at + STATE] = PRESENT;
+        size++;
+        return at;
+    }
+
+    // Ends within two sweeps: the first clears every referenced bit it passes.
+    private void evict() {
+        while (true) {
+            hand = (hand + 1) & mask;
+            int at = hand << 2;
+            if (table[at + STATE] == REFERENCED) {
+                table[at + STATE] = PRESENT;
+            } else if (table[at + STATE] == PRESENT) {
+                remove(hand);
+                evictions++;
+                EVICTIONS.increment();
+                return;
+            }
+        }
+    }
+
+    // Backward-shift removal: pulls later entries of the probe run into the hole while their
+    // home slot does not lie cyclically after it.
+    private void remove(int slot) {
+        int hole = slot;
+        for (int j = (hole + 1) & mask; table[(j << 2) + STATE] != EMPTY; j = (j + 1) & mask) {
+            int home = home(table[(j << 2) + LO]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                System.arraycopy(table, j << 2, table, hole << 2, 4);
+                hole = j;
+            }
+        }
+        table[(hole << 2) + STATE] = EMPTY;
+        size--;
+    }
+}
@@ -0,0 +1,26 @@
+package com.app.columns;
+
+/**
+ * Allocates the columns of one evaluation run and releases them together. {@link #close()}
+ * frees every column the allocator handed out; using one afterwards throws
+ * {@link IllegalStateException}. Heap allocators, and those from
+ * {@link Columns#openCollected}, leave the columns to the garbage collector and their close
+ * does nothing.
+ */
+public interface ColumnAllocator extends AutoCloseable {
+
+    /** A zero-filled column of {@code length} doubles. */
+    DoubleColumn doubles(int length);
+
+    /** A column of this allocator holding the values of {@code source}. */
+    default DoubleColumn copyOf(DoubleColumn source) {
+        DoubleColumn copy = doubles(source.length());
+        for (int i = 0; i < source.length(); i++) copy.set(i, source.get(i));
+        return copy;
+    }
+
+    boolean isOffHeap();
+
+    @Override
+    void close();
+}
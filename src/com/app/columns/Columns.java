@@ -0,0 +1,62 @@
+package com.app.columns;
+
+/**
+ * Chooses where evaluation columns live. Off-heap columns need Java 22 or later, or Java 21
+ * started with {@code --enable-preview}; otherwise {@link #open(boolean)} returns heap columns.
+ * Either way scores are bit-identical, only the storage differs.
+ */
+public final class Columns {
+
+    private static final String OFF_HEAP_CLASS = "com.app.columns.OffHeapColumns";
+    private static final boolean OFF_HEAP_AVAILABLE = detect();
+
+    private Columns() {}
+
+    /** The heap allocator; shared, as closing it does nothing. */
+    public static ColumnAllocator heap() {
+        return HeapColumns.INSTANCE;
+    }
+
+    /** A heap column over {@code values}, without copying. */
+    public static DoubleColumn wrap(double[] values) {
+        return HeapColumns.wrap(values);
+    }
+
+    public static boolean offHeapAvailable() {
+        return OFF_HEAP_AVAILABLE;
+    }
+
+    /** A new allocator for one run: off-heap if asked for and available, else {@link #heap()}. */
+    public static ColumnAllocator open(boolean offHeap) {
+        if (!offHeap || !OFF_HEAP_AVAILABLE) return heap();
+        try {
+            return (ColumnAllocator) Class.forName(OFF_HEAP_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create off-heap columns", ex);
+        }
+    }
+
+    /**
+     * A new allocator for results that outlive their run, such as a published evaluation
+     * that queries may still be reading: off-heap columns are freed by the garbage collector
+     * once unreachable, and close does nothing.
+     */
+    public static ColumnAllocator openCollected(boolean offHeap) {
+        if (!offHeap || !OFF_HEAP_AVAILABLE) return heap();
+        try {
+            return (ColumnAllocator) Class.forName(OFF_HEAP_CLASS).getDeclaredConstructor(boolean.class)
+                    .newInstance(true);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create off-heap columns", ex);
+        }
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName(OFF_HEAP_CLASS);
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.app.columns;
+
+/**
+ * A fixed-length column of doubles, on the heap or in native memory depending on the
+ * {@link ColumnAllocator} it came from. Reads and writes of distinct indexes may run on
+ * different threads; publishing writes to readers is the caller's business, as with arrays.
+ */
+public interface DoubleColumn {
+
+    int length();
+
+    double get(int i);
+
+    void set(int i, double value);
+
+    /** The backing array of a heap column, so hot loops can skip the interface; {@code null} off-heap. */
+    default double[] array() {
+        return null;
+    }
+}
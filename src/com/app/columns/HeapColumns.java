@@ -0,0 +1,36 @@
+package com.app.columns;
+
+/** Columns backed by {@code double[]}; the shared instance is {@link Columns#heap()}. */
+final class HeapColumns implements ColumnAllocator {
+
+    static final HeapColumns INSTANCE = new HeapColumns();
+
+    private HeapColumns() {}
+
+    static DoubleColumn wrap(double[] values) {
+        return new ArrayColumn(values);
+    }
+
+    @Override
+    public DoubleColumn doubles(int length) {
+        return new ArrayColumn(new double[length]);
+    }
+
+    @Override
+    public DoubleColumn copyOf(DoubleColumn source) {
+        double[] a = source.array();
+        return a != null ? new ArrayColumn(a.clone()) : ColumnAllocator.super.copyOf(source);
+    }
+
+    @Override
+    public boolean isOffHeap() { return false; }
+
+    @Override
+    public void close() {}
+
+    private record ArrayColumn(double[] array) implements DoubleColumn {
+        @Override public int length() { return array.length; }
+        @Override public double get(int i) { return array[i]; }
+        @Override public void set(int i, double value) { array[i] = value; }
+    }
+}
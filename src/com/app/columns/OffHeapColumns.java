@@ -0,0 +1,58 @@
+package com.app.columns;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Columns in native memory from one {@link Arena}, so the garbage collector never copies or
+ * scans them. A shared arena frees the whole run at once on close; an automatic one, for
+ * results that readers may still hold, frees it once no column is reachable.
+ *
+ * <p>The class only calls FFM methods whose signatures are the same in Java 21, where the API is
+ * a preview, and in Java 22 and later, where it is final. Maven compiles it with
+ * {@code --enable-preview} on JDK 21 and at release 22 on newer JDKs; see the engine POM. It is
+ * only loaded through {@link Columns}, which falls back to heap columns where it cannot load.
+ */
+final class OffHeapColumns implements ColumnAllocator {
+
+    private final Arena arena;
+    private final boolean collected;
+
+    OffHeapColumns() {
+        this(false);
+    }
+
+    OffHeapColumns(boolean collected) {
+        this.arena = collected ? Arena.ofAuto() : Arena.ofShared();
+        this.collected = collected;
+    }
+
+    @Override
+    public DoubleColumn doubles(int length) {
+        // allocate(size, alignment) rather than allocateArray, which Java 22 renamed.
+        ValueLayout.OfDouble layout = ValueLayout.JAVA_DOUBLE;
+        return new SegmentColumn(arena.allocate(layout.byteSize() * length, layout.byteAlignment()), length);
+    }
+
+    @Override
+    public DoubleColumn copyOf(DoubleColumn source) {
+        if (!(source instanceof SegmentColumn s)) return ColumnAllocator.super.copyOf(source);
+        SegmentColumn copy = (SegmentColumn) doubles(s.length);
+        copy.segment.copyFrom(s.segment);
+        return copy;
+    }
+
+    @Override
+    public boolean isOffHeap() { return true; }
+
+    @Override
+    public void close() {
+        if (!collected) arena.close();
+    }
+
+    private record SegmentColumn(MemorySegment segment, int length) implements DoubleColumn {
+        @Override public double get(int i) { return segment.getAtIndex(ValueLayout.JAVA_DOUBLE, i); }
+        @Override public void set(int i, double value) { segment.setAtIndex(ValueLayout.JAVA_DOUBLE, i, value); }
+    }
+}
@@ -1,6 +1,7 @@
 package com.app.evaluator;
 
 import com.app.inputs.Employee;
+import com.app.inputs.SymbolTable;
 import com.app.policies.WeightingPolicy;
 import com.app.summary.DeptStats;
 
@@ -8,17 +9,36 @@ import java.util.Map;
 
 public class DepartmentEvaluator extends Evaluator {
 
-    private final Map<String, DeptStats> statsByDept;
+    // Indexed by department code; null where a department has no stats.
+    private final DeptStats[] statsByDept;
+
+    public DepartmentEvaluator(WeightingPolicy weightingPolicy, DeptStats[] statsByDept) {
+        this(weightingPolicy, RatingBands.DEFAULT, statsByDept);
+    }
+
+    public DepartmentEvaluator(WeightingPolicy weightingPolicy, RatingBands bands, DeptStats[] statsByDept) {
+        super(weightingPolicy, bands);
+        this.statsByDept = statsByDept;
+    }
+
+    public DepartmentEvaluator(WeightingPolicy weightingPolicy, RatingBands bands, int deptCode, DeptStats stats) {
+        this(weightingPolicy, bands, new DeptStats[deptCode + 1]);
+        statsByDept[deptCode] = stats;
+    }
 
     public DepartmentEvaluator(WeightingPolicy weightingPolicy,
                                Map<String, DeptStats> statsByDept) {
-        super(weightingPolicy);
-        this.statsByDept = statsByDept;
+        this(weightingPolicy, new DeptStats[SymbolTable.DEPARTMENTS.size()]);
+        statsByDept.forEach((dept, stats) -> {
+            int code = SymbolTable.DEPARTMENTS.code(dept);
+            if (code >= 0 && code < this.statsByDept.length) this.statsByDept[code] = stats;
+        });
     }
 
     @Override
     protected double normalize(Employee employee, double rawScore) {
-        DeptStats stats = statsByDept.get(employee.getDept());
+        int code = employee.getDeptCode();
+        DeptStats stats = code >= 0 && code < statsByDept.length ? statsByDept[code] : null;
         if (stats == null) return 0.0;
 
         if (stats.getStd() == 0) {
@@ -0,0 +1,31 @@
+package com.app.evaluator;
+
+import com.app.cache.CachingPolicy;
+import com.app.metrics.Metrics;
+import com.app.metrics.Throughput;
+import com.app.metrics.Timer;
+import com.app.policies.WeightingPolicy;
+
+/**
+ * Recorders shared by the evaluation paths. In the parallel paths the phase timers record
+ * one sample per department task rather than one per evaluation.
+ */
+public final class EvaluationMetrics {
+
+    public static final Timer RAW_SCORING = phase("raw_scoring");
+    public static final Timer DEPT_STATS = phase("dept_stats");
+    public static final Timer EVALUATE = phase("evaluate");
+    public static final Timer SUMMARY = phase("summary");
+
+    private EvaluationMetrics() {}
+
+    public static Timer phase(String name) {
+        return Metrics.timer("engine_phase_seconds", "phase", name);
+    }
+
+    /** Employees scored, and time spent scoring them, for {@code policy}'s class; a cache is labelled by the policy it wraps. */
+    public static Throughput scoring(WeightingPolicy policy) {
+        while (policy instanceof CachingPolicy cached) policy = cached.delegate();
+        return Metrics.throughput("engine_scoring", "policy", policy.getClass().getSimpleName());
+    }
+}
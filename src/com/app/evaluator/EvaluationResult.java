@@ -2,32 +2,51 @@ package com.app.evaluator;
 
 import com.app.inputs.Employee;
 
-public class EvaluationResult {
-    private final Employee employee;
-    private final double rawScore;
-    private final double normalizedScore;
-    private final String rating;
-    private final boolean bonusEligible;
-    private final boolean promotionCandidate;
+/**
+ * One employee's evaluation. Standalone results come from {@link #of}; results held in a
+ * {@link ResultsTable} are read through its {@link ResultsTable.Row} views.
+ */
+public abstract class EvaluationResult {
 
-    public EvaluationResult(Employee employee,
-                            double rawScore,
-                            double normalizedScore,
-                            String rating,
-                            boolean bonusEligible,
-                            boolean promotionCandidate) {
-        this.employee = employee;
-        this.rawScore = rawScore;
-        this.normalizedScore = normalizedScore;
-        this.rating = rating;
-        this.bonusEligible = bonusEligible;
-        this.promotionCandidate = promotionCandidate;
+    public static EvaluationResult of(Employee employee,
+                                      double rawScore,
+                                      double normalizedScore,
+                                      Rating rating,
+                                      boolean bonusEligible,
+                                      boolean promotionCandidate) {
+        return new Value(employee, rawScore, normalizedScore, rating, bonusEligible, promotionCandidate);
     }
 
-    public Employee getEmployee() { return employee; }
-    public double getRawScore() { return rawScore; }
-    public double getNormalizedScore() { return normalizedScore; }
-    public String getRating() { return rating; }
-    public boolean isBonusEligible() { return bonusEligible; }
-    public boolean isPromotionCandidate() { return promotionCandidate; }
+    public abstract Employee getEmployee();
+    public abstract double getRawScore();
+    public abstract double getNormalizedScore();
+    public abstract Rating getRating();
+    public abstract boolean isBonusEligible();
+    public abstract boolean isPromotionCandidate();
+
+    private static final class Value extends EvaluationResult {
+        private final Employee employee;
+        private final double rawScore;
+        private final double normalizedScore;
+        private final Rating rating;
+        private final boolean bonusEligible;
+        private final boolean promotionCandidate;
+
+        Value(Employee employee, double rawScore, double normalizedScore, Rating rating,
+              boolean bonusEligible, boolean promotionCandidate) {
+            this.employee = employee;
+            this.rawScore = rawScore;
+            this.normalizedScore = normalizedScore;
+            this.rating = rating;
+            this.bonusEligible = bonusEligible;
+            this.promotionCandidate = promotionCandidate;
+        }
+
+        @Override public Employee getEmployee() { return employee; }
+        @Override public double getRawScore() { return rawScore; }
+        @Override public double getNormalizedScore() { return normalizedScore; }
+        @Override public Rating getRating() { return rating; }
+        @Override public boolean isBonusEligible() { return bonusEligible; }
+        @Override public boolean isPromotionCandidate() { return promotionCandidate; }
+    }
 }
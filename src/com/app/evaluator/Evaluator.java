@@ -7,40 +7,49 @@ import java.util.List;
 public abstract class Evaluator {
 
     protected final WeightingPolicy weightingPolicy;
+    protected final RatingBands bands;
 
     protected Evaluator(WeightingPolicy weightingPolicy) {
+        this(weightingPolicy, RatingBands.DEFAULT);
+    }
+
+    protected Evaluator(WeightingPolicy weightingPolicy, RatingBands bands) {
         this.weightingPolicy = weightingPolicy;
+        this.bands = bands;
     }
 
     public final EvaluationResult evaluate(Employee employee, List<KpiRecord> kpis) {
-        double raw = weightingPolicy.computeScore(kpis);
+        return evaluate(employee, weightingPolicy.forDepartment(employee.getDeptCode()).computeScore(kpis));
+    }
+
+    // For callers that already scored the employee (e.g. to build DeptStats) so the policy runs once.
+    public final EvaluationResult evaluate(Employee employee, double raw) {
         double norm = normalize(employee, raw);
-        String rating = assignRating(norm);
+        Rating rating = assignRating(norm);
         boolean bonus = isBonusEligible(norm, rating);
         boolean promo = isPromotionCandidate(employee, norm, rating);
 
-        return new EvaluationResult(employee, raw, norm, rating, bonus, promo);
+        return EvaluationResult.of(employee, raw, norm, rating, bonus, promo);
+    }
+
+    /** Same as {@link #evaluate(Employee, double)}, written to row {@code i} of {@code into}. */
+    public final void evaluate(Employee employee, double raw, ResultsTable into, int i) {
+        double norm = normalize(employee, raw);
+        Rating rating = assignRating(norm);
+        into.set(i, raw, norm, rating, isBonusEligible(norm, rating), isPromotionCandidate(employee, norm, rating));
     }
 
     protected abstract double normalize(Employee employee, double rawScore);
 
-    protected String assignRating(double score) {
-        if (score >= 1.5) return "Outstanding";
-        if (score >= 0.75) return "Exceeds Expectations";
-        if (score >= 0) return "Meets Expectations";
-        if (score >= -0.75) return "Below Expectations";
-        return "Unsatisfactory";
+    protected Rating assignRating(double score) {
+        return bands.rate(score);
     }
 
-    protected boolean isBonusEligible(double score, String rating) {
-        return score >= 0.25 && !rating.equals("Below Expectations") && !rating.equals("Unsatisfactory");
+    protected boolean isBonusEligible(double score, Rating rating) {
+        return score >= bands.bonusMinScore() && !rating.isPoor();
     }
 
-    protected boolean isPromotionCandidate(Employee e, double score, String rating) {
-        boolean strong = rating.equals("Outstanding") || rating.equals("Exceeds Expectations");
-        boolean notSenior = !e.getLevel().equalsIgnoreCase("Senior") &&
-                            !e.getLevel().equalsIgnoreCase("Principal");
-        return score >= 1.0 && strong && notSenior;
+    protected boolean isPromotionCandidate(Employee e, double score, Rating rating) {
+        return score >= bands.promotionMinScore() && rating.isStrong() && !e.isSenior();
     }
 }
- 
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.app.evaluator;
+
+import com.app.exception.MissingKpiException;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiRecord;
+import com.app.metrics.Metrics;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.DeptSummary;
+import com.app.summary.DeptSummaryBuilder;
+import com.app.summary.RunningStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a completed evaluation current as KPI rows change. Only changed employees are rescored;
+ * their department's raw stats are adjusted by removing the old and adding the new score.
+ * Members of an affected department are then re-normalized, and only those whose scores moved
+ * have their row rewritten. The department's summary is rebuilt in the same pass.
+ *
+ * <p>Reversed updates drift from a fresh pass by rounding only (see {@link RunningStats});
+ * a full evaluation resets them.
+ */
+public class IncrementalEvaluator {
+
+    private final WeightingPolicy policy;
+    private final RatingBands bands;
+    private ResultsTable results;
+    private Map<String, DeptSummary> deptSummaries;
+    // Department and position within it of each table ordinal.
+    private final Dept[] deptOf;
+    private final int[] posOf;
+
+    private int lastRescored;
+
+    public IncrementalEvaluator(WeightingPolicy policy, ResultsTable results,
+                                Map<String, DeptSummary> deptSummaries) {
+        this(policy, RatingBands.DEFAULT, results, deptSummaries);
+    }
+
+    public IncrementalEvaluator(WeightingPolicy policy, RatingBands bands, ResultsTable results,
+                                Map<String, DeptSummary> deptSummaries) {
+        this.policy = policy;
+        this.bands = bands;
+        this.results = results;
+        this.deptSummaries = deptSummaries;
+        this.deptOf = new Dept[results.size()];
+        this.posOf = new int[results.size()];
+
+        Map<Integer, List<Integer>> byDept = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            byDept.computeIfAbsent(results.employee(i).getDeptCode(), k -> new ArrayList<>()).add(i);
+        }
+        for (var entry : byDept.entrySet()) {
+            Dept d = new Dept(entry.getKey(), entry.getValue(), results);
+            for (int p = 0; p < d.members.length; p++) {
+                deptOf[d.members[p]] = d;
+                posOf[d.members[p]] = p;
+            }
+        }
+    }
+
+    /**
+     * Rescores employees from their new KPI lists and updates results and summaries.
+     * Ids that are not evaluated employees are ignored. Nothing changes if any employee
+     * would be left without KPIs.
+     *
+     * @return number of results replaced
+     */
+    public int update(Map<String, List<KpiRecord>> changedKpis) {
+        long t = Metrics.start();
+        List<Integer> targets = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        for (var entry : changedKpis.entrySet()) {
+            int i = results.indexOf(entry.getKey());
+            if (i < 0) continue;
+            List<KpiRecord> kpis = entry.getValue();
+            if (kpis == null || kpis.isEmpty())
+                throw new MissingKpiException("Missing KPI records for " + entry.getKey());
+            targets.add(i);
+            scores.add(policy.forDepartment(results.employee(i).getDeptCode()).computeScore(kpis));
+        }
+        lastRescored = targets.size();
+        EvaluationMetrics.scoring(policy).stop(t, lastRescored);
+
+        Set<Dept> affected = new LinkedHashSet<>();
+        for (int k = 0; k < targets.size(); k++) {
+            int i = targets.get(k);
+            if (deptOf[i].replace(posOf[i], scores.get(k))) affected.add(deptOf[i]);
+        }
+
+        int changed = 0;
+        for (Dept d : affected) changed += reevaluate(d);
+        return changed;
+    }
+
+    /**
+     * Continues on {@code results}, a {@link ResultsTable#copy()} of the table last updated, and
+     * {@code deptSummaries}, a copy of its summaries; later updates write there, leaving the
+     * originals untouched for readers.
+     */
+    public void retarget(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        if (results.size() != deptOf.length) throw new IllegalArgumentException("Table has a different size");
+        this.results = results;
+        this.deptSummaries = deptSummaries;
+    }
+
+    /** Employees rescored by the last {@link #update}, whether or not their score moved. */
+    public int getLastRescored() { return lastRescored; }
+
+    private int reevaluate(Dept d) {
+        Evaluator evaluator = new DepartmentEvaluator(policy, bands, d.code, d.toDeptStats());
+        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+        ResultsTable.Row row = results.row();
+        int changed = 0;
+
+        for (int p = 0; p < d.members.length; p++) {
+            int i = d.members[p];
+            Employee e = results.employee(i);
+            double raw = d.raws[p];
+
+            if (Double.compare(raw, results.rawScore(i)) != 0
+                    || Double.compare(evaluator.normalize(e, raw), results.normalizedScore(i)) != 0) {
+                evaluator.evaluate(e, raw, results, i);
+                changed++;
+            }
+            builder.add(row.moveTo(i));
+        }
+
+        DeptSummary summary = builder.build(d.code);
+        deptSummaries.put(summary.getDept(), summary);
+        return changed;
+    }
+
+    private static final class Dept {
+        private final int code;
+        private final int[] members;
+        private final double[] raws;
+        private final RunningStats stats = new RunningStats();
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private boolean boundsStale;
+
+        Dept(int code, List<Integer> members, ResultsTable results) {
+            this.code = code;
+            this.members = new int[members.size()];
+            this.raws = new double[this.members.length];
+            for (int i = 0; i < raws.length; i++) {
+                this.members[i] = members.get(i);
+                raws[i] = results.rawScore(this.members[i]);
+                stats.add(raws[i]);
+                if (raws[i] < min) min = raws[i];
+                if (raws[i] > max) max = raws[i];
+            }
+        }
+
+        /** Returns true if the member's raw score moved. */
+        boolean replace(int pos, double x) {
+            double old = raws[pos];
+            if (Double.compare(old, x) == 0) return false;
+
+            raws[pos] = x;
+            stats.remove(old);
+            stats.add(x);
+            // Bounds are not reversible: if the old score was an extreme, rescan the members.
+            if (old <= min || old >= max) boundsStale = true;
+            if (x < min) min = x;
+            if (x > max) max = x;
+            return true;
+        }
+
+        DeptStats toDeptStats() {
+            if (boundsStale) {
+                min = Double.POSITIVE_INFINITY;
+                max = Double.NEGATIVE_INFINITY;
+                for (double x : raws) {
+                    if (x < min) min = x;
+                    if (x > max) max = x;
+                }
+                boundsStale = false;
+            }
+            return new DeptStats(stats.getMean(), stats.getStd(), min, max);
+        }
+    }
+}
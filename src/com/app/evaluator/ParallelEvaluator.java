@@ -0,0 +1,253 @@
+package com.app.evaluator;
+
+import com.app.columns.DoubleColumn;
+import com.app.exception.MissingKpiException;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.inputs.SymbolTable;
+import com.app.metrics.Metrics;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.DeptSummary;
+import com.app.summary.DeptSummaryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Fork-join evaluation partitioned by department. Raw scores are computed first over the whole
+ * KPI store in employee ranges, through the policy's batch form, or one employee at a time
+ * when the policy {@link WeightingPolicy#variesByDepartment() varies by department}. Each
+ * department task then computes its {@link DeptStats}, evaluates and summarizes on its own,
+ * writing the table rows of its members, so the table and summaries it fills are identical to
+ * the sequential path in {@code Main}.
+ */
+public class ParallelEvaluator {
+
+    private static final int GRAIN = 2048;
+
+    private final WeightingPolicy policy;
+    private final RatingBands bands;
+    private final KpiStore kpiStore;
+    private final int threads;
+    // Set when evaluations run in a pool shared with other evaluators, which is left running.
+    private final ForkJoinPool shared;
+
+    public ParallelEvaluator(WeightingPolicy policy, KpiStore kpiStore, int threads) {
+        this(policy, RatingBands.DEFAULT, kpiStore, threads);
+    }
+
+    public ParallelEvaluator(WeightingPolicy policy, RatingBands bands, KpiStore kpiStore, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.policy = policy;
+        this.bands = bands;
+        this.kpiStore = kpiStore;
+        this.threads = threads;
+        this.shared = null;
+    }
+
+    /** Evaluates in {@code pool}, so evaluators sharing it together use at most its parallelism. */
+    public ParallelEvaluator(WeightingPolicy policy, RatingBands bands, KpiStore kpiStore, ForkJoinPool pool) {
+        this.policy = policy;
+        this.bands = bands;
+        this.kpiStore = kpiStore;
+        this.threads = pool.getParallelism();
+        this.shared = pool;
+    }
+
+    /** Evaluates every employee of {@code results} into its row. */
+    public void evaluate(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        int[] kpiIndex = new int[results.size()];
+
+        for (int i = 0; i < kpiIndex.length; i++) {
+            Employee e = results.employee(i);
+            int idx = kpiStore == null ? -1 : kpiStore.indexOf(e.getId());
+            if (idx < 0 || kpiStore.count(idx) == 0)
+                throw new MissingKpiException("Missing KPI records for " + e.getId());
+
+            kpiIndex[i] = idx;
+        }
+        if (kpiIndex.length == 0) return;
+
+        ForkJoinPool pool = pool();
+        try {
+            long t = Metrics.start();
+            IntToDoubleFunction score;
+            if (policy.variesByDepartment()) {
+                // Each employee takes its department's policy, so the store is not scored as one batch.
+                double[] raw = new double[kpiIndex.length];
+                pool.invoke(new RangeTask(0, raw.length, i -> raw[i] = kpiStore.score(
+                        policy.forDepartment(results.employee(i).getDeptCode()), kpiIndex[i])));
+                EvaluationMetrics.scoring(policy).stop(t, raw.length);
+                score = i -> raw[i];
+            } else {
+                // Scratch for the run, so it lives alongside the table's columns.
+                DoubleColumn storeRaw = results.columns().doubles(kpiStore.employeeCount());
+                pool.invoke(new ScoreTask(0, storeRaw.length(), storeRaw));
+                EvaluationMetrics.scoring(policy).stop(t, storeRaw.length());
+                score = i -> storeRaw.get(kpiIndex[i]);
+            }
+            EvaluationMetrics.RAW_SCORING.stop(t);
+
+            run(pool, results, score, deptSummaries);
+        } finally {
+            release(pool);
+        }
+    }
+
+    /**
+     * Evaluates employees that were already scored, {@code raw[i]} being the raw score of
+     * the employee at ordinal {@code i}; the KPI store is not used.
+     */
+    public void evaluateScored(double[] raw, ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        ForkJoinPool pool = pool();
+        try {
+            run(pool, results, i -> raw[i], deptSummaries);
+        } finally {
+            release(pool);
+        }
+    }
+
+    private ForkJoinPool pool() {
+        return shared != null ? shared : new ForkJoinPool(threads);
+    }
+
+    private void release(ForkJoinPool pool) {
+        if (pool != shared) pool.shutdown();
+    }
+
+    private void run(ForkJoinPool pool, ResultsTable results, IntToDoubleFunction score,
+                     Map<String, DeptSummary> deptSummaries) {
+        int[][] byDept = groupByDept(results);
+
+        List<DeptTask> tasks = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            int code = results.employee(i).getDeptCode();
+            if (byDept[code] == null) continue;
+            tasks.add(new DeptTask(code, byDept[code], score, results));
+            byDept[code] = null;
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+
+        for (DeptTask t : tasks) {
+            deptSummaries.put(t.summary.getDept(), t.summary);
+        }
+    }
+
+    private final class DeptTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int dept;
+        private final int[] members;
+        private final transient IntToDoubleFunction score;
+        private final transient ResultsTable results;
+        private transient DeptSummary summary;
+
+        DeptTask(int dept, int[] members, IntToDoubleFunction score, ResultsTable results) {
+            this.dept = dept;
+            this.members = members;
+            this.score = score;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            double[] raw = new double[members.length];
+            for (int i = 0; i < members.length; i++) raw[i] = score.applyAsDouble(members[i]);
+
+            long t = Metrics.start();
+            DeptStats stats = DeptStats.of(raw, 0, raw.length);
+            Evaluator evaluator = new DepartmentEvaluator(policy, bands, dept, stats);
+            EvaluationMetrics.DEPT_STATS.stop(t);
+
+            t = Metrics.start();
+            new RangeTask(0, members.length,
+                    i -> evaluator.evaluate(results.employee(members[i]), raw[i], results, members[i])).invoke();
+            EvaluationMetrics.EVALUATE.stop(t);
+
+            t = Metrics.start();
+            DeptSummaryBuilder builder = new DeptSummaryBuilder();
+            ResultsTable.Row row = results.row();
+            for (int m : members) builder.add(row.moveTo(m));
+            summary = builder.build(dept);
+            EvaluationMetrics.SUMMARY.stop(t);
+        }
+    }
+
+    private final class ScoreTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient DoubleColumn out;
+
+        ScoreTask(int from, int to, DoubleColumn out) {
+            this.from = from;
+            this.to = to;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                kpiStore.score(policy, from, to, out);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(from, mid, out), new ScoreTask(mid, to, out));
+        }
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) body.accept(i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+        }
+    }
+
+    // Ordinals of each department's employees, indexed by department code.
+    private static int[][] groupByDept(ResultsTable results) {
+        int[] counts = new int[SymbolTable.DEPARTMENTS.size()];
+        for (int i = 0; i < results.size(); i++) counts[results.employee(i).getDeptCode()]++;
+
+        int[][] byDept = new int[counts.length][];
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) byDept[code] = new int[counts[code]];
+            counts[code] = 0;
+        }
+        for (int i = 0; i < results.size(); i++) {
+            int code = results.employee(i).getDeptCode();
+            byDept[code][counts[code]++] = i;
+        }
+        return byDept;
+    }
+}
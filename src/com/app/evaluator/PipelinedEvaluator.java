@@ -0,0 +1,212 @@
+package com.app.evaluator;
+
+import com.app.exception.MissingKpiException;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.KpiRecord;
+import com.app.metrics.Metrics;
+import com.app.metrics.Throughput;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a KPI file and scores employees in one pass. The calling thread reads the file and
+ * hands each finished employee group, in batches, through a bounded queue to scoring workers;
+ * when the queue is full the reader waits, so it never runs more than {@code queueDepth}
+ * batches ahead of scoring. Once every raw score is in, department stats are final and
+ * employees are normalized and rated by {@link ParallelEvaluator}, so the results equal a
+ * separate load and evaluation.
+ *
+ * <p>Files grouped by employee id get the full overlap. Employees whose rows are split across
+ * the file are rescored from their complete rows after the read.
+ */
+public class PipelinedEvaluator {
+
+    private static final int BATCH = 256;
+    private static final Group[] END = new Group[0];
+
+    private final WeightingPolicy policy;
+    private final RatingBands bands;
+    private final int workers;
+    private final int queueDepth;
+
+    private int groups;
+    private int rescored;
+    private long stallNanos;
+
+    public PipelinedEvaluator(WeightingPolicy policy, int workers, int queueDepth) {
+        this(policy, RatingBands.DEFAULT, workers, queueDepth);
+    }
+
+    public PipelinedEvaluator(WeightingPolicy policy, RatingBands bands, int workers, int queueDepth) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+        if (queueDepth < 1) throw new IllegalArgumentException("queueDepth must be >= 1");
+        this.policy = policy;
+        this.bands = bands;
+        this.workers = workers;
+        this.queueDepth = queueDepth;
+    }
+
+    /** Evaluates every employee of {@code results} into its row; returns the number of KPI rows read. */
+    public int run(Path kpiFile, Map<String, List<KpiRecord>> kpiByEmployee, ResultsTable results,
+                   Map<String, DeptSummary> deptSummaries) throws IOException {
+        int n = results.size();
+        double[] raw = new double[n];
+        boolean[] handed = new boolean[n];
+        boolean[] split = new boolean[n];
+        BlockingQueue<Group[]> queue = new ArrayBlockingQueue<>(queueDepth);
+        groups = 0;
+        stallNanos = 0;
+
+        Throughput throughput = EvaluationMetrics.scoring(policy);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> scorers = new ArrayList<>(workers);
+        int rows;
+        try {
+            for (int w = 0; w < workers; w++) {
+                scorers.add(pool.submit(() -> {
+                    for (Group[] batch = queue.take(); batch != END; batch = queue.take()) {
+                        long t = Metrics.start();
+                        for (Group g : batch) {
+                            raw[g.index] = policy.forDepartment(results.employee(g.index).getDeptCode()).computeScore(g.kpis);
+                        }
+                        throughput.stop(t, batch.length);
+                    }
+                    return null;
+                }));
+            }
+
+            Feeder feeder = new Feeder(queue, scorers);
+            rows = new KpiCsvLoader(kpiByEmployee, (id, kpis) -> {
+                int idx = results.indexOf(id);
+                if (idx < 0) return;
+                if (handed[idx]) {
+                    split[idx] = true;
+                    return;
+                }
+                handed[idx] = true;
+                groups++;
+                feeder.add(new Group(idx, kpis));
+            }).load(kpiFile);
+            feeder.finish(workers);
+
+            for (Future<?> f : scorers) f.get();
+        } catch (Aborted ex) {
+            throw ex.unwrap();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scoring " + kpiFile, ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        rescored = 0;
+        for (int i = 0; i < n; i++) {
+            String id = results.employee(i).getId();
+            if (!handed[i]) throw new MissingKpiException("Missing KPI records for " + id);
+            if (split[i]) {
+                raw[i] = policy.forDepartment(results.employee(i).getDeptCode()).computeScore(kpiByEmployee.get(id));
+                rescored++;
+            }
+        }
+
+        new ParallelEvaluator(policy, bands, null, workers).evaluateScored(raw, results, deptSummaries);
+        return rows;
+    }
+
+    /** Employee groups handed to the scorers by the last run. */
+    public int getGroups() { return groups; }
+
+    /** Employees rescored after the last run because their rows were not contiguous. */
+    public int getRescored() { return rescored; }
+
+    /** Time the reader spent waiting on a full queue during the last run. */
+    public long getStallNanos() { return stallNanos; }
+
+    private record Group(int index, List<KpiRecord> kpis) {}
+
+    private final class Feeder {
+        private final BlockingQueue<Group[]> queue;
+        private final List<Future<?>> scorers;
+        private Group[] batch = new Group[BATCH];
+        private int filled;
+
+        Feeder(BlockingQueue<Group[]> queue, List<Future<?>> scorers) {
+            this.queue = queue;
+            this.scorers = scorers;
+        }
+
+        void add(Group g) {
+            batch[filled++] = g;
+            if (filled == BATCH) {
+                put(batch);
+                batch = new Group[BATCH];
+                filled = 0;
+            }
+        }
+
+        void finish(int workers) {
+            if (filled > 0) {
+                Group[] last = new Group[filled];
+                System.arraycopy(batch, 0, last, 0, filled);
+                put(last);
+            }
+            for (int w = 0; w < workers; w++) put(END);
+        }
+
+        // Waits while the queue is full, but gives up if a scorer has already failed.
+        private void put(Group[] b) {
+            try {
+                if (queue.offer(b)) return;
+                long start = System.nanoTime();
+                while (!queue.offer(b, 100, TimeUnit.MILLISECONDS)) {
+                    for (Future<?> f : scorers) {
+                        if (f.isDone()) {
+                            f.get();
+                            throw new IllegalStateException("Scoring worker exited early");
+                        }
+                    }
+                }
+                stallNanos += System.nanoTime() - start;
+            } catch (InterruptedException | ExecutionException ex) {
+                throw new Aborted(ex);
+            }
+        }
+    }
+
+    // Carries checked failures out of the loader callback.
+    private static final class Aborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Aborted(Exception cause) {
+            super(cause);
+        }
+
+        IOException unwrap() {
+            if (getCause() instanceof ExecutionException ex) return PipelinedEvaluator.unwrap(ex);
+            Thread.currentThread().interrupt();
+            return new IOException("Interrupted while reading KPIs", getCause());
+        }
+    }
+
+    private static IOException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException re) throw re;
+        if (cause instanceof Error err) throw err;
+        return cause instanceof IOException io ? io : new IOException(cause);
+    }
+}
@@ -0,0 +1,200 @@
+package com.app.evaluator;
+
+import com.app.inputs.SymbolTable;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Evaluation results ranked once by normalized score. Ordering and tie-breaking match a
+ * stable sort of the table's rows by {@code Comparator.comparingDouble} (descending via
+ * {@code reversed()}, or ascending): equal scores keep ordinal order. Ranks map to table
+ * ordinals; lists hand out {@link ResultsTable.Row} views.
+ */
+public class RankingIndex {
+
+    private final ResultsTable table;
+    private final int[] ranked;
+    private final long[] keys;
+    private final int[] rankByInput;
+    // Ranks of each department's results, best first, indexed by department code.
+    private final int[][] ranksByDept;
+
+    /** Ranks a copy of {@code evaluations}; ordinals follow the map's iteration order. */
+    public RankingIndex(Map<String, EvaluationResult> evaluations) {
+        this(ResultsTable.of(evaluations));
+    }
+
+    public RankingIndex(ResultsTable table) {
+        this.table = table;
+        int n = table.size();
+
+        long[] inputKeys = new long[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            inputKeys[i] = sortableBits(table.normalizedScore(i));
+            order[i] = i;
+        }
+        mergeSortDescending(order, new int[n], inputKeys, 0, n);
+
+        ranked = order;
+        keys = new long[n];
+        rankByInput = new int[n];
+        int[] deptCounts = new int[SymbolTable.DEPARTMENTS.size()];
+        for (int r = 0; r < n; r++) {
+            keys[r] = inputKeys[ranked[r]];
+            rankByInput[ranked[r]] = r;
+            deptCounts[table.employee(ranked[r]).getDeptCode()]++;
+        }
+
+        ranksByDept = new int[deptCounts.length][];
+        for (int code = 0; code < deptCounts.length; code++) {
+            if (deptCounts[code] > 0) ranksByDept[code] = new int[deptCounts[code]];
+            deptCounts[code] = 0;
+        }
+        for (int r = 0; r < n; r++) {
+            int code = table.employee(ranked[r]).getDeptCode();
+            ranksByDept[code][deptCounts[code]++] = r;
+        }
+    }
+
+    public ResultsTable table() { return table; }
+
+    public int size() { return ranked.length; }
+
+    /** Table ordinal of the result at 0-based {@code rank} in the descending ranking. */
+    public int ordinalAt(int rank) { return ranked[rank]; }
+
+    /** Result at 0-based {@code rank} in the descending ranking. */
+    public EvaluationResult get(int rank) { return table.get(ranked[rank]); }
+
+    /**
+     * Rank of the result at {@code position}, its table ordinal; lets callers walk results in
+     * table order.
+     */
+    public int rankOfInput(int position) { return rankByInput[position]; }
+
+    /** All results, best first. */
+    public List<EvaluationResult> descending() {
+        return views(ranked, ranked.length);
+    }
+
+    /** All results, worst first. */
+    public List<EvaluationResult> ascending() {
+        return bottomN(ranked.length);
+    }
+
+    public List<EvaluationResult> topN(int n) {
+        return views(ranked, clamp(n));
+    }
+
+    public List<EvaluationResult> bottomN(int n) {
+        int[] ranks = bottomRanks(n);
+        for (int i = 0; i < ranks.length; i++) ranks[i] = ranked[ranks[i]];
+        return views(ranks, ranks.length);
+    }
+
+    /** Ranks of the {@code n} lowest results, worst first. */
+    public int[] bottomRanks(int n) {
+        int limit = clamp(n);
+        int[] out = new int[limit];
+        int filled = 0;
+        int end = ranked.length;
+        while (filled < limit) {
+            // Equal scores are emitted in their original order, like an ascending stable sort.
+            int start = end - 1;
+            while (start > 0 && keys[start - 1] == keys[end - 1]) start--;
+            for (int r = start; r < end && filled < limit; r++) out[filled++] = r;
+            end = start;
+        }
+        return out;
+    }
+
+    public List<EvaluationResult> topNInDept(String dept, int n) {
+        int code = SymbolTable.DEPARTMENTS.code(dept);
+        int[] ranks = code >= 0 && code < ranksByDept.length ? ranksByDept[code] : null;
+        if (ranks == null) return List.of();
+        int limit = Math.max(0, Math.min(n, ranks.length));
+        return new AbstractList<>() {
+            @Override public EvaluationResult get(int i) { return table.get(ranked[ranks[i]]); }
+            @Override public int size() { return limit; }
+        };
+    }
+
+    /** 1-based position in the descending ranking, or -1 if the employee was not evaluated. */
+    public int rankOf(String employeeId) {
+        int i = table.indexOf(employeeId);
+        return i < 0 ? -1 : rankByInput[i] + 1;
+    }
+
+    /**
+     * Percentage of evaluated employees with a strictly lower normalized score,
+     * or -1 if the employee was not evaluated.
+     */
+    public double percentileRank(String employeeId) {
+        int i = table.indexOf(employeeId);
+        if (i < 0) return -1;
+
+        // keys are descending; find the first rank whose key is below ours.
+        int r = rankByInput[i];
+        long key = keys[r];
+        int lo = r, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] >= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return 100.0 * (keys.length - lo) / keys.length;
+    }
+
+    // Views of the results at the first n of the given ordinals.
+    private List<EvaluationResult> views(int[] ordinals, int n) {
+        return new AbstractList<>() {
+            @Override public EvaluationResult get(int i) {
+                return table.get(ordinals[Objects.checkIndex(i, n)]);
+            }
+            @Override public int size() { return n; }
+        };
+    }
+
+    private int clamp(int n) {
+        return Math.max(0, Math.min(n, ranked.length));
+    }
+
+    // Monotonic in Double.compare order, including -0.0 < 0.0 and NaN above everything.
+    private static long sortableBits(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static void mergeSortDescending(int[] a, int[] tmp, long[] keys, int from, int to) {
+        if (to - from < 2) return;
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= from && keys[a[j]] < keys[v]) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSortDescending(a, tmp, keys, from, mid);
+        mergeSortDescending(a, tmp, keys, mid, to);
+        if (keys[a[mid - 1]] >= keys[a[mid]]) return;
+
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = keys[tmp[j]] > keys[tmp[i]] ? tmp[j++] : tmp[i++];
+        }
+        while (i < mid) a[k++] = tmp[i++];
+        while (j < to) a[k++] = tmp[j++];
+    }
+}
@@ -0,0 +1,38 @@
+package com.app.evaluator;
+
+/** Rating bands, best first; {@link RatingBands} maps scores onto them. */
+public enum Rating {
+    OUTSTANDING("Outstanding"),
+    EXCEEDS_EXPECTATIONS("Exceeds Expectations"),
+    MEETS_EXPECTATIONS("Meets Expectations"),
+    BELOW_EXPECTATIONS("Below Expectations"),
+    UNSATISFACTORY("Unsatisfactory");
+
+    private static final Rating[] BANDS = values();
+
+    private final String label;
+
+    Rating(String label) {
+        this.label = label;
+    }
+
+    public String label() { return label; }
+
+    /** Outstanding or Exceeds Expectations. */
+    public boolean isStrong() { return ordinal() <= EXCEEDS_EXPECTATIONS.ordinal(); }
+
+    /** Below Expectations or Unsatisfactory: the poor-performer reports. */
+    public boolean isPoor() { return ordinal() >= BELOW_EXPECTATIONS.ordinal(); }
+
+    static Rating band(int ordinal) { return BANDS[ordinal]; }
+
+    public static Rating fromLabel(String label) {
+        for (Rating r : BANDS) {
+            if (r.label.equals(label)) return r;
+        }
+        throw new IllegalArgumentException("Unknown rating: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
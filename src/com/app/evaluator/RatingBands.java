@@ -0,0 +1,52 @@
+package com.app.evaluator;
+
+import java.util.Arrays;
+
+/**
+ * Score thresholds for the {@link Rating} bands and the bonus and promotion cut-offs. A score
+ * gets the best band whose lower bound it reaches; anything below the last bound is
+ * {@link Rating#UNSATISFACTORY}.
+ */
+public final class RatingBands {
+
+    public static final RatingBands DEFAULT = new RatingBands(new double[] { 1.5, 0.75, 0, -0.75 }, 0.25, 1.0);
+
+    // lowerBounds[i] is the lowest score rated Rating.band(i).
+    private final double[] lowerBounds;
+    private final double bonusMinScore;
+    private final double promotionMinScore;
+
+    /**
+     * @param lowerBounds one strictly descending bound per band above Unsatisfactory
+     */
+    public RatingBands(double[] lowerBounds, double bonusMinScore, double promotionMinScore) {
+        if (lowerBounds.length != Rating.values().length - 1)
+            throw new IllegalArgumentException("Expected " + (Rating.values().length - 1) + " band bounds, got "
+                    + lowerBounds.length);
+        for (int i = 1; i < lowerBounds.length; i++) {
+            if (!(lowerBounds[i] < lowerBounds[i - 1]))
+                throw new IllegalArgumentException("Band bounds must be strictly descending: "
+                        + Arrays.toString(lowerBounds));
+        }
+        this.lowerBounds = lowerBounds.clone();
+        this.bonusMinScore = bonusMinScore;
+        this.promotionMinScore = promotionMinScore;
+    }
+
+    /** Parses comma-separated band bounds, best band first, keeping the default cut-offs. */
+    public static RatingBands parse(String bounds) {
+        String[] parts = bounds.split(",");
+        double[] lowerBounds = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) lowerBounds[i] = Double.parseDouble(parts[i].trim());
+        return new RatingBands(lowerBounds, DEFAULT.bonusMinScore, DEFAULT.promotionMinScore);
+    }
+
+    public Rating rate(double score) {
+        int band = 0;
+        while (band < lowerBounds.length && !(score >= lowerBounds[band])) band++;
+        return Rating.band(band);
+    }
+
+    public double bonusMinScore() { return bonusMinScore; }
+    public double promotionMinScore() { return promotionMinScore; }
+}
@@ -0,0 +1,182 @@
+package com.app.evaluator;
+
+import com.app.columns.ColumnAllocator;
+import com.app.columns.Columns;
+import com.app.columns.DoubleColumn;
+import com.app.inputs.Employee;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Evaluation results as parallel primitive columns indexed by employee ordinal, the position of
+ * the employee in the order the table was created with. Per employee this holds an Employee
+ * reference, two doubles, a rating ordinal and a flag byte, plus one int of id index, instead of
+ * a result object and a map node.
+ *
+ * <p>{@link Row} views read through to the columns: {@link #get} hands out a view fixed on one
+ * employee, while a view from {@link #row()} can be moved along with {@link Row#moveTo} to scan
+ * the table without allocating. Writers must fill disjoint ordinals or be externally ordered
+ * with readers.
+ *
+ * <p>The score columns come from a {@link ColumnAllocator}; a table on off-heap columns is
+ * valid until that allocator is closed.
+ */
+public class ResultsTable {
+
+    private static final byte BONUS = 1;
+    private static final byte PROMO = 2;
+
+    private final Employee[] employees;
+    private final ColumnAllocator columns;
+    private final DoubleColumn rawScores;
+    private final DoubleColumn normalizedScores;
+    private final byte[] ratings;
+    private final byte[] flags;
+    // Open addressing over ids: ordinal + 1, 0 for an empty slot.
+    private final int[] idSlots;
+
+    public ResultsTable(Collection<Employee> employees) {
+        this(employees, Columns.heap());
+    }
+
+    public ResultsTable(Collection<Employee> employees, ColumnAllocator columns) {
+        this(employees.toArray(new Employee[0]), columns);
+    }
+
+    public ResultsTable(Employee[] employees) {
+        this(employees, Columns.heap());
+    }
+
+    public ResultsTable(Employee[] employees, ColumnAllocator columns) {
+        int n = employees.length;
+        this.employees = employees.clone();
+        this.columns = columns;
+        this.rawScores = columns.doubles(n);
+        this.normalizedScores = columns.doubles(n);
+        this.ratings = new byte[n];
+        this.flags = new byte[n];
+        this.idSlots = new int[Integer.highestOneBit(Math.max(n, 1) * 2 - 1) << 1];
+
+        int mask = idSlots.length - 1;
+        for (int i = 0; i < n; i++) {
+            String id = employees[i].getId();
+            int slot = hash(id) & mask;
+            while (idSlots[slot] != 0) {
+                if (this.employees[idSlots[slot] - 1].getId().equals(id))
+                    throw new IllegalArgumentException("Duplicate employee id " + id);
+                slot = (slot + 1) & mask;
+            }
+            idSlots[slot] = i + 1;
+        }
+    }
+
+    private ResultsTable(ResultsTable other, ColumnAllocator columns) {
+        this.employees = other.employees;
+        this.columns = columns;
+        this.rawScores = columns.copyOf(other.rawScores);
+        this.normalizedScores = columns.copyOf(other.normalizedScores);
+        this.ratings = other.ratings.clone();
+        this.flags = other.flags.clone();
+        this.idSlots = other.idSlots;
+    }
+
+    /**
+     * Same employees and ordinals with copied result columns, for updating a table that readers
+     * may still hold. Employees and the id index are shared, as neither changes.
+     */
+    public ResultsTable copy() {
+        return copy(columns);
+    }
+
+    /** Same as {@link #copy()}, with the copied columns taken from {@code columns}. */
+    public ResultsTable copy(ColumnAllocator columns) {
+        return new ResultsTable(this, columns);
+    }
+
+    /** Copies standalone results, keeping the map's iteration order as the ordinal order. */
+    public static ResultsTable of(Map<String, EvaluationResult> evaluations) {
+        EvaluationResult[] results = evaluations.values().toArray(new EvaluationResult[0]);
+        Employee[] employees = new Employee[results.length];
+        for (int i = 0; i < results.length; i++) employees[i] = results[i].getEmployee();
+
+        ResultsTable table = new ResultsTable(employees);
+        for (int i = 0; i < results.length; i++) table.set(i, results[i]);
+        return table;
+    }
+
+    /** The allocator of the score columns, which also holds a run's scratch columns. */
+    public ColumnAllocator columns() { return columns; }
+
+    public int size() { return employees.length; }
+    public boolean isEmpty() { return employees.length == 0; }
+
+    /** Ordinal of the employee with {@code id}, or -1 if the table has none. */
+    public int indexOf(String id) {
+        int mask = idSlots.length - 1;
+        for (int slot = hash(id) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int i = idSlots[slot] - 1;
+            if (employees[i].getId().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    public Employee employee(int i) { return employees[i]; }
+    public double rawScore(int i) { return rawScores.get(i); }
+    public double normalizedScore(int i) { return normalizedScores.get(i); }
+    public Rating rating(int i) { return Rating.band(ratings[i]); }
+    public boolean isBonusEligible(int i) { return (flags[i] & BONUS) != 0; }
+    public boolean isPromotionCandidate(int i) { return (flags[i] & PROMO) != 0; }
+
+    public void set(int i, double rawScore, double normalizedScore, Rating rating,
+                    boolean bonusEligible, boolean promotionCandidate) {
+        rawScores.set(i, rawScore);
+        normalizedScores.set(i, normalizedScore);
+        ratings[i] = (byte) rating.ordinal();
+        flags[i] = (byte) ((bonusEligible ? BONUS : 0) | (promotionCandidate ? PROMO : 0));
+    }
+
+    public void set(int i, EvaluationResult r) {
+        set(i, r.getRawScore(), r.getNormalizedScore(), r.getRating(), r.isBonusEligible(),
+                r.isPromotionCandidate());
+    }
+
+    /** A view of employee {@code i}. */
+    public Row get(int i) {
+        return new Row(this).moveTo(i);
+    }
+
+    /** A movable view, not yet on any employee. */
+    public Row row() {
+        return new Row(this);
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /** Reads one employee's result from the table; {@link #moveTo} repositions it. */
+    public static final class Row extends EvaluationResult {
+        private final ResultsTable table;
+        private int ordinal = -1;
+
+        private Row(ResultsTable table) {
+            this.table = table;
+        }
+
+        public Row moveTo(int ordinal) {
+            this.ordinal = ordinal;
+            return this;
+        }
+
+        public int ordinal() { return ordinal; }
+
+        @Override public Employee getEmployee() { return table.employees[ordinal]; }
+        @Override public double getRawScore() { return table.rawScores.get(ordinal); }
+        @Override public double getNormalizedScore() { return table.normalizedScores.get(ordinal); }
+        @Override public Rating getRating() { return table.rating(ordinal); }
+        @Override public boolean isBonusEligible() { return table.isBonusEligible(ordinal); }
+        @Override public boolean isPromotionCandidate() { return table.isPromotionCandidate(ordinal); }
+    }
+}
@@ -0,0 +1,157 @@
+package com.app.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Buffered report writer shared by the exporters. Rows are assembled as UTF-8 bytes in a
+ * large buffer and flushed straight to a {@link FileChannel}; {@link #writeFixed4(double)}
+ * replaces {@code printf("%.4f")}. Buffers come from a small pool shared by all threads, so
+ * exports reuse them whichever threads, platform or virtual, do the writing.
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    // Enough for one ExportPipeline's writers and a few more; buffers beyond it are dropped.
+    private static final ArrayBlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(8);
+
+    // Beyond this magnitude a double has too few fractional bits for the fast path below.
+    private static final double FAST_FIXED_LIMIT = 1e7;
+    private static final double HALF_UP_MARGIN = 1e-4;
+
+    private final FileChannel channel;
+    private byte[] buf;
+    private int pos;
+
+    public CsvWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        byte[] pooled = BUFFERS.poll();
+        this.buf = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    public CsvWriter write(String s) throws IOException {
+        int len = s.length();
+        if (buf.length - pos < len) flush();
+        if (buf.length - pos < len) {
+            return writeBytes(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                // Undo the partial ASCII copy and encode the whole string.
+                pos -= i;
+                return writeBytes(s.getBytes(StandardCharsets.UTF_8));
+            }
+            buf[pos++] = (byte) c;
+        }
+        return this;
+    }
+
+    public CsvWriter write(char c) throws IOException {
+        if (c >= 0x80) return write(String.valueOf(c));
+        ensure(1);
+        buf[pos++] = (byte) c;
+        return this;
+    }
+
+    public CsvWriter write(long v) throws IOException {
+        ensure(20);
+        if (v < 0) {
+            if (v == Long.MIN_VALUE) return write(Long.toString(v));
+            buf[pos++] = '-';
+            v = -v;
+        }
+        writeDigits(v, 0);
+        return this;
+    }
+
+    /**
+     * Writes {@code v} exactly as {@code String.format(Locale.ROOT, "%.4f", v)} would: HALF_UP
+     * rounding of the decimal representation, and a leading '-' for any negative value,
+     * including -0.0 and values that round to zero.
+     */
+    public CsvWriter writeFixed4(double v) throws IOException {
+        double a = Math.abs(v);
+        if (!(a < FAST_FIXED_LIMIT)) return write(String.format(Locale.ROOT, "%.4f", v));
+
+        double scaled = a * 10_000;
+        long units = (long) scaled;
+        double frac = scaled - units;
+        // Close to a tie the answer depends on the decimal digits, so let Formatter decide.
+        if (Math.abs(frac - 0.5) < HALF_UP_MARGIN) return write(String.format(Locale.ROOT, "%.4f", v));
+        if (frac > 0.5) units++;
+
+        ensure(24);
+        if (Double.doubleToRawLongBits(v) < 0) buf[pos++] = '-';
+        writeDigits(units / 10_000, 0);
+        buf[pos++] = '.';
+        writeDigits(units % 10_000, 4);
+        return this;
+    }
+
+    public CsvWriter newLine() throws IOException {
+        ensure(LINE_SEPARATOR.length);
+        for (byte b : LINE_SEPARATOR) buf[pos++] = b;
+        return this;
+    }
+
+    public void flush() throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(buf, 0, pos);
+        while (out.hasRemaining()) channel.write(out);
+        pos = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buf == null) return;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            // Returned once, so no two writers ever hold the same buffer.
+            BUFFERS.offer(buf);
+            buf = null;
+        }
+    }
+
+    private void writeDigits(long v, int minDigits) {
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + v % 10);
+            v /= 10;
+            minDigits--;
+        } while (v != 0 || minDigits > 0);
+
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private CsvWriter writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buf.length - pos) flush();
+        if (bytes.length > buf.length) {
+            ByteBuffer out = ByteBuffer.wrap(bytes);
+            while (out.hasRemaining()) channel.write(out);
+            return this;
+        }
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+        return this;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos < n) flush();
+    }
+}
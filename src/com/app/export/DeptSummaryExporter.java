@@ -1,37 +1,53 @@
 package com.app.export;
 
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
 import com.app.summary.DeptSummary;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Locale;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
+/** Writes one row per department, sorted by department name whatever order the map iterates in. */
 public class DeptSummaryExporter implements ReportExporter {
 
+    static final String FILE = "dept_summary.csv";
+    static final Timer TIMER = Metrics.timer("engine_export_seconds", "report", FILE);
+
     private final Map<String, DeptSummary> deptSummaries;
+    private final Path dir;
 
     public DeptSummaryExporter(Map<String, DeptSummary> deptSummaries) {
+        this(deptSummaries, Path.of(""));
+    }
+
+    /** Writes into {@code dir} rather than the working directory. */
+    public DeptSummaryExporter(Map<String, DeptSummary> deptSummaries, Path dir) {
         this.deptSummaries = deptSummaries;
+        this.dir = dir;
     }
 
     @Override
     public void export() throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter("dept_summary.csv"))) {
-            out.println("dept,avgRawScore,avgNormalizedScore,employeeCount,bonusCount,promoCount,topPerformerId");
-
-            for (DeptSummary s : deptSummaries.values()) {
-                out.printf(Locale.ROOT,
-                        "%s,%.4f,%.4f,%d,%d,%d,%s%n",
-                        s.getDept(),
-                        s.getAvgRawScore(),
-                        s.getAvgNormScore(),
-                        s.getEmployeeCount(),
-                        s.getBonusCount(),
-                        s.getPromoCount(),
-                        s.getTopPerformerId());
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(FILE))) {
+            out.write("dept,avgRawScore,avgNormalizedScore,employeeCount,bonusCount,promoCount,topPerformerId").newLine();
+
+            List<DeptSummary> sorted = new ArrayList<>(deptSummaries.values());
+            sorted.sort(Comparator.comparing(DeptSummary::getDept));
+            for (DeptSummary s : sorted) {
+                out.write(s.getDept()).write(',')
+                   .writeFixed4(s.getAvgRawScore()).write(',')
+                   .writeFixed4(s.getAvgNormScore()).write(',')
+                   .write(s.getEmployeeCount()).write(',')
+                   .write(s.getBonusCount()).write(',')
+                   .write(s.getPromoCount()).write(',')
+                   .write(s.getTopPerformerId()).newLine();
             }
         }
+        TIMER.stop(t);
     }
 }
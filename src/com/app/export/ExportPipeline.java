@@ -0,0 +1,213 @@
+package com.app.export;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.ResultsTable;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
+import com.app.summary.DeptSummary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes all five reports from one pass over the evaluation results.
+ *
+ * <p>The scan walks results in table order. Ratings rows stream in batches of ordinals to a
+ * writer thread as the scan goes; bonus, promotion and poor-performer matches are recorded as
+ * rank bits and written in ranked order by their own threads once the scan finishes. The
+ * department summary is written in parallel from the start. Every thread reads the table
+ * through its own {@link ResultsTable.Row}. Files are identical to running the individual
+ * exporters.
+ */
+public class ExportPipeline implements ReportExporter {
+
+    private static final int BATCH = 4096;
+    private static final int QUEUE_DEPTH = 16;
+    private static final int[] END = new int[0];
+
+    private final RankingIndex ranking;
+    private final Map<String, DeptSummary> deptSummaries;
+    private final Path dir;
+    private final ThreadFactory writers;
+
+    public ExportPipeline(RankingIndex ranking, Map<String, DeptSummary> deptSummaries) {
+        this(ranking, deptSummaries, Path.of(""));
+    }
+
+    /** Writes the reports into {@code dir} rather than the working directory. */
+    public ExportPipeline(RankingIndex ranking, Map<String, DeptSummary> deptSummaries, Path dir) {
+        this(ranking, deptSummaries, dir, Executors.defaultThreadFactory());
+    }
+
+    /** As above, with the writer threads made by {@code writers}, e.g. virtual threads. */
+    public ExportPipeline(RankingIndex ranking, Map<String, DeptSummary> deptSummaries, Path dir,
+                          ThreadFactory writers) {
+        this.ranking = ranking;
+        this.deptSummaries = deptSummaries;
+        this.dir = dir;
+        this.writers = writers;
+    }
+
+    @Override
+    public void export() throws IOException {
+        int n = ranking.size();
+        BitSet bonus = new BitSet(n);
+        BitSet promo = new BitSet(n);
+        BitSet poor = new BitSet(n);
+        BlockingQueue<int[]> ratingsQueue = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        ResultsTable table = ranking.table();
+
+        ExecutorService pool = Executors.newFixedThreadPool(5, writers);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            writes.add(pool.submit(io(() -> new DeptSummaryExporter(deptSummaries, dir).export())));
+            Future<?> ratings = pool.submit(io(() -> writeRatings(table, ratingsQueue)));
+            writes.add(ratings);
+
+            ResultsTable.Row r = table.row();
+            int[] batch = new int[BATCH];
+            int filled = 0;
+            for (int i = 0; i < n; i++) {
+                int rank = ranking.rankOfInput(i);
+                r.moveTo(i);
+
+                if (BonusListExporter.includes(r)) bonus.set(rank);
+                if (PromotionCandidatesExporter.includes(r)) promo.set(rank);
+                if (PoorPerformanceCsvExporter.includes(r)) poor.set(rank);
+
+                batch[filled++] = i;
+                if (filled == BATCH) {
+                    offer(ratingsQueue, batch, ratings);
+                    batch = new int[BATCH];
+                    filled = 0;
+                }
+            }
+            if (filled > 0) {
+                int[] last = new int[filled];
+                System.arraycopy(batch, 0, last, 0, filled);
+                offer(ratingsQueue, last, ratings);
+            }
+            offer(ratingsQueue, END, ratings);
+
+            writes.add(pool.submit(io(() -> writeDescending(BonusListExporter.FILE, BonusListExporter.TIMER,
+                    bonus, BonusListExporter::writeHeader, BonusListExporter::writeRow))));
+            writes.add(pool.submit(io(() -> writeDescending(PromotionCandidatesExporter.FILE,
+                    PromotionCandidatesExporter.TIMER, promo,
+                    PromotionCandidatesExporter::writeHeader, PromotionCandidatesExporter::writeRow))));
+            writes.add(pool.submit(io(() -> writePoor(poor))));
+
+            for (Future<?> f : writes) f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting reports", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private interface HeaderWriter {
+        void write(CsvWriter out) throws IOException;
+    }
+
+    private interface RowWriter {
+        void write(CsvWriter out, EvaluationResult r) throws IOException;
+    }
+
+    private static Callable<Void> io(IoTask task) {
+        return () -> {
+            task.run();
+            return null;
+        };
+    }
+
+    // Stops feeding the ratings writer if it has already failed, rather than blocking forever.
+    private static void offer(BlockingQueue<int[]> queue, int[] batch, Future<?> consumer)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (consumer.isDone()) {
+                consumer.get();
+                return;
+            }
+        }
+    }
+
+    // Timed from the start of the scan, since rows arrive as it goes.
+    private void writeRatings(ResultsTable table, BlockingQueue<int[]> queue) throws IOException {
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(RatingsCsvExporter.FILE))) {
+            RatingsCsvExporter.writeHeader(out);
+            ResultsTable.Row r = table.row();
+            while (true) {
+                int[] batch = queue.take();
+                if (batch == END) break;
+                for (int i : batch) RatingsCsvExporter.writeRow(out, r.moveTo(i));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing " + RatingsCsvExporter.FILE, ex);
+        }
+        RatingsCsvExporter.TIMER.stop(t);
+    }
+
+    private void writeDescending(String file, Timer timer, BitSet ranks, HeaderWriter header, RowWriter row)
+            throws IOException {
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(file))) {
+            header.write(out);
+            ResultsTable.Row view = ranking.table().row();
+            for (int r = ranks.nextSetBit(0); r >= 0; r = ranks.nextSetBit(r + 1)) {
+                row.write(out, view.moveTo(ranking.ordinalAt(r)));
+            }
+        }
+        timer.stop(t);
+    }
+
+    // Worst first; within a run of equal scores, map order (i.e. ascending rank), like a stable sort.
+    private void writePoor(BitSet ranks) throws IOException {
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(PoorPerformanceCsvExporter.FILE))) {
+            PoorPerformanceCsvExporter.writeHeader(out);
+            ResultsTable table = ranking.table();
+            ResultsTable.Row view = table.row();
+
+            int end = ranks.length() - 1;
+            while (end >= 0) {
+                double score = table.normalizedScore(ranking.ordinalAt(end));
+                int start = end;
+                int prev = ranks.previousSetBit(end - 1);
+                while (prev >= 0 && Double.compare(table.normalizedScore(ranking.ordinalAt(prev)), score) == 0) {
+                    start = prev;
+                    prev = ranks.previousSetBit(prev - 1);
+                }
+                for (int r = start; r >= 0 && r <= end; r = ranks.nextSetBit(r + 1)) {
+                    PoorPerformanceCsvExporter.writeRow(out, view.moveTo(ranking.ordinalAt(r)));
+                }
+                end = prev;
+            }
+        }
+        PoorPerformanceCsvExporter.TIMER.stop(t);
+    }
+}
@@ -1,44 +1,66 @@
 package com.app.export;
 
 import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.ResultsTable;
 import com.app.inputs.Employee;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Comparator;
-import java.util.Locale;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class PoorPerformanceCsvExporter implements ReportExporter {
 
-    private final Map<String, EvaluationResult> evaluations;
+    static final String FILE = "poor_performers.csv";
+    static final Timer TIMER = Metrics.timer("engine_export_seconds", "report", FILE);
+
+    private final RankingIndex ranking;
+    private final Path dir;
 
     public PoorPerformanceCsvExporter(Map<String, EvaluationResult> evaluations) {
-        this.evaluations = evaluations;
+        this(new RankingIndex(evaluations));
+    }
+
+    public PoorPerformanceCsvExporter(RankingIndex ranking) {
+        this(ranking, Path.of(""));
+    }
+
+    /** Writes into {@code dir} rather than the working directory. */
+    public PoorPerformanceCsvExporter(RankingIndex ranking, Path dir) {
+        this.ranking = ranking;
+        this.dir = dir;
     }
 
     @Override
     public void export() throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter("poor_performers.csv"))) {
-
-            out.println("id,dept,level,normalizedScore,rating");
-
-            evaluations.values().stream()
-                    .filter(r -> "POOR".equalsIgnoreCase(r.getRating()))
-                    .sorted(Comparator.comparingDouble(EvaluationResult::getNormalizedScore))
-                    .forEach(r -> {
-                        Employee e = r.getEmployee();
-                        out.printf(
-                                Locale.ROOT,
-                                "%s,%s,%s,%.4f,%s%n",
-                                e.getId(),
-                                e.getDept(),
-                                e.getLevel(),
-                                r.getNormalizedScore(),
-                                r.getRating()
-                        );
-                    });
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(FILE))) {
+            writeHeader(out);
+
+            ResultsTable.Row r = ranking.table().row();
+            for (int rank : ranking.bottomRanks(ranking.size())) {
+                if (includes(r.moveTo(ranking.ordinalAt(rank)))) writeRow(out, r);
+            }
         }
+        TIMER.stop(t);
+    }
+
+    static boolean includes(EvaluationResult r) {
+        return r.getRating().isPoor();
+    }
+
+    static void writeHeader(CsvWriter out) throws IOException {
+        out.write("id,dept,level,normalizedScore,rating").newLine();
+    }
+
+    static void writeRow(CsvWriter out, EvaluationResult r) throws IOException {
+        Employee e = r.getEmployee();
+        out.write(e.getId()).write(',')
+           .write(e.getDept()).write(',')
+           .write(e.getLevel()).write(',')
+           .writeFixed4(r.getNormalizedScore()).write(',')
+           .write(r.getRating().label()).newLine();
     }
 }
@@ -1,38 +1,67 @@
 package com.app.export;
 
 import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.ResultsTable;
 import com.app.inputs.Employee;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Comparator;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class PromotionCandidatesExporter implements ReportExporter {
 
-    private final Map<String, EvaluationResult> evaluations;
+    static final String FILE = "promotion_candidates.txt";
+    static final Timer TIMER = Metrics.timer("engine_export_seconds", "report", FILE);
+
+    private final RankingIndex ranking;
+    private final Path dir;
 
     public PromotionCandidatesExporter(Map<String, EvaluationResult> evaluations) {
-        this.evaluations = evaluations;
+        this(new RankingIndex(evaluations));
+    }
+
+    public PromotionCandidatesExporter(RankingIndex ranking) {
+        this(ranking, Path.of(""));
+    }
+
+    /** Writes into {@code dir} rather than the working directory. */
+    public PromotionCandidatesExporter(RankingIndex ranking, Path dir) {
+        this.ranking = ranking;
+        this.dir = dir;
     }
 
     @Override
     public void export() throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter("promotion_candidates.txt"))) {
-            out.println("Promotion Candidates");
-            out.println("====================");
-
-            evaluations.values().stream()
-                    .filter(EvaluationResult::isPromotionCandidate)
-                    .sorted(Comparator.comparingDouble(EvaluationResult::getNormalizedScore).reversed())
-                    .forEach(r -> {
-                        Employee e = r.getEmployee();
-                        out.printf(
-                                "ID=%s, Dept=%s, Level=%s, NormScore=%.4f, Rating=%s%n",
-                                e.getId(), e.getDept(), e.getLevel(),
-                                r.getNormalizedScore(), r.getRating());
-                    });
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(FILE))) {
+            writeHeader(out);
+
+            ResultsTable.Row r = ranking.table().row();
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                if (includes(r.moveTo(ranking.ordinalAt(rank)))) writeRow(out, r);
+            }
         }
+        TIMER.stop(t);
+    }
+
+    static boolean includes(EvaluationResult r) {
+        return r.isPromotionCandidate();
+    }
+
+    static void writeHeader(CsvWriter out) throws IOException {
+        out.write("Promotion Candidates").newLine();
+        out.write("====================").newLine();
+    }
+
+    static void writeRow(CsvWriter out, EvaluationResult r) throws IOException {
+        Employee e = r.getEmployee();
+        out.write("ID=").write(e.getId())
+           .write(", Dept=").write(e.getDept())
+           .write(", Level=").write(e.getLevel())
+           .write(", NormScore=").writeFixed4(r.getNormalizedScore())
+           .write(", Rating=").write(r.getRating().label()).newLine();
     }
 }
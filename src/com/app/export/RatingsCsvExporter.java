@@ -1,34 +1,62 @@
 package com.app.export;
 
 import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.ResultsTable;
 import com.app.inputs.Employee;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Locale;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class RatingsCsvExporter implements ReportExporter {
 
-    private final Map<String, EvaluationResult> evaluations;
+    static final String FILE = "ratings.csv";
+    static final Timer TIMER = Metrics.timer("engine_export_seconds", "report", FILE);
+
+    private final ResultsTable results;
+    private final Path dir;
 
     public RatingsCsvExporter(Map<String, EvaluationResult> evaluations) {
-        this.evaluations = evaluations;
+        this(ResultsTable.of(evaluations));
+    }
+
+    public RatingsCsvExporter(ResultsTable results) {
+        this(results, Path.of(""));
+    }
+
+    /** Writes into {@code dir} rather than the working directory. */
+    public RatingsCsvExporter(ResultsTable results, Path dir) {
+        this.results = results;
+        this.dir = dir;
     }
 
     @Override
     public void export() throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter("ratings.csv"))) {
-            out.println("id,dept,level,rawScore,normalizedScore,rating");
-
-            for (EvaluationResult r : evaluations.values()) {
-                Employee e = r.getEmployee();
-                out.printf(Locale.ROOT,
-                        "%s,%s,%s,%.4f,%.4f,%s%n",
-                        e.getId(), e.getDept(), e.getLevel(),
-                        r.getRawScore(), r.getNormalizedScore(), r.getRating());
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(FILE))) {
+            writeHeader(out);
+
+            ResultsTable.Row r = results.row();
+            for (int i = 0; i < results.size(); i++) {
+                writeRow(out, r.moveTo(i));
             }
         }
+        TIMER.stop(t);
+    }
+
+    static void writeHeader(CsvWriter out) throws IOException {
+        out.write("id,dept,level,rawScore,normalizedScore,rating").newLine();
+    }
+
+    static void writeRow(CsvWriter out, EvaluationResult r) throws IOException {
+        Employee e = r.getEmployee();
+        out.write(e.getId()).write(',')
+           .write(e.getDept()).write(',')
+           .write(e.getLevel()).write(',')
+           .writeFixed4(r.getRawScore()).write(',')
+           .writeFixed4(r.getNormalizedScore()).write(',')
+           .write(r.getRating().label()).newLine();
     }
 }
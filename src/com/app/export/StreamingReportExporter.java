@@ -0,0 +1,92 @@
+package com.app.export;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
+import com.app.summary.DeptSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes all five reports from results that arrive already ordered, as an out-of-core
+ * evaluation produces them, without holding the results. Each report is one pass over its
+ * source; files are identical to the individual exporters over the same evaluation.
+ *
+ * <p>{@code inOrder} is every result in table order. {@code bestFirst} and {@code worstFirst}
+ * are ranked as {@link com.app.evaluator.RankingIndex} ranks, equal scores in table order,
+ * and may leave out results none of their reports include. Sources that read from disk may
+ * throw {@link UncheckedIOException}; it is rethrown as its cause.
+ */
+public class StreamingReportExporter implements ReportExporter {
+
+    private final Iterable<? extends EvaluationResult> inOrder;
+    private final Iterable<? extends EvaluationResult> bestFirst;
+    private final Iterable<? extends EvaluationResult> worstFirst;
+    private final Map<String, DeptSummary> deptSummaries;
+    private final Path dir;
+
+    public StreamingReportExporter(Iterable<? extends EvaluationResult> inOrder,
+                                   Iterable<? extends EvaluationResult> bestFirst,
+                                   Iterable<? extends EvaluationResult> worstFirst,
+                                   Map<String, DeptSummary> deptSummaries) {
+        this(inOrder, bestFirst, worstFirst, deptSummaries, Path.of(""));
+    }
+
+    /** Writes the reports into {@code dir} rather than the working directory. */
+    public StreamingReportExporter(Iterable<? extends EvaluationResult> inOrder,
+                                   Iterable<? extends EvaluationResult> bestFirst,
+                                   Iterable<? extends EvaluationResult> worstFirst,
+                                   Map<String, DeptSummary> deptSummaries, Path dir) {
+        this.inOrder = inOrder;
+        this.bestFirst = bestFirst;
+        this.worstFirst = worstFirst;
+        this.deptSummaries = deptSummaries;
+        this.dir = dir;
+    }
+
+    @Override
+    public void export() throws IOException {
+        try {
+            write(RatingsCsvExporter.FILE, RatingsCsvExporter.TIMER, inOrder, r -> true,
+                    RatingsCsvExporter::writeHeader, RatingsCsvExporter::writeRow);
+            write(BonusListExporter.FILE, BonusListExporter.TIMER, bestFirst, BonusListExporter::includes,
+                    BonusListExporter::writeHeader, BonusListExporter::writeRow);
+            write(PromotionCandidatesExporter.FILE, PromotionCandidatesExporter.TIMER, bestFirst,
+                    PromotionCandidatesExporter::includes,
+                    PromotionCandidatesExporter::writeHeader, PromotionCandidatesExporter::writeRow);
+            write(PoorPerformanceCsvExporter.FILE, PoorPerformanceCsvExporter.TIMER, worstFirst,
+                    PoorPerformanceCsvExporter::includes,
+                    PoorPerformanceCsvExporter::writeHeader, PoorPerformanceCsvExporter::writeRow);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        new DeptSummaryExporter(deptSummaries, dir).export();
+    }
+
+    private interface Filter {
+        boolean includes(EvaluationResult r);
+    }
+
+    private interface HeaderWriter {
+        void write(CsvWriter out) throws IOException;
+    }
+
+    private interface RowWriter {
+        void write(CsvWriter out, EvaluationResult r) throws IOException;
+    }
+
+    private void write(String file, Timer timer, Iterable<? extends EvaluationResult> results,
+                       Filter filter, HeaderWriter header, RowWriter row) throws IOException {
+        long t = Metrics.start();
+        try (CsvWriter out = new CsvWriter(dir.resolve(file))) {
+            header.write(out);
+            for (EvaluationResult r : results) {
+                if (filter.includes(r)) row.write(out, r);
+            }
+        }
+        timer.stop(t);
+    }
+}
@@ -0,0 +1,92 @@
+package com.app.inputs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams a file through a reusable buffer and hands out one line at a time as a byte range.
+ * Lines end at {@code \n}, {@code \r} or {@code \r\n}, like {@code BufferedReader.readLine}.
+ */
+final class CsvLineReader {
+
+    interface LineHandler {
+        void onLine(byte[] buf, int from, int to, int lineNo);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CsvLineReader() {}
+
+    private interface Source {
+        int fill(byte[] buf, int off, int len) throws IOException;
+    }
+
+    static void read(Path file, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            read((buf, off, len) -> channel.read(ByteBuffer.wrap(buf, off, len)), handler);
+        }
+    }
+
+    /**
+     * Reads lines from the remaining bytes of {@code src}, e.g. one chunk of a mapped file.
+     */
+    static void read(ByteBuffer src, LineHandler handler) throws IOException {
+        read((buf, off, len) -> {
+            if (!src.hasRemaining()) return -1;
+            int n = Math.min(len, src.remaining());
+            src.get(buf, off, n);
+            return n;
+        }, handler);
+    }
+
+    private static void read(Source source, LineHandler handler) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        int limit = 0;
+        int lineStart = 0;
+        int scan = 0;
+        int lineNo = 0;
+        boolean skipLf = false;
+
+        while (true) {
+            if (limit == buf.length) {
+                if (lineStart > 0) {
+                    System.arraycopy(buf, lineStart, buf, 0, limit - lineStart);
+                    limit -= lineStart;
+                    scan -= lineStart;
+                    lineStart = 0;
+                } else {
+                    byte[] bigger = new byte[buf.length * 2];
+                    System.arraycopy(buf, 0, bigger, 0, limit);
+                    buf = bigger;
+                }
+            }
+
+            int n = source.fill(buf, limit, buf.length - limit);
+            if (n < 0) break;
+            limit += n;
+
+            for (; scan < limit; scan++) {
+                byte b = buf[scan];
+                if (skipLf) {
+                    skipLf = false;
+                    if (b == '\n') {
+                        lineStart = scan + 1;
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    handler.onLine(buf, lineStart, scan, ++lineNo);
+                    lineStart = scan + 1;
+                    skipLf = b == '\r';
+                }
+            }
+        }
+
+        if (lineStart < limit) {
+            handler.onLine(buf, lineStart, limit, ++lineNo);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.app.inputs;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits one line of bytes into fields without regex or substrings.
+ * Mirrors the old {@code trim()} + {@code split("\\s*,\\s*")} / {@code split("\\s+")} rules:
+ * lines containing a comma are comma separated with each field trimmed, other lines are
+ * whitespace separated, and trailing empty fields are dropped.
+ */
+final class CsvLineTokenizer {
+
+    private static final int MAX_FIELDS = 8;
+    private static final int SYMBOL_CACHE = 64;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private final SymbolTable[] cachedTables = new SymbolTable[SYMBOL_CACHE];
+    private final String[] cachedNames = new String[SYMBOL_CACHE];
+    private final int[] cachedCodes = new int[SYMBOL_CACHE];
+    private byte[] buf;
+    private int size;
+
+    /**
+     * Tokenizes {@code buf[from, to)}, which may be rewritten in place.
+     * Returns false for blank and comment lines.
+     */
+    boolean tokenize(byte[] buf, int from, int to) {
+        this.buf = buf;
+        this.size = 0;
+
+        to = stripBoms(buf, from, to);
+        while (from < to && isSpace(buf[from])) from++;
+        while (to > from && isSpace(buf[to - 1])) to--;
+        if (from == to || buf[from] == '#') return false;
+
+        boolean commas = false;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == ',') { commas = true; break; }
+        }
+
+        if (commas) splitOnCommas(from, to);
+        else splitOnWhitespace(from, to);
+        return true;
+    }
+
+    private void splitOnCommas(int from, int to) {
+        int field = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && buf[i] != ',') continue;
+
+            int s = start, e = i;
+            while (s < e && isSpace(buf[s])) s++;
+            while (e > s && isSpace(buf[e - 1])) e--;
+
+            if (field < MAX_FIELDS) {
+                starts[field] = s;
+                ends[field] = e;
+            }
+            field++;
+            if (e > s) size = Math.min(field, MAX_FIELDS);
+            start = i + 1;
+        }
+    }
+
+    private void splitOnWhitespace(int from, int to) {
+        int i = from;
+        while (i < to && size < MAX_FIELDS) {
+            while (i < to && isSpace(buf[i])) i++;
+            if (i == to) break;
+            int s = i;
+            while (i < to && !isSpace(buf[i])) i++;
+            starts[size] = s;
+            ends[size] = i;
+            size++;
+        }
+    }
+
+    int size() { return size; }
+
+    int length(int field) { return ends[field] - starts[field]; }
+
+    String string(int field) {
+        return new String(buf, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Interns the field in {@code table}. A small cache keyed by the field's bytes resolves
+     * repeated values, which is nearly every row for departments, levels and metrics, without
+     * decoding a String or touching the table.
+     */
+    int symbol(int field, SymbolTable table) {
+        int h = 0;
+        for (int i = starts[field]; i < ends[field]; i++) h = 31 * h + buf[i];
+        int slot = (h ^ (h >>> 16) ^ System.identityHashCode(table)) & (SYMBOL_CACHE - 1);
+
+        if (cachedTables[slot] == table && fieldEquals(field, cachedNames[slot])) return cachedCodes[slot];
+
+        int code = table.intern(string(field));
+        cachedTables[slot] = table;
+        cachedNames[slot] = table.name(code);
+        cachedCodes[slot] = code;
+        return code;
+    }
+
+    boolean fieldEquals(int field, String other) {
+        int len = ends[field] - starts[field];
+        if (len != other.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (buf[starts[field] + i] != other.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    boolean fieldEqualsIgnoreCase(int field, String lowerAscii) {
+        int len = ends[field] - starts[field];
+        if (len != lowerAscii.length()) return false;
+        for (int i = 0; i < len; i++) {
+            int c = buf[starts[field] + i];
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            if (c != lowerAscii.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses plain decimals ({@code [+-]digits[.digits]}) directly from the bytes when the
+     * result is exactly representable; anything else falls back to {@link Double#parseDouble}
+     * so the accepted syntax and rounding are identical to the old loader.
+     */
+    double parseDouble(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction >= 0) fraction++;
+                if (mantissa >= MAX_EXACT_MANTISSA) return slowParse(field);
+            } else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return slowParse(field);
+            }
+        }
+
+        if (digits == 0 || fraction >= POW10.length) return slowParse(field);
+
+        double value = fraction > 0 ? mantissa / POW10[fraction] : (double) mantissa;
+        return negative ? -value : value;
+    }
+
+    private double slowParse(int field) {
+        return Double.parseDouble(string(field));
+    }
+
+    /**
+     * Removes every UTF-8 BOM (U+FEFF) in place, as the old {@code replace} call did,
+     * and returns the new end of the line.
+     */
+    private static int stripBoms(byte[] buf, int from, int to) {
+        int r = from;
+        while (r < to && !isBom(buf, r, to)) r++;
+        if (r == to) return to;
+
+        int w = r;
+        while (r < to) {
+            if (isBom(buf, r, to)) {
+                r += 3;
+            } else {
+                buf[w++] = buf[r++];
+            }
+        }
+        return w;
+    }
+
+    private static boolean isSpace(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    private static boolean isBom(byte[] buf, int at, int to) {
+        return buf[at] == (byte) 0xEF && to - at >= 3
+                && buf[at + 1] == (byte) 0xBB && buf[at + 2] == (byte) 0xBF;
+    }
+}
@@ -1,17 +1,34 @@
 package com.app.inputs;
 
+/**
+ * Department and level are held as {@link SymbolTable} codes; seniority is decided once, here,
+ * rather than per evaluation.
+ */
 public class Employee {
     private final String id;
-    private final String dept;
-    private final String level;
+    private final int deptCode;
+    private final int levelCode;
+    private final boolean senior;
 
     public Employee(String id, String dept, String level) {
+        this(id, SymbolTable.DEPARTMENTS.intern(dept), SymbolTable.LEVELS.intern(level));
+    }
+
+    public Employee(String id, int deptCode, int levelCode) {
         this.id = id;
-        this.dept = dept;
-        this.level = level;
+        this.deptCode = deptCode;
+        this.levelCode = levelCode;
+        this.senior = isSenior(SymbolTable.LEVELS.name(levelCode));
+    }
+
+    private static boolean isSenior(String level) {
+        return level != null && (level.equalsIgnoreCase("Senior") || level.equalsIgnoreCase("Principal"));
     }
 
     public String getId() { return id; }
-    public String getDept() { return dept; }
-    public String getLevel() { return level; }
+    public String getDept() { return SymbolTable.DEPARTMENTS.name(deptCode); }
+    public String getLevel() { return SymbolTable.LEVELS.name(levelCode); }
+    public int getDeptCode() { return deptCode; }
+    public int getLevelCode() { return levelCode; }
+    public boolean isSenior() { return senior; }
 }
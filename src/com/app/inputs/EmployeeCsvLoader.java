@@ -0,0 +1,78 @@
+package com.app.inputs;
+
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Streaming employee loader. Skips an {@code id/empid/employee} header on line 1
+ * and rows with fewer than three fields.
+ */
+public class EmployeeCsvLoader {
+
+    /** Receives accepted rows in file order; a repeated id is passed again. */
+    public interface RowListener {
+        void onRow(Employee employee);
+    }
+
+    private static final Counter PARSED = Metrics.counter("engine_rows_parsed_total", "file", "employees");
+    private static final Counter TOO_FEW_FIELDS = rejected("too_few_fields");
+    private static final Counter EMPTY_ID = rejected("empty_id");
+
+    private final Map<String, Employee> employees;
+    private final RowListener listener;
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+    private int rows;
+
+    public EmployeeCsvLoader(Map<String, Employee> employees) {
+        this.employees = employees;
+        this.listener = null;
+    }
+
+    /** Streams rows to {@code listener} without keeping them. */
+    public EmployeeCsvLoader(RowListener listener) {
+        this.employees = null;
+        this.listener = listener;
+    }
+
+    /** Returns the number of employees in the map, or of rows passed to the listener. */
+    public int load(Path file) throws IOException {
+        rows = 0;
+        CsvLineReader.read(file, this::accept);
+        PARSED.add(rows);
+        return employees == null ? rows : employees.size();
+    }
+
+    private static Counter rejected(String reason) {
+        return Metrics.counter("engine_rows_rejected_total", "file", "employees", "reason", reason);
+    }
+
+    private void accept(byte[] buf, int from, int to, int lineNo) {
+        CsvLineTokenizer tok = tokenizer;
+        if (!tok.tokenize(buf, from, to) || tok.size() == 0) return;
+
+        if (lineNo == 1 && (tok.fieldEqualsIgnoreCase(0, "id")
+                || tok.fieldEqualsIgnoreCase(0, "empid")
+                || tok.fieldEqualsIgnoreCase(0, "employee"))) {
+            return;
+        }
+
+        if (tok.size() < 3) {
+            TOO_FEW_FIELDS.increment();
+            return;
+        }
+        if (tok.length(0) == 0) {
+            EMPTY_ID.increment();
+            return;
+        }
+
+        String id = tok.string(0);
+        Employee e = new Employee(id, tok.symbol(1, SymbolTable.DEPARTMENTS), tok.symbol(2, SymbolTable.LEVELS));
+        if (listener != null) listener.onRow(e);
+        else employees.put(id, e);
+        rows++;
+    }
+}
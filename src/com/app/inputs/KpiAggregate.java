@@ -0,0 +1,48 @@
+package com.app.inputs;
+
+/**
+ * Partial aggregates of a set of KPI rows: what a decomposable {@code WeightingPolicy} needs
+ * to score them without the rows themselves. Values are held as count, mean and sum of squared
+ * deviations (Welford), with {@code sum(weight * (value - mean))} kept alongside, so the spread
+ * of large or near-constant values survives without cancellation. Aggregates of disjoint row
+ * sets combine with Chan et al.'s pairwise merge, as {@code RunningStats} does.
+ */
+public final class KpiAggregate {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double weightedDeviation;
+    private double sumWeight;
+    private double sumWeightedValue;
+
+    public void add(double value, double weight) {
+        count++;
+        double delta = value - mean;
+        double step = delta / count;
+        mean += step;
+        m2 += delta * (value - mean);
+        weightedDeviation += weight * (value - mean) - step * sumWeight;
+        sumWeight += weight;
+        sumWeightedValue += value * weight;
+    }
+
+    void set(long count, double mean, double m2, double weightedDeviation, double sumWeight, double sumWeightedValue) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.weightedDeviation = weightedDeviation;
+        this.sumWeight = sumWeight;
+        this.sumWeightedValue = sumWeightedValue;
+    }
+
+    public long getCount() { return count; }
+    public double getMean() { return mean; }
+    /** Sum of squared deviations from the mean; exactly 0 when every value is the same. */
+    public double getM2() { return m2; }
+    public double getVariance() { return count == 0 ? 0 : m2 / count; }
+    /** {@code sum(weight * (value - mean))}. */
+    public double getWeightedDeviation() { return weightedDeviation; }
+    public double getSumWeight() { return sumWeight; }
+    public double getSumWeightedValue() { return sumWeightedValue; }
+}
@@ -0,0 +1,130 @@
+package com.app.inputs;
+
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming KPI loader: rows go straight from the read buffer into {@code kpiByEmployee}.
+ * Rows with fewer than four fields, unparsable numbers or {@code weight <= 0} are dropped.
+ * An optional fifth field names the row's reporting period, e.g. {@code 2024-Q1}.
+ */
+public class KpiCsvLoader {
+
+    /** Called each time a run of consecutive rows for one employee ends. */
+    public interface GroupListener {
+        void onGroup(String id, List<KpiRecord> kpis);
+    }
+
+    /** Receives accepted rows in file order. */
+    public interface RowListener {
+        void onRow(KpiRecord kpi);
+    }
+
+    private static final Counter PARSED = Metrics.counter("engine_rows_parsed_total", "file", "kpi");
+    private static final Counter HEADER = rejected("header");
+    private static final Counter TOO_FEW_FIELDS = rejected("too_few_fields");
+    private static final Counter BAD_NUMBER = rejected("bad_number");
+    private static final Counter BAD_WEIGHT = rejected("non_positive_weight");
+
+    private final Map<String, List<KpiRecord>> kpiByEmployee;
+    private final GroupListener listener;
+    private final RowListener rowListener;
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+    private String lastId;
+    private List<KpiRecord> lastList;
+    private int rows;
+    private int recordedRows;
+
+    public KpiCsvLoader(Map<String, List<KpiRecord>> kpiByEmployee) {
+        this(kpiByEmployee, null);
+    }
+
+    /**
+     * With a listener, each employee's list is handed over as soon as the next employee's
+     * rows begin, and is never modified afterwards. If an employee's rows are not contiguous,
+     * a later run extends a copy, which is stored in the map and handed over again.
+     */
+    public KpiCsvLoader(Map<String, List<KpiRecord>> kpiByEmployee, GroupListener listener) {
+        this.kpiByEmployee = kpiByEmployee;
+        this.listener = listener;
+        this.rowListener = null;
+    }
+
+    /** Streams rows to {@code rowListener} without grouping or keeping them. */
+    public KpiCsvLoader(RowListener rowListener) {
+        this.kpiByEmployee = null;
+        this.listener = null;
+        this.rowListener = rowListener;
+    }
+
+    public int load(Path file) throws IOException {
+        CsvLineReader.read(file, (buf, from, to, lineNo) -> accept(buf, from, to));
+        if (listener != null && lastId != null) listener.onGroup(lastId, lastList);
+        recordRows();
+        return rows;
+    }
+
+    public int getRows() { return rows; }
+
+    /** Adds rows accepted since the last call to the parsed-rows counter; rejects count as they happen. */
+    void recordRows() {
+        PARSED.add(rows - recordedRows);
+        recordedRows = rows;
+    }
+
+    private static Counter rejected(String reason) {
+        return Metrics.counter("engine_rows_rejected_total", "file", "kpi", "reason", reason);
+    }
+
+    void accept(byte[] buf, int from, int to) {
+        CsvLineTokenizer tok = tokenizer;
+        if (!tok.tokenize(buf, from, to)) return;
+        if (tok.size() < 4) {
+            TOO_FEW_FIELDS.increment();
+            return;
+        }
+
+        double value;
+        double weight;
+        try {
+            value = tok.parseDouble(2);
+            weight = tok.parseDouble(3);
+        } catch (NumberFormatException ex) {
+            (tok.fieldEqualsIgnoreCase(2, "value") ? HEADER : BAD_NUMBER).increment();
+            return;
+        }
+        if (weight <= 0) {
+            BAD_WEIGHT.increment();
+            return;
+        }
+
+        int period = tok.size() > 4 && tok.length(4) > 0 ? tok.symbol(4, SymbolTable.PERIODS) : -1;
+        if (rowListener != null) {
+            if (lastId == null || !tok.fieldEquals(0, lastId)) lastId = tok.string(0);
+            rowListener.onRow(new KpiRecord(lastId, tok.symbol(1, SymbolTable.METRICS), value, weight, period));
+            rows++;
+            return;
+        }
+
+        // KPI extracts are grouped by employee, so the id String and list are reused per run.
+        if (lastId == null || !tok.fieldEquals(0, lastId)) {
+            if (listener != null && lastId != null) listener.onGroup(lastId, lastList);
+            lastId = tok.string(0);
+            if (listener == null) {
+                lastList = kpiByEmployee.computeIfAbsent(lastId, k -> new ArrayList<>());
+            } else {
+                List<KpiRecord> seen = kpiByEmployee.get(lastId);
+                lastList = seen == null ? new ArrayList<>() : new ArrayList<>(seen);
+                kpiByEmployee.put(lastId, lastList);
+            }
+        }
+        lastList.add(new KpiRecord(lastId, tok.symbol(1, SymbolTable.METRICS), value, weight, period));
+        rows++;
+    }
+}
@@ -0,0 +1,129 @@
+package com.app.inputs;
+
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intraday KPI changes keyed by employee and metric. Each line is either an upsert in the
+ * KPI file layout, {@code id,metric,value,weight}, or a delete, {@code id,metric,DELETE}.
+ * Later lines for the same employee and metric win. Upserts with unparsable numbers or
+ * {@code weight <= 0} are dropped, as in {@link KpiCsvLoader}.
+ */
+public class KpiDelta {
+
+    private static final String DELETE = "delete";
+
+    private static final Counter PARSED = Metrics.counter("engine_rows_parsed_total", "file", "delta");
+    private static final Counter HEADER = rejected("header");
+    private static final Counter TOO_FEW_FIELDS = rejected("too_few_fields");
+    private static final Counter BAD_NUMBER = rejected("bad_number");
+    private static final Counter BAD_WEIGHT = rejected("non_positive_weight");
+
+    // null record = delete
+    private final Map<String, Map<String, KpiRecord>> changes = new LinkedHashMap<>();
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+    private int rows;
+
+    public static KpiDelta load(Path file) throws IOException {
+        KpiDelta delta = new KpiDelta();
+        CsvLineReader.read(file, (buf, from, to, lineNo) -> delta.accept(buf, from, to));
+        PARSED.add(delta.rows);
+        return delta;
+    }
+
+    private static Counter rejected(String reason) {
+        return Metrics.counter("engine_rows_rejected_total", "file", "delta", "reason", reason);
+    }
+
+    public int getRows() { return rows; }
+    public int employeeCount() { return changes.size(); }
+
+    void accept(byte[] buf, int from, int to) {
+        CsvLineTokenizer tok = tokenizer;
+        if (!tok.tokenize(buf, from, to)) return;
+        if (tok.size() < 3) {
+            TOO_FEW_FIELDS.increment();
+            return;
+        }
+
+        String id = tok.string(0);
+        String metric = tok.string(1);
+        KpiRecord record = null;
+        if (!tok.fieldEqualsIgnoreCase(2, DELETE)) {
+            if (tok.size() < 4) {
+                TOO_FEW_FIELDS.increment();
+                return;
+            }
+            double value;
+            double weight;
+            try {
+                value = tok.parseDouble(2);
+                weight = tok.parseDouble(3);
+            } catch (NumberFormatException ex) {
+                (tok.fieldEqualsIgnoreCase(2, "value") ? HEADER : BAD_NUMBER).increment();
+                return;
+            }
+            if (weight <= 0) {
+                BAD_WEIGHT.increment();
+                return;
+            }
+            record = new KpiRecord(id, metric, value, weight);
+        }
+
+        changes.computeIfAbsent(id, k -> new LinkedHashMap<>()).put(metric, record);
+        rows++;
+    }
+
+    /**
+     * Returns the new KPI list of every employee the delta actually changes, leaving
+     * {@code kpiByEmployee} untouched. An upsert replaces the first row of its metric in place
+     * (dropping any duplicates) or appends; a delete drops every row of its metric. A list may
+     * come back empty when all of an employee's rows were deleted.
+     */
+    public Map<String, List<KpiRecord>> resolve(Map<String, List<KpiRecord>> kpiByEmployee) {
+        Map<String, List<KpiRecord>> updated = new LinkedHashMap<>();
+
+        for (var entry : changes.entrySet()) {
+            List<KpiRecord> current = kpiByEmployee.getOrDefault(entry.getKey(), List.of());
+            List<KpiRecord> next = new ArrayList<>(current);
+
+            for (var change : entry.getValue().entrySet()) {
+                int metric = SymbolTable.METRICS.code(change.getKey());
+                KpiRecord record = change.getValue();
+                int at = -1;
+                for (int i = 0; i < next.size(); i++) {
+                    if (next.get(i).getMetricCode() != metric) continue;
+                    if (at < 0 && record != null) {
+                        at = i;
+                        next.set(i, record);
+                    } else {
+                        next.remove(i--);
+                    }
+                }
+                if (at < 0 && record != null) next.add(record);
+            }
+
+            if (!sameRows(current, next)) updated.put(entry.getKey(), next);
+        }
+        return updated;
+    }
+
+    private static boolean sameRows(List<KpiRecord> a, List<KpiRecord> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            KpiRecord x = a.get(i);
+            KpiRecord y = b.get(i);
+            if (x.getMetricCode() != y.getMetricCode()
+                    || Double.compare(x.getValue(), y.getValue()) != 0
+                    || Double.compare(x.getWeight(), y.getWeight()) != 0) return false;
+        }
+        return true;
+    }
+}
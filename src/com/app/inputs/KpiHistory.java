@@ -0,0 +1,269 @@
+package com.app.inputs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Time-partitioned KPI history. Each reporting period is one immutable partition holding, for
+ * every employee with rows in that period, the {@link KpiAggregate} fields of those rows; the
+ * rows themselves are not kept. Periods are ordered by label, so labels must sort
+ * chronologically ({@code 2024-Q1}, {@code 2024-03-31}). Employee ids are interned to slots
+ * shared by all partitions. Sliding windows over the history are {@link KpiWindow}s.
+ *
+ * <p>Not thread-safe.
+ */
+public class KpiHistory {
+
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final TreeMap<String, Partition> partitions = new TreeMap<>();
+
+    /**
+     * Aggregates the rows of one load into partitions by their period. A period present in the
+     * load replaces that period's partition, so re-loading a corrected period is idempotent.
+     *
+     * @return the number of periods written
+     * @throws IllegalArgumentException if a row has no period; the history is then unchanged
+     */
+    public int addAll(Map<String, List<KpiRecord>> kpiByEmployee) {
+        PartitionBuilder[] byPeriod = new PartitionBuilder[SymbolTable.PERIODS.size()];
+        List<PartitionBuilder> builders = new ArrayList<>();
+        int maxSlots = ids.size() + kpiByEmployee.size();
+
+        for (var entry : kpiByEmployee.entrySet()) {
+            int slot = -1;
+            for (KpiRecord k : entry.getValue()) {
+                int period = k.getPeriodCode();
+                if (period < 0) throw new IllegalArgumentException("KPI row for " + entry.getKey() + " has no period");
+                if (slot < 0) slot = intern(entry.getKey());
+
+                PartitionBuilder b = byPeriod[period];
+                if (b == null) {
+                    b = byPeriod[period] = new PartitionBuilder(SymbolTable.PERIODS.name(period), maxSlots);
+                    builders.add(b);
+                }
+                b.add(slot, k.getValue(), k.getWeight());
+            }
+        }
+
+        for (PartitionBuilder b : builders) partitions.put(b.period, b.build());
+        return builders.size();
+    }
+
+    /**
+     * Copies of the partitions as columns, oldest period first, for {@code EngineSnapshot}.
+     * Entries are in slot order and named by employee id.
+     */
+    public List<PeriodColumns> export() {
+        List<PeriodColumns> out = new ArrayList<>(partitions.size());
+        for (Partition p : partitions.values()) {
+            String[] periodIds = new String[p.size()];
+            for (int e = 0; e < periodIds.length; e++) periodIds[e] = ids.get(p.slots[e]);
+            out.add(new PeriodColumns(p.period, periodIds, p.counts.clone(), p.mean.clone(), p.m2.clone(),
+                    p.weightedDeviation.clone(), p.sumWeight.clone(), p.sumWeightedValue.clone()));
+        }
+        return out;
+    }
+
+    /**
+     * Puts back a period {@link #export exported} earlier, replacing that period's partition.
+     * Ids new to this history get the next slots in the order given.
+     */
+    public void restore(PeriodColumns period) {
+        int n = period.ids().length;
+        long[] order = new long[n];
+        for (int e = 0; e < n; e++) order[e] = (long) intern(period.ids()[e]) << 32 | e;
+        Arrays.sort(order);
+        int[] byOrder = new int[n];
+        int[] slots = new int[n];
+        for (int i = 0; i < n; i++) {
+            byOrder[i] = (int) order[i];
+            slots[i] = (int) (order[i] >>> 32);
+        }
+        partitions.put(period.period(), new Partition(period.period(), slots,
+                PartitionBuilder.permute(period.counts(), byOrder), PartitionBuilder.permute(period.mean(), byOrder),
+                PartitionBuilder.permute(period.m2(), byOrder), PartitionBuilder.permute(period.weightedDeviation(), byOrder),
+                PartitionBuilder.permute(period.sumWeight(), byOrder), PartitionBuilder.permute(period.sumWeightedValue(), byOrder)));
+    }
+
+    /** Removes every period and employee slot; windows over this history must be {@link KpiWindow#reset reset}. */
+    public void clear() {
+        partitions.clear();
+        ids.clear();
+        slotById.clear();
+    }
+
+    /** Removes a period; windows that include it drop it on their next slide. */
+    public boolean drop(String period) {
+        return partitions.remove(period) != null;
+    }
+
+    /** Keeps only the latest {@code periods} periods; returns how many were dropped. */
+    public int retainLatest(int periods) {
+        int dropped = 0;
+        while (partitions.size() > Math.max(0, periods)) {
+            partitions.pollFirstEntry();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    public KpiWindow window(int periods) {
+        return new KpiWindow(this, periods);
+    }
+
+    public List<String> periods() { return new ArrayList<>(partitions.keySet()); }
+    public int periodCount() { return partitions.size(); }
+
+    /** Returns the latest period, or {@code null} if the history is empty. */
+    public String lastPeriod() {
+        return partitions.isEmpty() ? null : partitions.lastKey();
+    }
+
+    /** Number of employee slots; slots are never reused, even when their periods are dropped. */
+    public int employeeCount() { return ids.size(); }
+
+    /** Returns the slot of {@code id}, or -1 if it never had rows. */
+    public int indexOf(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    public String idAt(int slot) { return ids.get(slot); }
+
+    /** The latest {@code n} partitions up to and including {@code last} (all periods if null), oldest first. */
+    List<Partition> latest(int n, String last) {
+        NavigableMap<String, Partition> upTo = last == null ? partitions : partitions.headMap(last, true);
+        List<Partition> result = new ArrayList<>(n);
+        for (Partition p : upTo.descendingMap().values()) {
+            if (result.size() == n) break;
+            result.add(p);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private int intern(String id) {
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            slot = ids.size();
+            ids.add(id);
+            slotById.put(id, slot);
+        }
+        return slot;
+    }
+
+    /** One period's aggregates as {@link #export} returns them; entry {@code i} belongs to {@code ids[i]}. */
+    public record PeriodColumns(String period, String[] ids, int[] counts, double[] mean, double[] m2,
+                                double[] weightedDeviation, double[] sumWeight, double[] sumWeightedValue) {}
+
+    /** One period's aggregates; entry {@code i} belongs to the employee in slot {@code slots[i]}. */
+    static final class Partition {
+        final String period;
+        final int[] slots;
+        final int[] counts;
+        final double[] mean;
+        final double[] m2;
+        final double[] weightedDeviation;
+        final double[] sumWeight;
+        final double[] sumWeightedValue;
+
+        Partition(String period, int[] slots, int[] counts, double[] mean, double[] m2, double[] weightedDeviation,
+                  double[] sumWeight, double[] sumWeightedValue) {
+            this.period = period;
+            this.slots = slots;
+            this.counts = counts;
+            this.mean = mean;
+            this.m2 = m2;
+            this.weightedDeviation = weightedDeviation;
+            this.sumWeight = sumWeight;
+            this.sumWeightedValue = sumWeightedValue;
+        }
+
+        int size() { return slots.length; }
+
+        /** Entry of the employee in {@code slot}, or -1 if it has no rows in this period. */
+        int entryOf(int slot) {
+            int e = Arrays.binarySearch(slots, slot);
+            return e < 0 ? -1 : e;
+        }
+    }
+
+    private static final class PartitionBuilder {
+        final String period;
+        final int[] entryBySlot;
+        int size;
+        int[] slots = new int[256];
+        int[] counts = new int[256];
+        double[] mean = new double[256];
+        double[] m2 = new double[256];
+        double[] weightedDeviation = new double[256];
+        double[] sumWeight = new double[256];
+        double[] sumWeightedValue = new double[256];
+
+        PartitionBuilder(String period, int maxSlots) {
+            this.period = period;
+            this.entryBySlot = new int[maxSlots];
+            Arrays.fill(entryBySlot, -1);
+        }
+
+        // The update of KpiAggregate.add, per entry.
+        void add(int slot, double value, double weight) {
+            int e = entryBySlot[slot];
+            if (e < 0) {
+                if (size == slots.length) grow();
+                e = entryBySlot[slot] = size++;
+                slots[e] = slot;
+            }
+            int n = ++counts[e];
+            double delta = value - mean[e];
+            double step = delta / n;
+            mean[e] += step;
+            m2[e] += delta * (value - mean[e]);
+            weightedDeviation[e] += weight * (value - mean[e]) - step * sumWeight[e];
+            sumWeight[e] += weight;
+            sumWeightedValue[e] += value * weight;
+        }
+
+        // Entries in slot order, so Partition.entryOf can binary search.
+        Partition build() {
+            long[] order = new long[size];
+            for (int e = 0; e < size; e++) order[e] = (long) slots[e] << 32 | e;
+            Arrays.sort(order);
+            int[] byOrder = new int[size];
+            for (int i = 0; i < size; i++) byOrder[i] = (int) order[i];
+            return new Partition(period, permute(slots, byOrder), permute(counts, byOrder),
+                    permute(mean, byOrder), permute(m2, byOrder), permute(weightedDeviation, byOrder),
+                    permute(sumWeight, byOrder), permute(sumWeightedValue, byOrder));
+        }
+
+        private static int[] permute(int[] a, int[] order) {
+            int[] out = new int[order.length];
+            for (int i = 0; i < order.length; i++) out[i] = a[order[i]];
+            return out;
+        }
+
+        private static double[] permute(double[] a, int[] order) {
+            double[] out = new double[order.length];
+            for (int i = 0; i < order.length; i++) out[i] = a[order[i]];
+            return out;
+        }
+
+        private void grow() {
+            int n = slots.length * 2;
+            slots = Arrays.copyOf(slots, n);
+            counts = Arrays.copyOf(counts, n);
+            mean = Arrays.copyOf(mean, n);
+            m2 = Arrays.copyOf(m2, n);
+            weightedDeviation = Arrays.copyOf(weightedDeviation, n);
+            sumWeight = Arrays.copyOf(sumWeight, n);
+            sumWeightedValue = Arrays.copyOf(sumWeightedValue, n);
+        }
+    }
+}
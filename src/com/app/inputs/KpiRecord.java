@@ -1,20 +1,37 @@
 package com.app.inputs;
 
+/**
+ * The metric name is held as a {@link SymbolTable#METRICS} code and the optional reporting
+ * period as a {@link SymbolTable#PERIODS} code, -1 when the row has none.
+ */
 public class KpiRecord {
     private final String id;
-    private final String metric;
+    private final int metricCode;
     private final double value;
     private final double weight;
+    private final int periodCode;
 
     public KpiRecord(String id, String metric, double value, double weight) {
+        this(id, SymbolTable.METRICS.intern(metric), value, weight);
+    }
+
+    public KpiRecord(String id, int metricCode, double value, double weight) {
+        this(id, metricCode, value, weight, -1);
+    }
+
+    public KpiRecord(String id, int metricCode, double value, double weight, int periodCode) {
         this.id = id;
-        this.metric = metric;
+        this.metricCode = metricCode;
         this.value = value;
         this.weight = weight;
+        this.periodCode = periodCode;
     }
 
     public String getid() { return id; }
-    public String getMetric() { return metric; }
+    public String getMetric() { return SymbolTable.METRICS.name(metricCode); }
+    public int getMetricCode() { return metricCode; }
     public double getValue() { return value; }
     public double getWeight() { return weight; }
+    public String getPeriod() { return SymbolTable.PERIODS.name(periodCode); }
+    public int getPeriodCode() { return periodCode; }
 }
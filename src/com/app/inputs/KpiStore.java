@@ -0,0 +1,192 @@
+package com.app.inputs;
+
+import com.app.columns.ColumnAllocator;
+import com.app.columns.Columns;
+import com.app.columns.DoubleColumn;
+import com.app.metrics.Histogram;
+import com.app.metrics.Metrics;
+import com.app.policies.WeightingPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar KPI storage. Rows are grouped by employee: the rows of employee {@code e} are
+ * {@code [start(e), end(e))} in {@link #values()}, {@link #weights()} and {@link #metricCodes()}.
+ * Employee ids are interned to dense indexes per store; metric codes are
+ * {@link SymbolTable#METRICS} codes. Values and weights are columns of the allocator the store
+ * was built with, so they can live off-heap and are freed when it closes.
+ */
+public class KpiStore {
+
+    private static final Histogram KPIS_PER_EMPLOYEE = Metrics.histogram("engine_kpis_per_employee");
+
+    private final String[] ids;
+    private final Map<String, Integer> indexById;
+    private final int[] offsets;
+    private final int[] metricCodes;
+    private final DoubleColumn values;
+    private final DoubleColumn weights;
+
+    private KpiStore(String[] ids, Map<String, Integer> indexById,
+                     int[] offsets, int[] metricCodes, DoubleColumn values, DoubleColumn weights) {
+        this.ids = ids;
+        this.indexById = indexById;
+        this.offsets = offsets;
+        this.metricCodes = metricCodes;
+        this.values = values;
+        this.weights = weights;
+    }
+
+    public static KpiStore from(Map<String, List<KpiRecord>> kpiByEmployee) {
+        return from(kpiByEmployee, Columns.heap());
+    }
+
+    public static KpiStore from(Map<String, List<KpiRecord>> kpiByEmployee, ColumnAllocator columns) {
+        Builder builder = new Builder();
+        for (var entry : kpiByEmployee.entrySet()) {
+            for (KpiRecord k : entry.getValue()) {
+                builder.add(entry.getKey(), k.getMetricCode(), k.getValue(), k.getWeight());
+            }
+        }
+        return builder.build(columns);
+    }
+
+    public int employeeCount() { return ids.length; }
+    public int rowCount() { return metricCodes.length; }
+    /** Upper bound of the metric codes in this store. */
+    public int metricCount() { return SymbolTable.METRICS.size(); }
+
+    /** Returns the employee index for {@code id}, or -1 if it has no KPI rows. */
+    public int indexOf(String id) {
+        Integer idx = indexById.get(id);
+        return idx == null ? -1 : idx;
+    }
+
+    public String idAt(int employee) { return ids[employee]; }
+
+    /** Returns the metric code for {@code metric}, or -1 if it never occurs. */
+    public int metricCode(String metric) {
+        return SymbolTable.METRICS.code(metric);
+    }
+
+    public String metricName(int code) { return SymbolTable.METRICS.name(code); }
+
+    public int start(int employee) { return offsets[employee]; }
+    public int end(int employee) { return offsets[employee + 1]; }
+    public int count(int employee) { return offsets[employee + 1] - offsets[employee]; }
+
+    public int[] metricCodes() { return metricCodes; }
+    public DoubleColumn values() { return values; }
+    public DoubleColumn weights() { return weights; }
+
+    public double score(WeightingPolicy policy, int employee) {
+        double[] v = values.array();
+        double[] w = weights.array();
+        if (v != null && w != null) return policy.computeScore(metricCodes, v, w, offsets[employee], offsets[employee + 1]);
+        return policy.computeScore(metricCodes, values, weights, offsets[employee], offsets[employee + 1]);
+    }
+
+    /** Scores employees {@code [from, to)} into {@code out[from..to)} with the policy's batch form. */
+    public void score(WeightingPolicy policy, int from, int to, double[] out) {
+        score(policy, from, to, Columns.wrap(out));
+    }
+
+    /**
+     * Same as {@link #score(WeightingPolicy, int, int, double[])} into a column;
+     * heap columns take the array form, which SIMD policies implement.
+     */
+    public void score(WeightingPolicy policy, int from, int to, DoubleColumn out) {
+        double[] v = values.array();
+        double[] w = weights.array();
+        double[] o = out.array();
+        if (v != null && w != null && o != null) policy.computeScores(metricCodes, v, w, offsets, from, to, o);
+        else policy.computeScores(metricCodes, values, weights, offsets, from, to, out);
+    }
+
+    /**
+     * Accepts rows in any order; {@link #build()} groups them by employee while keeping
+     * each employee's rows in insertion order.
+     */
+    public static class Builder {
+        private final List<String> ids = new ArrayList<>();
+        private final Map<String, Integer> indexById = new HashMap<>();
+
+        private int[] rowEmployee = new int[1024];
+        private int[] rowMetric = new int[1024];
+        private double[] rowValue = new double[1024];
+        private double[] rowWeight = new double[1024];
+        private int rows;
+
+        private String lastId;
+        private int lastIndex;
+
+        public Builder add(String id, String metric, double value, double weight) {
+            return add(id, SymbolTable.METRICS.intern(metric), value, weight);
+        }
+
+        public Builder add(String id, int metricCode, double value, double weight) {
+            if (!id.equals(lastId)) {
+                lastIndex = intern(id);
+                lastId = id;
+            }
+            if (rows == rowValue.length) grow();
+
+            rowEmployee[rows] = lastIndex;
+            rowMetric[rows] = metricCode;
+            rowValue[rows] = value;
+            rowWeight[rows] = weight;
+            rows++;
+            return this;
+        }
+
+        public KpiStore build() {
+            return build(Columns.heap());
+        }
+
+        public KpiStore build(ColumnAllocator columns) {
+            int employees = ids.size();
+            int[] offsets = new int[employees + 1];
+            for (int r = 0; r < rows; r++) offsets[rowEmployee[r] + 1]++;
+            for (int e = 0; e < employees; e++) offsets[e + 1] += offsets[e];
+            if (Metrics.ENABLED) {
+                for (int e = 0; e < employees; e++) KPIS_PER_EMPLOYEE.record(offsets[e + 1] - offsets[e]);
+            }
+
+            int[] cursor = Arrays.copyOf(offsets, employees);
+            int[] metricCodes = new int[rows];
+            DoubleColumn values = columns.doubles(rows);
+            DoubleColumn weights = columns.doubles(rows);
+            for (int r = 0; r < rows; r++) {
+                int at = cursor[rowEmployee[r]]++;
+                metricCodes[at] = rowMetric[r];
+                values.set(at, rowValue[r]);
+                weights.set(at, rowWeight[r]);
+            }
+
+            return new KpiStore(ids.toArray(new String[0]), new HashMap<>(indexById),
+                    offsets, metricCodes, values, weights);
+        }
+
+        private void grow() {
+            int n = rowValue.length * 2;
+            rowEmployee = Arrays.copyOf(rowEmployee, n);
+            rowMetric = Arrays.copyOf(rowMetric, n);
+            rowValue = Arrays.copyOf(rowValue, n);
+            rowWeight = Arrays.copyOf(rowWeight, n);
+        }
+
+        private int intern(String id) {
+            Integer index = indexById.get(id);
+            if (index == null) {
+                index = ids.size();
+                ids.add(id);
+                indexById.put(id, index);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.app.inputs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-employee {@link KpiAggregate} totals over the latest {@code length} periods of a
+ * {@link KpiHistory}. Totals are kept by adding and subtracting whole partitions, so sliding by
+ * one period costs one partition added and one dropped, in proportion to the employees in
+ * those two periods; no rows are rescanned. Mean, squared deviations and weighted deviation
+ * are combined with Chan et al.'s merge and its inverse; weight sums carry a Neumaier
+ * compensation term. A removal that cancels most of an employee's squared deviations, as when
+ * the values left are constant or nearly so, would keep only rounding error; that employee's
+ * totals are then rebuilt from the window's partitions instead. Totals are reset when the
+ * employee's row count drops to zero, so repeated slides do not accumulate rounding error.
+ *
+ * <p>Not thread-safe; the history must not change while the window is read.
+ */
+public final class KpiWindow {
+
+    // Per slot: mean, m2, weightedDeviation, then sumWeight and sumWeightedValue each followed by its compensation.
+    private static final int MEAN = 0;
+    private static final int M2 = 1;
+    private static final int DEVIATION = 2;
+    private static final int WEIGHT = 3;
+    private static final int WEIGHTED_VALUE = 5;
+    private static final int FIELDS = 7;
+    // A removal keeps its squared deviations only if they exceed their rounding error this many times (~9 digits).
+    private static final double MARGIN = 0x1p30;
+
+    private final KpiHistory history;
+    private final int length;
+    private List<KpiHistory.Partition> partitions = List.of();
+    private int[] counts = new int[0];
+    private double[] totals = new double[0];
+    private int[] stale = new int[16];
+    private int staleCount;
+
+    public KpiWindow(KpiHistory history, int length) {
+        if (length < 1) throw new IllegalArgumentException("window length must be >= 1");
+        this.history = history;
+        this.length = length;
+    }
+
+    /** Slides the window to end at the history's latest period; returns the partitions added plus dropped. */
+    public int advance() {
+        return slideTo(history.latest(length, null));
+    }
+
+    /** Slides the window to end at {@code lastPeriod}, or the latest period before it; returns the partitions added plus dropped. */
+    public int moveTo(String lastPeriod) {
+        return slideTo(history.latest(length, lastPeriod));
+    }
+
+    /** Empties the window, as after its history was {@link KpiHistory#clear cleared}; the next slide sums from scratch. */
+    public void reset() {
+        partitions = List.of();
+        counts = new int[0];
+        totals = new double[0];
+        staleCount = 0;
+    }
+
+    public int length() { return length; }
+
+    /** The periods currently summed, oldest first; fewer than {@link #length()} early in the history. */
+    public List<String> periods() {
+        List<String> periods = new ArrayList<>(partitions.size());
+        for (KpiHistory.Partition p : partitions) periods.add(p.period);
+        return periods;
+    }
+
+    /** Fills {@code into} with the totals of {@code id}; returns false if it has no rows in the window. */
+    public boolean aggregate(String id, KpiAggregate into) {
+        int slot = history.indexOf(id);
+        if (slot < 0 || slot >= counts.length || counts[slot] == 0) return false;
+
+        int at = slot * FIELDS;
+        double[] t = totals;
+        into.set(counts[slot], t[at + MEAN], t[at + M2], t[at + DEVIATION],
+                t[at + WEIGHT] + t[at + WEIGHT + 1], t[at + WEIGHTED_VALUE] + t[at + WEIGHTED_VALUE + 1]);
+        return true;
+    }
+
+    private int slideTo(List<KpiHistory.Partition> target) {
+        int slots = history.employeeCount();
+        if (counts.length < slots) {
+            counts = Arrays.copyOf(counts, slots);
+            totals = Arrays.copyOf(totals, slots * FIELDS);
+        }
+
+        int changed = 0;
+        for (KpiHistory.Partition p : partitions) {
+            if (!containsSame(target, p)) {
+                apply(p, -1);
+                changed++;
+            }
+        }
+        for (KpiHistory.Partition p : target) {
+            if (!containsSame(partitions, p)) {
+                apply(p, 1);
+                changed++;
+            }
+        }
+        partitions = target;
+        for (int i = 0; i < staleCount; i++) rebuild(stale[i]);
+        staleCount = 0;
+        return changed;
+    }
+
+    // Partitions are replaced, never modified, so identity tells whether a period's data changed.
+    private static boolean containsSame(List<KpiHistory.Partition> list, KpiHistory.Partition p) {
+        for (KpiHistory.Partition q : list) {
+            if (q == p) return true;
+        }
+        return false;
+    }
+
+    private void apply(KpiHistory.Partition p, int sign) {
+        double[] t = totals;
+        for (int i = 0; i < p.size(); i++) {
+            int slot = p.slots[i];
+            int at = slot * FIELDS;
+            int before = counts[slot];
+            counts[slot] += sign * p.counts[i];
+            if (counts[slot] == 0) {
+                Arrays.fill(t, at, at + FIELDS, 0);
+                continue;
+            }
+            if (sign > 0) merge(t, at, before, p, i);
+            else if (!unmerge(t, at, counts[slot], p, i)) markStale(slot);
+            add(t, at + WEIGHT, sign * p.sumWeight[i]);
+            add(t, at + WEIGHTED_VALUE, sign * p.sumWeightedValue[i]);
+        }
+    }
+
+    // Chan et al.: totals of n rows plus entry i of p. Runs before the weight sums are updated.
+    private static void merge(double[] t, int at, int n, KpiHistory.Partition p, int i) {
+        int m = p.counts[i];
+        if (n == 0) {
+            t[at + MEAN] = p.mean[i];
+            t[at + M2] = p.m2[i];
+            t[at + DEVIATION] = p.weightedDeviation[i];
+            return;
+        }
+        double total = (double) n + m;
+        double weight = t[at + WEIGHT] + t[at + WEIGHT + 1];
+        double delta = p.mean[i] - t[at + MEAN];
+        t[at + MEAN] += delta * m / total;
+        t[at + M2] += p.m2[i] + delta * delta * ((double) n * m / total);
+        t[at + DEVIATION] += p.weightedDeviation[i] + delta * (n * p.sumWeight[i] - m * weight) / total;
+    }
+
+    // The inverse: totals of n rows once entry i of p is taken out of them. False if cancellation left too few digits.
+    private static boolean unmerge(double[] t, int at, int n, KpiHistory.Partition p, int i) {
+        int m = p.counts[i];
+        double total = (double) n + m;
+        double rest = t[at + WEIGHT] + t[at + WEIGHT + 1] - p.sumWeight[i];
+        double mean = t[at + MEAN] - (p.mean[i] - t[at + MEAN]) * m / n;
+        double delta = p.mean[i] - mean;
+        double m2 = t[at + M2] - p.m2[i] - delta * delta * ((double) n * m / total);
+        // Rounding of the two sums, and of the mean carried into delta squared.
+        double error = 4 * Math.ulp(t[at + M2]) + 4 * Math.abs(delta) * Math.ulp(Math.abs(mean) + Math.abs(p.mean[i]))
+                * ((double) n * m / total);
+        boolean kept = m2 > MARGIN * error;
+        t[at + M2] = Math.max(0, m2);
+        t[at + DEVIATION] -= p.weightedDeviation[i] + delta * (n * p.sumWeight[i] - m * rest) / total;
+        t[at + MEAN] = mean;
+        return kept || t[at + M2] == 0 && p.m2[i] == 0 && delta == 0;
+    }
+
+    private void markStale(int slot) {
+        if (staleCount == stale.length) stale = Arrays.copyOf(stale, staleCount * 2);
+        stale[staleCount++] = slot;
+    }
+
+    // Merges the slot's entries of the current partitions afresh.
+    private void rebuild(int slot) {
+        if (counts[slot] == 0) return;
+        double[] t = totals;
+        int at = slot * FIELDS;
+        Arrays.fill(t, at, at + FIELDS, 0);
+        int n = 0;
+        for (KpiHistory.Partition p : partitions) {
+            int e = p.entryOf(slot);
+            if (e < 0) continue;
+            merge(t, at, n, p, e);
+            add(t, at + WEIGHT, p.sumWeight[e]);
+            add(t, at + WEIGHTED_VALUE, p.sumWeightedValue[e]);
+            n += p.counts[e];
+        }
+    }
+
+    // Neumaier step: t[at] + t[at + 1] is the running sum, the second term its rounding error.
+    private static void add(double[] t, int at, double x) {
+        double sum = t[at];
+        double next = sum + x;
+        t[at + 1] += Math.abs(sum) >= Math.abs(x) ? (sum - next) + x : (x - next) + sum;
+        t[at] = next;
+    }
+}
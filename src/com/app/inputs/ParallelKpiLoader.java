@@ -0,0 +1,170 @@
+package com.app.inputs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Memory-maps the KPI file, splits it into newline-aligned chunks and parses each chunk on its
+ * own thread into a partial map. Partials are merged in file order, so the result matches
+ * {@link KpiCsvLoader} row for row.
+ */
+public class ParallelKpiLoader {
+
+    public static class ChunkReport {
+        private final int index;
+        private final long offset;
+        private final long length;
+        private final int rows;
+        private final long nanos;
+
+        ChunkReport(int index, long offset, long length, int rows, long nanos) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+
+        public int getIndex() { return index; }
+        public long getOffset() { return offset; }
+        public long getLength() { return length; }
+        public int getRows() { return rows; }
+        public long getNanos() { return nanos; }
+    }
+
+    // A single mapping is capped at Integer.MAX_VALUE bytes.
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int BOUNDARY_PROBE = 4096;
+
+    private final Map<String, List<KpiRecord>> kpiByEmployee;
+    private final int threads;
+    private final List<ChunkReport> reports = new ArrayList<>();
+
+    public ParallelKpiLoader(Map<String, List<KpiRecord>> kpiByEmployee, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.kpiByEmployee = kpiByEmployee;
+        this.threads = threads;
+    }
+
+    public int load(Path file) throws IOException {
+        reports.clear();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int chunks = bounds.length - 1;
+            if (chunks == 0) return 0;
+
+            List<Map<String, List<KpiRecord>>> partials = new ArrayList<>(chunks);
+            List<Future<ChunkReport>> futures = new ArrayList<>(chunks);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks));
+            try {
+                for (int i = 0; i < chunks; i++) {
+                    Map<String, List<KpiRecord>> partial = new LinkedHashMap<>();
+                    partials.add(partial);
+                    int index = i;
+                    long start = bounds[i];
+                    long length = bounds[i + 1] - bounds[i];
+                    futures.add(pool.submit(() -> parseChunk(channel, index, start, length, partial)));
+                }
+
+                for (Future<ChunkReport> f : futures) {
+                    reports.add(f.get());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file, ex);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof UncheckedIOException u) throw u.getCause();
+                if (cause instanceof RuntimeException r) throw r;
+                throw new IOException(cause);
+            } finally {
+                pool.shutdownNow();
+            }
+
+            int rows = 0;
+            for (int i = 0; i < chunks; i++) {
+                for (var entry : partials.get(i).entrySet()) {
+                    kpiByEmployee.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+                                 .addAll(entry.getValue());
+                }
+                rows += reports.get(i).getRows();
+            }
+            return rows;
+        }
+    }
+
+    public List<ChunkReport> getChunkReports() {
+        return List.copyOf(reports);
+    }
+
+    private static ChunkReport parseChunk(FileChannel channel, int index, long start, long length,
+                                          Map<String, List<KpiRecord>> partial) {
+        long t0 = System.nanoTime();
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            KpiCsvLoader loader = new KpiCsvLoader(partial);
+            CsvLineReader.read(mapped, (buf, from, to, lineNo) -> loader.accept(buf, from, to));
+            loader.recordRows();
+            return new ChunkReport(index, start, length, loader.getRows(), System.nanoTime() - t0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Chunk start offsets plus the file size. Every inner boundary sits just after a
+     * {@code '\n'}, so no line is split between two chunks.
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) return new long[] { 0 };
+
+        long target = Math.max(1, Math.min(MAX_CHUNK_BYTES, (size + threads - 1) / threads));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        long pos = 0;
+        while (pos < size) {
+            long next = pos + target;
+            next = next >= size ? size : nextLineStart(channel, next, size);
+            if (next - pos > MAX_CHUNK_BYTES) {
+                throw new IOException("Line longer than " + MAX_CHUNK_BYTES + " bytes at offset " + pos);
+            }
+            bounds.add(next);
+            pos = next;
+        }
+
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = bounds.get(i);
+        return out;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE);
+        long pos = from;
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.inputs;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns a small vocabulary of strings to dense int codes, {@code 0..size()-1} in order of
+ * first sight. Codes are stable for the life of the process, so arrays indexed by code can be
+ * shared between loads; the tables only grow by distinct values, which for departments, levels
+ * metric names and KPI periods stays small. {@code null} maps to -1 and back.
+ *
+ * <p>Lookups are lock-free; adding a new symbol takes the table's lock.
+ */
+public final class SymbolTable {
+
+    public static final SymbolTable DEPARTMENTS = new SymbolTable();
+    public static final SymbolTable LEVELS = new SymbolTable();
+    public static final SymbolTable METRICS = new SymbolTable();
+    public static final SymbolTable PERIODS = new SymbolTable();
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private volatile int size;
+
+    public int intern(String name) {
+        if (name == null) return -1;
+        Integer code = codes.get(name);
+        return code != null ? code : add(name);
+    }
+
+    /** Returns the code of {@code name}, or -1 if it was never interned. */
+    public int code(String name) {
+        if (name == null) return -1;
+        Integer code = codes.get(name);
+        return code == null ? -1 : code;
+    }
+
+    public String name(int code) {
+        return code < 0 ? null : names[code];
+    }
+
+    public int size() { return size; }
+
+    // The names array is published before the code, so a reader holding a code can resolve it.
+    private synchronized int add(String name) {
+        Integer code = codes.get(name);
+        if (code != null) return code;
+
+        int c = size;
+        String[] n = names;
+        if (c == n.length) n = Arrays.copyOf(n, c * 2);
+        n[c] = name;
+        names = n;
+        size = c + 1;
+        codes.put(name, c);
+        return c;
+    }
+}
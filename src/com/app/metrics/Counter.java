@@ -0,0 +1,23 @@
+package com.app.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic count; striped, so concurrent increments do not contend. */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {}
+
+    public void increment() {
+        if (Metrics.ENABLED) value.increment();
+    }
+
+    public void add(long n) {
+        if (Metrics.ENABLED && n != 0) value.add(n);
+    }
+
+    public long get() { return value.sum(); }
+
+    void reset() { value.reset(); }
+}
@@ -0,0 +1,62 @@
+package com.app.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values in power-of-two buckets: bucket {@code b} counts values
+ * in {@code [2^(b-1), 2^b)}, bucket 0 counts zeros. Quantiles are bucket upper bounds, so they
+ * overestimate by less than a factor of two.
+ */
+public final class Histogram {
+
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+        for (int b = 0; b < BUCKETS; b++) buckets[b] = new LongAdder();
+    }
+
+    public void record(long value) {
+        if (!Metrics.ENABLED) return;
+        if (value < 0) value = 0;
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getSum() { return sum.sum(); }
+    public long getMax() { return max.get(); }
+
+    /** Upper bound of the bucket holding the {@code q}-quantile, capped at the maximum seen. */
+    public long quantile(double q) {
+        long n = count.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += buckets[b].sum();
+            if (seen >= rank) return Math.min(upperBound(b), getMax());
+        }
+        return getMax();
+    }
+
+    long bucketCount(int b) { return buckets[b].sum(); }
+
+    static long upperBound(int b) {
+        return b == 0 ? 0 : b >= 63 ? Long.MAX_VALUE : (1L << b) - 1;
+    }
+
+    void reset() {
+        for (LongAdder b : buckets) b.reset();
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,208 @@
+package com.app.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide counters, histograms, timers and throughput recorders, dumpable as JSON or
+ * Prometheus text.
+ *
+ * <p>Recording is on only when the JVM starts with {@code -Dmetrics=<file>} naming a file. The switch is a
+ * static final flag that every recorder checks first, so when it is off the JIT drops the
+ * recording code entirely and {@link #start()} does not even read the clock. Recorders are
+ * looked up once, typically into static finals, and are safe to use from any thread.
+ *
+ * <p>Names follow Prometheus conventions; labels are given as alternating key/value strings.
+ */
+public final class Metrics {
+
+    // The same test as outputFile(): a blank -Dmetrics= has nowhere to write, so records nothing.
+    public static final boolean ENABLED = outputFile() != null;
+
+    private static final Map<String, Entry<Counter>> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Entry<Histogram>> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Entry<Timer>> TIMERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Entry<Throughput>> THROUGHPUTS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {}
+
+    public static Counter counter(String name, String... labels) {
+        return COUNTERS.computeIfAbsent(key(name, labels), k -> new Entry<>(name, labels, new Counter())).recorder;
+    }
+
+    public static Histogram histogram(String name, String... labels) {
+        return HISTOGRAMS.computeIfAbsent(key(name, labels), k -> new Entry<>(name, labels, new Histogram())).recorder;
+    }
+
+    public static Timer timer(String name, String... labels) {
+        return TIMERS.computeIfAbsent(key(name, labels), k -> new Entry<>(name, labels, new Timer())).recorder;
+    }
+
+    public static Throughput throughput(String name, String... labels) {
+        return THROUGHPUTS.computeIfAbsent(key(name, labels), k -> new Entry<>(name, labels, new Throughput())).recorder;
+    }
+
+    /** Start time for {@link Timer#stop(long)} and {@link Throughput#stop(long, long)}; 0 when off. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /** The file named by {@code -Dmetrics}, or null. */
+    public static Path outputFile() {
+        String file = System.getProperty("metrics");
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    /** Writes Prometheus text if the file name ends in {@code .prom} or {@code .txt}, else JSON. */
+    public static void write(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        try (Writer out = Files.newBufferedWriter(file)) {
+            if (name.endsWith(".prom") || name.endsWith(".txt")) writePrometheus(out);
+            else writeJson(out);
+        }
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(e -> e.recorder.reset());
+        HISTOGRAMS.values().forEach(e -> e.recorder.reset());
+        TIMERS.values().forEach(e -> e.recorder.histogram().reset());
+        THROUGHPUTS.values().forEach(e -> e.recorder.reset());
+    }
+
+    public static void writeJson(Writer out) throws IOException {
+        out.write("{\n  \"enabled\": " + ENABLED + ",\n  \"counters\": [");
+        String sep = "\n";
+        for (Entry<Counter> e : COUNTERS.values()) {
+            out.write(sep + "    {" + jsonHead(e) + ", \"value\": " + e.recorder.get() + "}");
+            sep = ",\n";
+        }
+        out.write("\n  ],\n  \"histograms\": [");
+        sep = "\n";
+        for (Entry<Histogram> e : HISTOGRAMS.values()) {
+            Histogram h = e.recorder;
+            out.write(sep + "    {" + jsonHead(e) + ", \"count\": " + h.getCount() + ", \"sum\": " + h.getSum()
+                    + ", \"max\": " + h.getMax() + ", \"p50\": " + h.quantile(0.5)
+                    + ", \"p90\": " + h.quantile(0.9) + ", \"p99\": " + h.quantile(0.99) + "}");
+            sep = ",\n";
+        }
+        out.write("\n  ],\n  \"timers\": [");
+        sep = "\n";
+        for (Entry<Timer> e : TIMERS.values()) {
+            Histogram h = e.recorder.histogram();
+            out.write(sep + "    {" + jsonHead(e) + ", \"count\": " + h.getCount()
+                    + ", \"sum_seconds\": " + seconds(h.getSum()) + ", \"max_seconds\": " + seconds(h.getMax())
+                    + ", \"p50_seconds\": " + seconds(h.quantile(0.5))
+                    + ", \"p99_seconds\": " + seconds(h.quantile(0.99)) + "}");
+            sep = ",\n";
+        }
+        out.write("\n  ],\n  \"throughput\": [");
+        sep = "\n";
+        for (Entry<Throughput> e : THROUGHPUTS.values()) {
+            Throughput t = e.recorder;
+            out.write(sep + "    {" + jsonHead(e) + ", \"items\": " + t.getItems()
+                    + ", \"seconds\": " + seconds(t.getNanos())
+                    + ", \"per_second\": " + format(t.perSecond()) + "}");
+            sep = ",\n";
+        }
+        out.write("\n  ]\n}\n");
+    }
+
+    public static void writePrometheus(Writer out) throws IOException {
+        String last = null;
+        for (Entry<Counter> e : COUNTERS.values()) {
+            if (!e.name.equals(last)) out.write("# TYPE " + e.name + " counter\n");
+            last = e.name;
+            out.write(e.name + promLabels(e.labels, null) + " " + e.recorder.get() + "\n");
+        }
+        for (Entry<Histogram> e : HISTOGRAMS.values()) {
+            if (!e.name.equals(last)) out.write("# TYPE " + e.name + " histogram\n");
+            last = e.name;
+            writePromHistogram(out, e, e.recorder, 1);
+        }
+        for (Entry<Timer> e : TIMERS.values()) {
+            if (!e.name.equals(last)) out.write("# TYPE " + e.name + " histogram\n");
+            last = e.name;
+            writePromHistogram(out, e, e.recorder.histogram(), 1e-9);
+        }
+        for (Entry<Throughput> e : THROUGHPUTS.values()) {
+            if (!e.name.equals(last)) {
+                out.write("# TYPE " + e.name + "_items_total counter\n");
+                out.write("# TYPE " + e.name + "_seconds_total counter\n");
+                out.write("# TYPE " + e.name + "_per_second gauge\n");
+            }
+            last = e.name;
+            String labels = promLabels(e.labels, null);
+            Throughput t = e.recorder;
+            out.write(e.name + "_items_total" + labels + " " + t.getItems() + "\n");
+            out.write(e.name + "_seconds_total" + labels + " " + seconds(t.getNanos()) + "\n");
+            out.write(e.name + "_per_second" + labels + " " + format(t.perSecond()) + "\n");
+        }
+    }
+
+    private static void writePromHistogram(Writer out, Entry<?> e, Histogram h, double unit) throws IOException {
+        long cumulative = 0;
+        int top = 0;
+        for (int b = 0; b < Histogram.BUCKETS; b++) if (h.bucketCount(b) > 0) top = b;
+        for (int b = 0; b <= top && h.getCount() > 0; b++) {
+            cumulative += h.bucketCount(b);
+            out.write(e.name + "_bucket" + promLabels(e.labels, format(Histogram.upperBound(b) * unit))
+                    + " " + cumulative + "\n");
+        }
+        out.write(e.name + "_bucket" + promLabels(e.labels, "+Inf") + " " + h.getCount() + "\n");
+        out.write(e.name + "_sum" + promLabels(e.labels, null) + " " + format(h.getSum() * unit) + "\n");
+        out.write(e.name + "_count" + promLabels(e.labels, null) + " " + h.getCount() + "\n");
+    }
+
+    private static String key(String name, String[] labels) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("labels must be key/value pairs");
+        return name + '{' + String.join(",", labels) + '}';
+    }
+
+    private static String jsonHead(Entry<?> e) {
+        StringBuilder sb = new StringBuilder("\"name\": ").append(jsonString(e.name)).append(", \"labels\": {");
+        for (int i = 0; i < e.labels.length; i += 2) {
+            if (i > 0) sb.append(", ");
+            sb.append(jsonString(e.labels[i])).append(": ").append(jsonString(e.labels[i + 1]));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String promLabels(String[] labels, String le) {
+        if (labels.length == 0 && le == null) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"")
+              .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+              .append('"');
+        }
+        if (le != null) sb.append(labels.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+        return sb.append('}').toString();
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double v) {
+        return Double.isFinite(v) ? Double.toString(v) : v > 0 ? "+Inf" : v < 0 ? "-Inf" : "NaN";
+    }
+
+    private record Entry<R>(String name, String[] labels, R recorder) {}
+}
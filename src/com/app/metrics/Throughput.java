@@ -0,0 +1,31 @@
+package com.app.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Items processed and the time spent on them; the rate is items per second of that time. */
+public final class Throughput {
+
+    private final LongAdder items = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    Throughput() {}
+
+    public void stop(long start, long itemCount) {
+        if (!Metrics.ENABLED) return;
+        nanos.add(System.nanoTime() - start);
+        items.add(itemCount);
+    }
+
+    public long getItems() { return items.sum(); }
+    public long getNanos() { return nanos.sum(); }
+
+    public double perSecond() {
+        long n = nanos.sum();
+        return n == 0 ? 0 : items.sum() * 1e9 / n;
+    }
+
+    void reset() {
+        items.reset();
+        nanos.reset();
+    }
+}
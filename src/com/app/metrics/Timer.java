@@ -0,0 +1,23 @@
+package com.app.metrics;
+
+/**
+ * Latency histogram in nanoseconds, exported in seconds. Typical use:
+ * {@code long t = Metrics.start(); ...; timer.stop(t);}. When metrics are off,
+ * {@link Metrics#start()} skips the clock read and {@link #stop(long)} does nothing.
+ */
+public final class Timer {
+
+    private final Histogram nanos = new Histogram();
+
+    Timer() {}
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) nanos.record(System.nanoTime() - start);
+    }
+
+    public void record(long elapsedNanos) {
+        nanos.record(elapsedNanos);
+    }
+
+    Histogram histogram() { return nanos; }
+}
@@ -0,0 +1,34 @@
+package com.app.policies;
+
+/**
+ * Kahan-style running sum with the same steps as {@code DoubleStream.sum()} / {@code average()},
+ * so primitive loops produce the same doubles as the stream-based policies.
+ */
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+    private double simpleSum;
+    private long count;
+
+    public void add(double value) {
+        double tmp = value - compensation;
+        double velvel = sum + tmp;
+        compensation = (velvel - sum) - tmp;
+        sum = velvel;
+        simpleSum += value;
+        count++;
+    }
+
+    public long count() { return count; }
+
+    public double sum() {
+        double tmp = sum - compensation;
+        if (Double.isNaN(tmp) && Double.isInfinite(simpleSum)) return simpleSum;
+        return tmp;
+    }
+
+    public double average(double orElse) {
+        return count > 0 ? sum() / count : orElse;
+    }
+}
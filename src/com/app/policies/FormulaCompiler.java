@@ -0,0 +1,705 @@
+package com.app.policies;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a {@link FormulaNode} tree into bytecode, a hidden class extending {@link Code}, so the
+ * JIT compiles a formula like a hand-written policy instead of dispatching through a node per
+ * operator. The class has two methods:
+ *
+ * <ul>
+ * <li>{@code score} reads an employee's rows straight into locals, a value, weight and presence
+ * per metric slot, by switching on each row's slot, then evaluates the formula over them. The
+ * locals start at 0, so an absent metric reads as 0 without a check.
+ * <li>{@code eval} evaluates the formula over a filled {@link FormulaNode.Frame}, for rows that
+ * are not in arrays; metric reads call the helpers below.
+ * </ul>
+ *
+ * <p>Each {@link FormulaNode.Helper} the formula uses is computed once, in definition order,
+ * into a local that its uses read. Comparisons, logic and conditionals call the static helper
+ * methods, so the formula itself is straight-line code. Both sides of a conditional are
+ * evaluated, which is safe because formulas have no side effects, and gives the same doubles as
+ * the tree. Generation stops as soon as a method outgrows what the JIT compiles; such formulas
+ * keep the tree.
+ */
+final class FormulaCompiler {
+
+    // HotSpot does not compile methods above 8000 bytes of bytecode (-XX:-DontCompileHugeMethods).
+    private static final int MAX_CODE = 8000;
+
+    private static final String NAME = "com/app/policies/CompiledFormula";
+    private static final String CODE = "com/app/policies/FormulaCompiler$Code";
+    private static final String FRAME = "com/app/policies/FormulaNode$Frame";
+    private static final String SELF = "com/app/policies/FormulaCompiler";
+
+    // score(slotByCode, metrics, values, weights, from, to, linear) locals; from is the row
+    // index, and slot k keeps its value, weight and presence from SLOTS + 6 * k.
+    private static final int SLOT_BY_CODE = 1;
+    private static final int METRICS = 2;
+    private static final int VALUES = 3;
+    private static final int WEIGHTS = 4;
+    private static final int ROW = 5;
+    private static final int TO = 6;
+    private static final int LINEAR = 7;
+    private static final int SLOTS = 9;
+
+    // eval(Frame) locals: this, the frame, then the frame's fields
+    private static final int FRAME_VALUES = 2;
+    private static final int FRAME_WEIGHTS = 3;
+    private static final int FRAME_SEEN = 4;
+    private static final int FRAME_STAMP = 5;
+    private static final int FRAME_LINEAR = 6;
+    private static final int FRAME_LOCALS = 8;
+
+    /** A compiled formula. */
+    abstract static class Code extends FormulaNode {
+        /**
+         * Scores the rows {@code [from, to)}, reading each by its metric code; {@code linear} is
+         * their {@code linear()}, used only if the formula reads it.
+         */
+        abstract double score(int[] slotByCode, int[] metrics, double[] values, double[] weights, int from, int to,
+                              double linear);
+    }
+
+    private final ConstantPool pool = new ConstantPool();
+    private final int[] codeBySlot;
+    private final int slots;
+    private final List<FormulaNode.Helper> helpers;
+
+    private FormulaCompiler(FormulaNode root, int[] codeBySlot) {
+        this.codeBySlot = codeBySlot;
+        this.slots = codeBySlot.length;
+        this.helpers = FormulaNode.helpers(root);
+    }
+
+    /**
+     * Compiles {@code root}, whose metric slot {@code k} is metric code {@code codeBySlot[k]}
+     * and whose helpers are numbered below {@code helpers}.
+     */
+    static Code compile(FormulaNode root, int[] codeBySlot, int helpers) {
+        FormulaCompiler compiler = new FormulaCompiler(root, codeBySlot);
+        Method score;
+        Method eval;
+        try {
+            score = compiler.score(root);
+            eval = compiler.eval(root);
+        } catch (TooLarge ex) {
+            return new Interpreted(root, codeBySlot.length, helpers);
+        }
+        // The check while generating lets the last instruction end past the limit.
+        if (score.code.size() > MAX_CODE || eval.code.size() > MAX_CODE) {
+            return new Interpreted(root, codeBySlot.length, helpers);
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(compiler.classFile(score, eval), true);
+            return (Code) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Cannot load compiled formula", ex);
+        }
+    }
+
+    /** Thrown as soon as a method passes {@link #MAX_CODE}. */
+    private static final class TooLarge extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooLarge() { super(null, null, false, false); }
+    }
+
+    /** The tree itself, for formulas too large to compile. */
+    private static final class Interpreted extends Code {
+        private final FormulaNode root;
+        private final int slots;
+        private final int helpers;
+
+        Interpreted(FormulaNode root, int slots, int helpers) {
+            this.root = root;
+            this.slots = slots;
+            this.helpers = helpers;
+        }
+
+        @Override
+        double eval(Frame f) { return root.eval(f); }
+
+        @Override
+        double score(int[] slotByCode, int[] metrics, double[] values, double[] weights, int from, int to,
+                     double linear) {
+            Frame f = new Frame(slots, helpers);
+            f.stamp = 1;
+            f.linear = linear;
+            for (int r = from; r < to; r++) {
+                int slot = slot(slotByCode, metrics[r]);
+                if (slot < 0) continue;
+                f.values[slot] = values[r];
+                f.weights[slot] = weights[r];
+                f.seen[slot] = 1;
+            }
+            return root.eval(f);
+        }
+    }
+
+    // Helpers called by the generated code
+
+    static int slot(int[] slotByCode, int code) {
+        return code >= 0 && code < slotByCode.length ? slotByCode[code] : -1;
+    }
+
+    static double value(double[] values, int[] seen, int stamp, int slot) {
+        return seen[slot] == stamp ? values[slot] : 0;
+    }
+
+    static double weighted(double[] values, double[] weights, int[] seen, int stamp, int slot) {
+        return seen[slot] == stamp ? values[slot] * weights[slot] : 0;
+    }
+
+    static double has(int[] seen, int stamp, int slot) { return seen[slot] == stamp ? 1 : 0; }
+    static double not(double x) { return x == 0 ? 1 : 0; }
+    static double less(double a, double b) { return a < b ? 1 : 0; }
+    static double lessOrEqual(double a, double b) { return a <= b ? 1 : 0; }
+    static double equal(double a, double b) { return a == b ? 1 : 0; }
+    static double notEqual(double a, double b) { return a != b ? 1 : 0; }
+    static double and(double a, double b) { return a != 0 && b != 0 ? 1 : 0; }
+    static double or(double a, double b) { return a != 0 || b != 0 ? 1 : 0; }
+    static double select(double c, double then, double otherwise) { return c != 0 ? then : otherwise; }
+
+    // Methods
+
+    private Method score(FormulaNode root) {
+        Method m = new Method(true, SLOTS + 6 * slots);
+        if (slots > 0) {
+            for (int local = SLOTS; local < SLOTS + 6 * slots; local += 2) {
+                m.op(0x0e, 2); // dconst_0
+                m.local(0x39, -2, local); // dstore
+            }
+            Label loop = new Label();
+            Label next = new Label();
+            Label end = new Label();
+            Label[] cases = new Label[slots];
+            for (int k = 0; k < slots; k++) cases[k] = new Label();
+
+            // Rows in slot order, as exported data usually is, are read without the switch:
+            // if (row < to && metrics[row] == code of slot k) { read the row into slot k; row++ } for each k
+            for (int k = 0; k < slots; k++) {
+                m.local(0x15, 1, ROW); // iload
+                m.local(0x15, 1, TO);
+                m.branch(0xa2, -2, loop); // if_icmpge
+                m.local(0x19, 1, METRICS); // aload
+                m.local(0x15, 1, ROW);
+                m.op(0x2e, -1); // iaload
+                m.intConstant(codeBySlot[k]);
+                m.branch(0xa0, -2, loop); // if_icmpne
+                m.readRow(k);
+                m.op(0x84, 0); // iinc
+                m.code.write(ROW);
+                m.code.write(1);
+            }
+
+            // for (; row < to; row++) switch (slot(slotByCode, metrics[row])) { case k: read the row into slot k }
+            m.place(loop);
+            m.local(0x15, 1, ROW); // iload
+            m.local(0x15, 1, TO);
+            m.branch(0xa2, -2, end); // if_icmpge
+            m.local(0x19, 1, SLOT_BY_CODE); // aload
+            m.local(0x19, 1, METRICS);
+            m.local(0x15, 1, ROW);
+            m.op(0x2e, -1); // iaload
+            m.invoke(SELF, "slot", "([II)I", -1);
+            m.tableSwitch(next, cases);
+            for (int k = 0; k < slots; k++) {
+                m.place(cases[k]);
+                m.readRow(k);
+                m.branch(0xa7, 0, next); // goto
+            }
+            m.place(next);
+            m.op(0x84, 0); // iinc
+            m.code.write(ROW);
+            m.code.write(1);
+            m.branch(0xa7, 0, loop);
+            m.place(end);
+        }
+        m.formula(root);
+        return m;
+    }
+
+    private Method eval(FormulaNode root) {
+        Method m = new Method(false, FRAME_LOCALS);
+        // Loads the frame's fields into locals once.
+        m.frameField("values", "[D", 1);
+        m.local(0x3a, -1, FRAME_VALUES); // astore
+        m.frameField("weights", "[D", 1);
+        m.local(0x3a, -1, FRAME_WEIGHTS);
+        m.frameField("seen", "[I", 1);
+        m.local(0x3a, -1, FRAME_SEEN);
+        m.frameField("stamp", "I", 1);
+        m.local(0x36, -1, FRAME_STAMP); // istore
+        m.frameField("linear", "D", 2);
+        m.local(0x39, -2, FRAME_LINEAR); // dstore
+        m.formula(root);
+        return m;
+    }
+
+    /** A branch target; each gets a stack map frame. */
+    private static final class Label {
+        int offset = -1;
+    }
+
+    /** A branch offset to fill in once its target is placed. */
+    private record Jump(int at, int from, int size, Label target) {}
+
+    /** The code of one method. */
+    private final class Method {
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final List<Label> labels = new ArrayList<>();
+        final List<Jump> jumps = new ArrayList<>();
+        // Whether metrics are score()'s locals rather than eval()'s frame
+        final boolean fromLocals;
+        // Helper i is kept in the two locals from firstHelper + 2 * i.
+        final int firstHelper;
+        final Map<FormulaNode.Helper, Integer> helperLocals = new IdentityHashMap<>();
+        final int maxLocals;
+        int stack;
+        int maxStack;
+
+        Method(boolean fromLocals, int firstHelper) {
+            this.fromLocals = fromLocals;
+            this.firstHelper = firstHelper;
+            this.maxLocals = firstHelper + 2 * helpers.size();
+        }
+
+        // Each helper into its local, then the formula, returned.
+        void formula(FormulaNode root) {
+            for (FormulaNode.Helper h : helpers) {
+                int local = firstHelper + 2 * helperLocals.size();
+                emit(h.body);
+                local(0x39, -2, local); // dstore
+                helperLocals.put(h, local);
+            }
+            emit(root);
+            op(0xaf, -2); // dreturn
+        }
+
+        void emit(FormulaNode node) {
+            switch (node) {
+                case FormulaNode.Const c -> constant(c.value);
+                case FormulaNode.Helper h -> local(0x18, 2, helperLocals.get(h)); // dload
+                case FormulaNode.Value v -> metric(v.slot, 0, FRAME_VALUES);
+                case FormulaNode.Weight w -> metric(w.slot, 2, FRAME_WEIGHTS);
+                case FormulaNode.Weighted w -> {
+                    if (fromLocals) {
+                        local(0x18, 2, SLOTS + 6 * w.slot); // dload
+                        local(0x18, 2, SLOTS + 6 * w.slot + 2);
+                        op(0x6b, -2); // dmul
+                    } else {
+                        local(0x19, 1, FRAME_VALUES); // aload
+                        local(0x19, 1, FRAME_WEIGHTS);
+                        frameArgs(w.slot);
+                        invoke(SELF, "weighted", "([D[D[III)D", -3);
+                    }
+                }
+                case FormulaNode.Has h -> {
+                    if (fromLocals) {
+                        local(0x18, 2, SLOTS + 6 * h.slot + 4);
+                    } else {
+                        frameArgs(h.slot);
+                        invoke(SELF, "has", "([III)D", -1);
+                    }
+                }
+                case FormulaNode.Linear l -> local(0x18, 2, fromLocals ? LINEAR : FRAME_LINEAR);
+                case FormulaNode.Neg n -> {
+                    emit(n.x);
+                    op(0x77, 0); // dneg
+                }
+                case FormulaNode.Abs a -> {
+                    emit(a.x);
+                    invoke("java/lang/Math", "abs", "(D)D", 0);
+                }
+                case FormulaNode.Not n -> {
+                    emit(n.x);
+                    invoke(SELF, "not", "(D)D", 0);
+                }
+                case FormulaNode.AddConst a -> withConstant(a, 0x63); // dadd
+                case FormulaNode.MulConst m -> withConstant(m, 0x6b); // dmul
+                case FormulaNode.MinConst m -> {
+                    emit(m.x);
+                    constant(m.c);
+                    invoke("java/lang/Math", "min", "(DD)D", -2);
+                }
+                case FormulaNode.MaxConst m -> {
+                    emit(m.x);
+                    constant(m.c);
+                    invoke("java/lang/Math", "max", "(DD)D", -2);
+                }
+                case FormulaNode.Sum s -> {
+                    emit(s.terms[0]);
+                    for (int i = 1; i < s.terms.length; i++) {
+                        emit(s.terms[i]);
+                        op(0x63, -2); // dadd
+                    }
+                }
+                case FormulaNode.Add a -> arithmetic(a, 0x63); // dadd
+                case FormulaNode.Sub s -> arithmetic(s, 0x67); // dsub
+                case FormulaNode.Mul m -> arithmetic(m, 0x6b); // dmul
+                case FormulaNode.Div d -> arithmetic(d, 0x6f); // ddiv
+                case FormulaNode.Min m -> call(m, "java/lang/Math", "min");
+                case FormulaNode.Max m -> call(m, "java/lang/Math", "max");
+                case FormulaNode.Less l -> call(l, SELF, "less");
+                case FormulaNode.LessOrEqual l -> call(l, SELF, "lessOrEqual");
+                case FormulaNode.Equal e -> call(e, SELF, "equal");
+                case FormulaNode.NotEqual n -> call(n, SELF, "notEqual");
+                case FormulaNode.And a -> call(a, SELF, "and");
+                case FormulaNode.Or o -> call(o, SELF, "or");
+                case FormulaNode.Cond c -> {
+                    emit(c.c);
+                    emit(c.then);
+                    emit(c.otherwise);
+                    invoke(SELF, "select", "(DDD)D", -4);
+                }
+                default -> throw new IllegalArgumentException("Cannot compile " + node.getClass().getSimpleName());
+            }
+        }
+
+        // A metric's value (offset 0) or weight (offset 2): a local, or a frame array's entry.
+        private void metric(int slot, int offset, int frameArray) {
+            if (fromLocals) {
+                local(0x18, 2, SLOTS + 6 * slot + offset); // dload
+            } else {
+                local(0x19, 1, frameArray); // aload
+                frameArgs(slot);
+                invoke(SELF, "value", "([D[III)D", -2);
+            }
+        }
+
+        // seen, stamp, slot
+        private void frameArgs(int slot) {
+            local(0x19, 1, FRAME_SEEN); // aload
+            local(0x15, 1, FRAME_STAMP); // iload
+            intConstant(slot);
+        }
+
+        void intConstant(int v) {
+            if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+                op(0x11, 1); // sipush
+                u2(v);
+            } else {
+                op(0x13, 1); // ldc_w
+                u2(pool.integer(v));
+            }
+        }
+
+        void frameField(String name, String descriptor, int size) {
+            op(0x2b, 1); // aload_1
+            op(0xb4, size - 1); // getfield
+            u2(pool.field(FRAME, name, descriptor));
+        }
+
+        // Slot k's value and weight from the row, and its presence set.
+        void readRow(int k) {
+            rowInto(VALUES, SLOTS + 6 * k);
+            rowInto(WEIGHTS, SLOTS + 6 * k + 2);
+            op(0x0f, 2); // dconst_1
+            local(0x39, -2, SLOTS + 6 * k + 4); // dstore
+        }
+
+        // local = array[row]
+        private void rowInto(int array, int local) {
+            local(0x19, 1, array); // aload
+            local(0x15, 1, ROW); // iload
+            op(0x31, 0); // daload
+            local(0x39, -2, local); // dstore
+        }
+
+        private void constant(double value) {
+            op(0x14, 2); // ldc2_w
+            u2(pool.doubleConstant(value));
+        }
+
+        private void withConstant(FormulaNode.WithConst node, int opcode) {
+            emit(node.x);
+            constant(node.c);
+            op(opcode, -2);
+        }
+
+        private void arithmetic(FormulaNode.Binary node, int opcode) {
+            emit(node.a);
+            emit(node.b);
+            op(opcode, -2);
+        }
+
+        private void call(FormulaNode.Binary node, String owner, String method) {
+            emit(node.a);
+            emit(node.b);
+            invoke(owner, method, "(DD)D", -2);
+        }
+
+        void invoke(String owner, String method, String descriptor, int stackChange) {
+            op(0xb8, stackChange); // invokestatic
+            u2(pool.method(owner, method, descriptor));
+        }
+
+        void op(int opcode, int stackChange) {
+            if (code.size() > MAX_CODE) throw new TooLarge();
+            code.write(opcode);
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        // An instruction on a local, widened past index 255.
+        void local(int opcode, int stackChange, int index) {
+            if (index > 255) {
+                op(0xc4, 0); // wide
+                op(opcode, stackChange);
+                u2(index);
+            } else {
+                op(opcode, stackChange);
+                code.write(index);
+            }
+        }
+
+        void place(Label label) {
+            label.offset = code.size();
+            labels.add(label);
+        }
+
+        void branch(int opcode, int stackChange, Label target) {
+            int from = code.size();
+            op(opcode, stackChange);
+            jumps.add(new Jump(code.size(), from, 2, target));
+            u2(0);
+        }
+
+        // tableswitch over [0, cases.length)
+        void tableSwitch(Label otherwise, Label[] cases) {
+            int from = code.size();
+            op(0xaa, -1);
+            while (code.size() % 4 != 0) code.write(0);
+            jumps.add(new Jump(code.size(), from, 4, otherwise));
+            u4(0);
+            u4(0);
+            u4(cases.length - 1);
+            for (Label target : cases) {
+                jumps.add(new Jump(code.size(), from, 4, target));
+                u4(0);
+            }
+        }
+
+        void u2(int v) {
+            code.write(v >>> 8);
+            code.write(v);
+        }
+
+        private void u4(int v) {
+            u2(v >>> 16);
+            u2(v);
+        }
+
+        byte[] bytes() {
+            byte[] bytes = code.toByteArray();
+            for (Jump j : jumps) {
+                int offset = j.target().offset - j.from();
+                for (int i = 0; i < j.size(); i++) bytes[j.at() + i] = (byte) (offset >>> 8 * (j.size() - 1 - i));
+            }
+            return bytes;
+        }
+
+        /**
+         * The StackMapTable of a method whose every label has all its locals set and an empty
+         * stack: a full frame at the first, then the same frame again.
+         */
+        byte[] stackMap(int thisClass) {
+            if (labels.isEmpty()) return null;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeShort(labels.size());
+                int previous = -1;
+                for (Label label : labels) {
+                    int delta = label.offset - previous - 1;
+                    if (previous < 0) {
+                        out.writeByte(255); // full_frame
+                        out.writeShort(delta);
+                        out.writeShort(8 + 3 * slots);
+                        object(out, thisClass);
+                        object(out, pool.classRef("[I")); // slotByCode
+                        object(out, pool.classRef("[I")); // metrics
+                        object(out, pool.classRef("[D")); // values
+                        object(out, pool.classRef("[D")); // weights
+                        out.writeByte(1); // row: int
+                        out.writeByte(1); // to: int
+                        for (int i = 0; i <= 3 * slots; i++) out.writeByte(3); // linear and the slots: double
+                        out.writeShort(0); // stack
+                    } else if (delta < 64) {
+                        out.writeByte(delta); // same_frame
+                    } else {
+                        out.writeByte(251); // same_frame_extended
+                        out.writeShort(delta);
+                    }
+                    previous = label.offset;
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void object(DataOutputStream out, int classRef) throws IOException {
+            out.writeByte(7);
+            out.writeShort(classRef);
+        }
+    }
+
+    // Class file
+
+    private byte[] classFile(Method score, Method eval) {
+        int thisClass = pool.classRef(NAME);
+        int superClass = pool.classRef(CODE);
+        int init = pool.method(CODE, "<init>", "()V");
+        byte[] constructor = { 0x2a, (byte) 0xb7, (byte) (init >>> 8), (byte) init, (byte) 0xb1 }; // aload_0, invokespecial, return
+        byte[] stackMap = score.stackMap(thisClass);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            // The pool is complete once the methods and the stack map are written.
+            ByteArrayOutputStream methods = new ByteArrayOutputStream();
+            try (DataOutputStream m = new DataOutputStream(methods)) {
+                method(m, "<init>", "()V", 1, 1, constructor, null);
+                // score and eval override package-private methods, so they have no access flags either.
+                method(m, "score", "([I[I[D[DIID)D", score.maxStack, score.maxLocals, score.bytes(), stackMap);
+                method(m, "eval", "(L" + FRAME + ";)D", eval.maxStack, eval.maxLocals, eval.bytes(), null);
+            }
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(61); // Java 17
+            pool.write(out);
+            out.writeShort(0x0030); // final, super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(3); // methods
+            methods.writeTo(out);
+            out.writeShort(0); // attributes
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void method(DataOutputStream out, String name, String type, int maxStack, int maxLocals, byte[] code,
+                        byte[] stackMap) throws IOException {
+        out.writeShort(0);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(type));
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+        int attributes = stackMap == null ? 0 : 6 + stackMap.length;
+        out.writeInt(12 + code.length + attributes);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        if (stackMap == null) {
+            out.writeShort(0);
+        } else {
+            out.writeShort(1);
+            out.writeShort(pool.utf8("StackMapTable"));
+            out.writeInt(stackMap.length);
+            out.write(stackMap);
+        }
+    }
+
+    /** Constant pool entries, each written once; doubles take two indexes. */
+    private static final class ConstantPool {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+        private int next = 1;
+
+        int utf8(String s) {
+            return add("U" + s, 1, out -> {
+                out.writeByte(1);
+                out.writeUTF(s);
+            });
+        }
+
+        int classRef(String name) {
+            int n = utf8(name);
+            return add("C" + name, 1, out -> {
+                out.writeByte(7);
+                out.writeShort(n);
+            });
+        }
+
+        int method(String owner, String name, String descriptor) {
+            return member(10, owner, name, descriptor);
+        }
+
+        int field(String owner, String name, String descriptor) {
+            return member(9, owner, name, descriptor);
+        }
+
+        int integer(int v) {
+            return add("I" + v, 1, out -> {
+                out.writeByte(3);
+                out.writeInt(v);
+            });
+        }
+
+        int doubleConstant(double v) {
+            // Keyed by bits, so -0.0 and 0.0 stay apart.
+            long bits = Double.doubleToRawLongBits(v);
+            return add("D" + bits, 2, out -> {
+                out.writeByte(6);
+                out.writeLong(bits);
+            });
+        }
+
+        private int member(int tag, String owner, String name, String descriptor) {
+            int c = classRef(owner);
+            int n = utf8(name);
+            int d = utf8(descriptor);
+            int nameAndType = add("N" + name + ":" + descriptor, 1, out -> {
+                out.writeByte(12);
+                out.writeShort(n);
+                out.writeShort(d);
+            });
+            return add(tag + owner + "." + name + ":" + descriptor, 1, out -> {
+                out.writeByte(tag);
+                out.writeShort(c);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int add(String key, int size, Entry entry) {
+            Integer index = indexes.get(key);
+            if (index != null) return index;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                entry.write(out);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            entries.add(bytes.toByteArray());
+            indexes.put(key, next);
+            next += size;
+            return next - size;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeShort(next);
+            for (byte[] e : entries) out.write(e);
+        }
+
+        private interface Entry {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.app.policies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled scoring formula: a tree of nodes specialized by operator and operand kind, built
+ * once by {@link FormulaParser} with metric names already resolved to slots of a
+ * {@link Frame}. Subtrees with constant operands are folded while building, and an operation
+ * with one constant operand gets a node that holds the constant in a field. A metric times its
+ * weight is one node, and a chain of additions is one node that loops over its terms. A named
+ * definition used by later ones is one shared {@link Helper} node, evaluated once per frame.
+ *
+ * <p>{@link #toString()} prints the tree fully parenthesized with helpers by name, which is the
+ * formula's canonical text. {@link FormulaCompiler} turns a tree into bytecode.
+ */
+abstract class FormulaNode {
+
+    abstract double eval(Frame f);
+
+    boolean isConstant() { return false; }
+
+    FormulaNode[] children() { return NONE; }
+
+    private static final FormulaNode[] NONE = {};
+
+    /** The helpers {@code root} uses, directly or through other helpers, in definition order. */
+    static List<Helper> helpers(FormulaNode root) {
+        Set<FormulaNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Helper> helpers = new ArrayList<>();
+        Deque<FormulaNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            FormulaNode node = pending.pop();
+            if (!visited.add(node)) continue;
+            if (node instanceof Helper h) helpers.add(h);
+            for (FormulaNode child : node.children()) pending.push(child);
+        }
+        helpers.sort(Comparator.comparingInt(h -> h.index));
+        return helpers;
+    }
+
+    /**
+     * One employee's rows, as seen by a formula: the value and weight of each referenced metric
+     * by slot, whether the employee has the metric (its {@code seen} entry equals
+     * {@code stamp}), and the weighted sum of all its rows. Helper values are kept the same
+     * way, valid while their {@code helperSeen} entry equals {@code stamp}.
+     */
+    static final class Frame {
+        final double[] values;
+        final double[] weights;
+        final int[] seen;
+        final double[] helpers;
+        final int[] helperSeen;
+        int stamp;
+        double linear;
+
+        Frame(int slots, int helpers) {
+            values = new double[slots];
+            weights = new double[slots];
+            seen = new int[slots];
+            this.helpers = new double[helpers];
+            helperSeen = new int[helpers];
+        }
+
+        boolean has(int slot) { return seen[slot] == stamp; }
+    }
+
+    // Builders; each folds constant operands.
+
+    static FormulaNode constant(double value) { return new Const(value); }
+
+    static FormulaNode neg(FormulaNode x) {
+        return x.isConstant() ? new Const(-x.eval(null)) : new Neg(x);
+    }
+
+    static FormulaNode abs(FormulaNode x) {
+        return x.isConstant() ? new Const(Math.abs(x.eval(null))) : new Abs(x);
+    }
+
+    static FormulaNode not(FormulaNode x) {
+        return x.isConstant() ? new Const(x.eval(null) == 0 ? 1 : 0) : new Not(x);
+    }
+
+    static FormulaNode add(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(a.eval(null) + b.eval(null));
+        if (b.isConstant()) return new AddConst(a, b.eval(null));
+        if (a.isConstant()) return new AddConst(b, a.eval(null));
+        // Left-nested sums become one node that adds in the same order.
+        if (a instanceof Sum sum) return sum.plus(b);
+        if (a instanceof Add add) return new Sum(new FormulaNode[] { add.a, add.b, b });
+        return new Add(a, b);
+    }
+
+    static FormulaNode sub(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(a.eval(null) - b.eval(null));
+        // x - c is x + (-c) exactly.
+        if (b.isConstant()) return new AddConst(a, -b.eval(null));
+        return new Sub(a, b);
+    }
+
+    static FormulaNode mul(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(a.eval(null) * b.eval(null));
+        if (b.isConstant()) return new MulConst(a, b.eval(null));
+        if (a.isConstant()) return new MulConst(b, a.eval(null));
+        if (a instanceof Value v && b instanceof Weight w && v.slot == w.slot) return new Weighted(v.slot, v.metric);
+        return new Mul(a, b);
+    }
+
+    static FormulaNode div(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(a.eval(null) / b.eval(null));
+        return new Div(a, b);
+    }
+
+    static FormulaNode min(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(Math.min(a.eval(null), b.eval(null)));
+        if (b.isConstant()) return new MinConst(a, b.eval(null));
+        if (a.isConstant()) return new MinConst(b, a.eval(null));
+        return new Min(a, b);
+    }
+
+    static FormulaNode max(FormulaNode a, FormulaNode b) {
+        if (a.isConstant() && b.isConstant()) return new Const(Math.max(a.eval(null), b.eval(null)));
+        if (b.isConstant()) return new MaxConst(a, b.eval(null));
+        if (a.isConstant()) return new MaxConst(b, a.eval(null));
+        return new Max(a, b);
+    }
+
+    static FormulaNode compare(String op, FormulaNode a, FormulaNode b) {
+        FormulaNode node = switch (op) {
+            case "<" -> new Less(a, b);
+            case "<=" -> new LessOrEqual(a, b);
+            case ">" -> new Less(b, a);
+            case ">=" -> new LessOrEqual(b, a);
+            case "==" -> new Equal(a, b);
+            case "!=" -> new NotEqual(a, b);
+            default -> throw new IllegalArgumentException("Unknown comparison " + op);
+        };
+        return a.isConstant() && b.isConstant() ? new Const(node.eval(null)) : node;
+    }
+
+    static FormulaNode and(FormulaNode a, FormulaNode b) {
+        if (a.isConstant()) return a.eval(null) == 0 ? new Const(0) : truth(b);
+        return new And(a, b);
+    }
+
+    static FormulaNode or(FormulaNode a, FormulaNode b) {
+        if (a.isConstant()) return a.eval(null) != 0 ? new Const(1) : truth(b);
+        return new Or(a, b);
+    }
+
+    static FormulaNode cond(FormulaNode c, FormulaNode then, FormulaNode otherwise) {
+        if (c.isConstant()) return c.eval(null) != 0 ? then : otherwise;
+        return new Cond(c, then, otherwise);
+    }
+
+    private static FormulaNode truth(FormulaNode x) {
+        return x.isConstant() ? new Const(x.eval(null) != 0 ? 1 : 0) : new NotEqual(x, new Const(0));
+    }
+
+    // Leaves
+
+    static final class Const extends FormulaNode {
+        final double value;
+
+        Const(double value) { this.value = value; }
+
+        @Override double eval(Frame f) { return value; }
+        @Override boolean isConstant() { return true; }
+        @Override public String toString() { return Double.toString(value); }
+    }
+
+    /** Value of a metric; 0 when the employee has no row for it. */
+    static final class Value extends FormulaNode {
+        final int slot;
+        private final String metric;
+
+        Value(int slot, String metric) {
+            this.slot = slot;
+            this.metric = metric;
+        }
+
+        @Override double eval(Frame f) { return f.has(slot) ? f.values[slot] : 0; }
+        @Override public String toString() { return "[" + metric + "]"; }
+    }
+
+    /** Weight of a metric's row; 0 when the employee has no row for it. */
+    static final class Weight extends FormulaNode {
+        final int slot;
+        private final String metric;
+
+        Weight(int slot, String metric) {
+            this.slot = slot;
+            this.metric = metric;
+        }
+
+        @Override double eval(Frame f) { return f.has(slot) ? f.weights[slot] : 0; }
+        @Override public String toString() { return "weight([" + metric + "])"; }
+    }
+
+    /** A metric's value times its weight, 0 when the employee has no row for it. */
+    static final class Weighted extends FormulaNode {
+        final int slot;
+        private final String metric;
+
+        Weighted(int slot, String metric) {
+            this.slot = slot;
+            this.metric = metric;
+        }
+
+        @Override double eval(Frame f) { return f.has(slot) ? f.values[slot] * f.weights[slot] : 0; }
+        @Override public String toString() { return "([" + metric + "] * weight([" + metric + "]))"; }
+    }
+
+    static final class Has extends FormulaNode {
+        final int slot;
+        private final String metric;
+
+        Has(int slot, String metric) {
+            this.slot = slot;
+            this.metric = metric;
+        }
+
+        @Override double eval(Frame f) { return f.has(slot) ? 1 : 0; }
+        @Override public String toString() { return "has([" + metric + "])"; }
+    }
+
+    /** Sum of value times weight over all rows, as {@link LinearWeightsPolicy} scores. */
+    static final class Linear extends FormulaNode {
+        @Override double eval(Frame f) { return f.linear; }
+        @Override public String toString() { return "linear()"; }
+    }
+
+    /**
+     * A named definition used by later ones. However often it is used, it is one node, evaluated
+     * once per frame; {@code index} numbers the file's helpers in definition order.
+     */
+    static final class Helper extends FormulaNode {
+        final String name;
+        final int index;
+        final FormulaNode body;
+
+        Helper(String name, int index, FormulaNode body) {
+            this.name = name;
+            this.index = index;
+            this.body = body;
+        }
+
+        @Override
+        double eval(Frame f) {
+            if (f.helperSeen[index] != f.stamp) {
+                f.helpers[index] = body.eval(f);
+                f.helperSeen[index] = f.stamp;
+            }
+            return f.helpers[index];
+        }
+
+        @Override FormulaNode[] children() { return new FormulaNode[] { body }; }
+        @Override public String toString() { return name; }
+    }
+
+    // Unary
+
+    abstract static class Unary extends FormulaNode {
+        final FormulaNode x;
+
+        Unary(FormulaNode x) { this.x = x; }
+
+        @Override FormulaNode[] children() { return new FormulaNode[] { x }; }
+    }
+
+    static final class Neg extends Unary {
+        Neg(FormulaNode x) { super(x); }
+
+        @Override double eval(Frame f) { return -x.eval(f); }
+        @Override public String toString() { return "(-" + x + ")"; }
+    }
+
+    static final class Abs extends Unary {
+        Abs(FormulaNode x) { super(x); }
+
+        @Override double eval(Frame f) { return Math.abs(x.eval(f)); }
+        @Override public String toString() { return "abs(" + x + ")"; }
+    }
+
+    static final class Not extends Unary {
+        Not(FormulaNode x) { super(x); }
+
+        @Override double eval(Frame f) { return x.eval(f) == 0 ? 1 : 0; }
+        @Override public String toString() { return "(not " + x + ")"; }
+    }
+
+    // One operand and a constant
+
+    abstract static class WithConst extends FormulaNode {
+        final FormulaNode x;
+        final double c;
+
+        WithConst(FormulaNode x, double c) {
+            this.x = x;
+            this.c = c;
+        }
+
+        @Override FormulaNode[] children() { return new FormulaNode[] { x }; }
+    }
+
+    static final class AddConst extends WithConst {
+        AddConst(FormulaNode x, double c) { super(x, c); }
+
+        @Override double eval(Frame f) { return x.eval(f) + c; }
+        @Override public String toString() { return "(" + x + " + " + c + ")"; }
+    }
+
+    static final class MulConst extends WithConst {
+        MulConst(FormulaNode x, double c) { super(x, c); }
+
+        @Override double eval(Frame f) { return x.eval(f) * c; }
+        @Override public String toString() { return "(" + x + " * " + c + ")"; }
+    }
+
+    static final class MinConst extends WithConst {
+        MinConst(FormulaNode x, double c) { super(x, c); }
+
+        @Override double eval(Frame f) { return Math.min(x.eval(f), c); }
+        @Override public String toString() { return "min(" + x + ", " + c + ")"; }
+    }
+
+    static final class MaxConst extends WithConst {
+        MaxConst(FormulaNode x, double c) { super(x, c); }
+
+        @Override double eval(Frame f) { return Math.max(x.eval(f), c); }
+        @Override public String toString() { return "max(" + x + ", " + c + ")"; }
+    }
+
+    // Binary
+
+    abstract static class Binary extends FormulaNode {
+        final FormulaNode a;
+        final FormulaNode b;
+
+        Binary(FormulaNode a, FormulaNode b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override FormulaNode[] children() { return new FormulaNode[] { a, b }; }
+
+        String print(String op) { return "(" + a + " " + op + " " + b + ")"; }
+    }
+
+    static final class Add extends Binary {
+        Add(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) + b.eval(f); }
+        @Override public String toString() { return print("+"); }
+    }
+
+    /** {@code ((t0 + t1) + t2) + ...} */
+    static final class Sum extends FormulaNode {
+        final FormulaNode[] terms;
+
+        Sum(FormulaNode[] terms) { this.terms = terms; }
+
+        Sum plus(FormulaNode term) {
+            FormulaNode[] t = Arrays.copyOf(terms, terms.length + 1);
+            t[terms.length] = term;
+            return new Sum(t);
+        }
+
+        @Override FormulaNode[] children() { return terms; }
+
+        @Override
+        double eval(Frame f) {
+            double s = terms[0].eval(f);
+            for (int i = 1; i < terms.length; i++) s += terms[i].eval(f);
+            return s;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < terms.length; i++) sb.append(i == 0 ? "" : " + ").append(terms[i]);
+            return sb.append(')').toString();
+        }
+    }
+
+    static final class Sub extends Binary {
+        Sub(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) - b.eval(f); }
+        @Override public String toString() { return print("-"); }
+    }
+
+    static final class Mul extends Binary {
+        Mul(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) * b.eval(f); }
+        @Override public String toString() { return print("*"); }
+    }
+
+    static final class Div extends Binary {
+        Div(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) / b.eval(f); }
+        @Override public String toString() { return print("/"); }
+    }
+
+    static final class Min extends Binary {
+        Min(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return Math.min(a.eval(f), b.eval(f)); }
+        @Override public String toString() { return "min(" + a + ", " + b + ")"; }
+    }
+
+    static final class Max extends Binary {
+        Max(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return Math.max(a.eval(f), b.eval(f)); }
+        @Override public String toString() { return "max(" + a + ", " + b + ")"; }
+    }
+
+    static final class Less extends Binary {
+        Less(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) < b.eval(f) ? 1 : 0; }
+        @Override public String toString() { return print("<"); }
+    }
+
+    static final class LessOrEqual extends Binary {
+        LessOrEqual(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) <= b.eval(f) ? 1 : 0; }
+        @Override public String toString() { return print("<="); }
+    }
+
+    static final class Equal extends Binary {
+        Equal(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) == b.eval(f) ? 1 : 0; }
+        @Override public String toString() { return print("=="); }
+    }
+
+    static final class NotEqual extends Binary {
+        NotEqual(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) != b.eval(f) ? 1 : 0; }
+        @Override public String toString() { return print("!="); }
+    }
+
+    static final class And extends Binary {
+        And(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) != 0 && b.eval(f) != 0 ? 1 : 0; }
+        @Override public String toString() { return print("and"); }
+    }
+
+    static final class Or extends Binary {
+        Or(FormulaNode a, FormulaNode b) { super(a, b); }
+
+        @Override double eval(Frame f) { return a.eval(f) != 0 || b.eval(f) != 0 ? 1 : 0; }
+        @Override public String toString() { return print("or"); }
+    }
+
+    static final class Cond extends FormulaNode {
+        final FormulaNode c;
+        final FormulaNode then;
+        final FormulaNode otherwise;
+
+        Cond(FormulaNode c, FormulaNode then, FormulaNode otherwise) {
+            this.c = c;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override FormulaNode[] children() { return new FormulaNode[] { c, then, otherwise }; }
+        @Override double eval(Frame f) { return c.eval(f) != 0 ? then.eval(f) : otherwise.eval(f); }
+        @Override public String toString() { return "(" + c + " ? " + then + " : " + otherwise + ")"; }
+    }
+}
@@ -0,0 +1,342 @@
+package com.app.policies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles formula definitions into {@link FormulaNode} trees; see {@link FormulaPolicy} for
+ * the language. Recursive descent, one definition at a time. A name defined earlier in the
+ * file stands for that definition's node, shared by every use as a {@link FormulaNode.Helper},
+ * and any other bare name is an error; a bracketed metric name gets the next free slot.
+ * Department sections share the slots and helper numbering, and see the definitions above the
+ * first section.
+ */
+final class FormulaParser {
+
+    private static final Pattern SECTION = Pattern.compile("dept\\s+([^=]+?)\\s*:");
+
+    /**
+     * The compiled {@code score} definitions, the default and each department's in file order,
+     * the metric of each slot, and the number of helpers.
+     */
+    record Compiled(FormulaNode root, Map<String, FormulaNode> departments, List<String> metrics,
+                    int helpers, boolean usesLinear) {}
+
+    // Definitions above the first section, then those of the current section
+    private final Map<String, FormulaNode> shared = new HashMap<>();
+    private Map<String, FormulaNode> definitions = shared;
+    private final Map<String, FormulaNode> departments = new LinkedHashMap<>();
+    private String department;
+    private int departmentLine;
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+    private int helpers;
+    private boolean usesLinear;
+
+    // Current definition
+    private String text;
+    private int line;
+    private int pos;
+
+    static Compiled compile(String source) {
+        FormulaParser parser = new FormulaParser();
+        String[] lines = source.split("\r?\n", -1);
+        StringBuilder pending = null;
+        int pendingLine = 0;
+        for (int i = 0; i < lines.length; i++) {
+            String l = stripComment(lines[i]);
+            if (l.isBlank()) continue;
+            // Indented lines continue the definition above.
+            if (Character.isWhitespace(l.charAt(0)) && pending != null) {
+                pending.append(' ').append(l.strip());
+                continue;
+            }
+            if (pending != null) parser.define(pending.toString(), pendingLine);
+            pending = null;
+            Matcher section = SECTION.matcher(l.strip());
+            if (section.matches()) {
+                parser.section(section.group(1), i + 1);
+                continue;
+            }
+            pending = new StringBuilder(l.strip());
+            pendingLine = i + 1;
+        }
+        if (pending != null) parser.define(pending.toString(), pendingLine);
+        parser.endSection();
+
+        FormulaNode score = parser.shared.get("score");
+        if (score == null) throw new IllegalArgumentException("Formula has no 'score' definition");
+        return new Compiled(score(score), parser.departments, List.copyOf(parser.slots.keySet()), parser.helpers,
+                parser.usesLinear);
+    }
+
+    // Starts the definitions of one department's score.
+    private void section(String name, int lineNumber) {
+        endSection();
+        if (departments.containsKey(name)) {
+            throw new IllegalArgumentException("Formula line " + lineNumber + ": dept " + name + " is already defined");
+        }
+        department = name;
+        departmentLine = lineNumber;
+        definitions = new HashMap<>();
+    }
+
+    private void endSection() {
+        if (department == null) return;
+        FormulaNode score = definitions.get("score");
+        if (score == null) {
+            throw new IllegalArgumentException("Formula line " + departmentLine + ": dept " + department
+                    + " has no 'score' definition");
+        }
+        departments.put(department, score(score));
+    }
+
+    // A score definition's own node; it is a helper only for definitions after it.
+    private static FormulaNode score(FormulaNode node) {
+        return node instanceof FormulaNode.Helper h && h.name.equals("score") ? h.body : node;
+    }
+
+    private static String stripComment(String l) {
+        boolean bracket = false;
+        for (int i = 0; i < l.length(); i++) {
+            char c = l.charAt(i);
+            if (c == '[') bracket = true;
+            else if (c == ']') bracket = false;
+            else if (c == '#' && !bracket) return l.substring(0, i);
+        }
+        return l;
+    }
+
+    private void define(String definition, int lineNumber) {
+        text = definition;
+        line = lineNumber;
+        pos = 0;
+        String name = identifier();
+        if (name == null) throw error("expected a name");
+        if (definitions.containsKey(name)) throw error("'" + name + "' is already defined");
+        expect("=");
+        FormulaNode node = expression();
+        skipSpace();
+        if (pos < text.length()) throw error("unexpected '" + text.charAt(pos) + "'");
+        // Every use shares one node, so definitions built on each other grow linearly, not
+        // exponentially; constants and metric reads are cheaper to repeat.
+        if (!node.isConstant() && node.children().length > 0 && !(node instanceof FormulaNode.Helper)) {
+            node = new FormulaNode.Helper(name, helpers++, node);
+        }
+        definitions.put(name, node);
+    }
+
+    // expression := or ['?' expression ':' expression]
+    private FormulaNode expression() {
+        FormulaNode c = or();
+        if (!accept("?")) return c;
+        FormulaNode then = expression();
+        expect(":");
+        return FormulaNode.cond(c, then, expression());
+    }
+
+    private FormulaNode or() {
+        FormulaNode a = and();
+        while (acceptWord("or")) a = FormulaNode.or(a, and());
+        return a;
+    }
+
+    private FormulaNode and() {
+        FormulaNode a = comparison();
+        while (acceptWord("and")) a = FormulaNode.and(a, comparison());
+        return a;
+    }
+
+    private FormulaNode comparison() {
+        FormulaNode a = sum();
+        for (String op : new String[] { "<=", ">=", "==", "!=", "<", ">" }) {
+            if (accept(op)) return FormulaNode.compare(op, a, sum());
+        }
+        return a;
+    }
+
+    private FormulaNode sum() {
+        FormulaNode a = product();
+        while (true) {
+            if (accept("+")) a = FormulaNode.add(a, product());
+            else if (accept("-")) a = FormulaNode.sub(a, product());
+            else return a;
+        }
+    }
+
+    private FormulaNode product() {
+        FormulaNode a = unary();
+        while (true) {
+            if (accept("*")) a = FormulaNode.mul(a, unary());
+            else if (accept("/")) a = FormulaNode.div(a, unary());
+            else return a;
+        }
+    }
+
+    private FormulaNode unary() {
+        if (accept("-")) return FormulaNode.neg(unary());
+        if (acceptWord("not")) return FormulaNode.not(unary());
+        return primary();
+    }
+
+    private FormulaNode primary() {
+        skipSpace();
+        if (pos >= text.length()) throw error("unexpected end of formula");
+        char c = text.charAt(pos);
+        if (accept("(")) {
+            FormulaNode node = expression();
+            expect(")");
+            return node;
+        }
+        if (c == '[') return value(bracketName());
+        if (Character.isDigit(c) || c == '.') return FormulaNode.constant(number());
+        int start = pos;
+        String name = identifier();
+        if (name == null) throw error("unexpected '" + c + "'");
+        if (accept("(")) return call(name);
+        FormulaNode defined = definitions.getOrDefault(name, shared.get(name));
+        if (defined != null) return defined;
+        pos = start;
+        throw error("'" + name + "' is not defined above; write metrics in brackets, as [" + name + "]");
+    }
+
+    private FormulaNode call(String function) {
+        List<FormulaNode> args = new ArrayList<>();
+        String metric = null;
+        if (function.equals("weight") || function.equals("has")) {
+            metric = metricArgument();
+        } else if (!accept(")")) {
+            do args.add(expression()); while (accept(","));
+            expect(")");
+        }
+        return switch (function) {
+            case "weight" -> new FormulaNode.Weight(slot(metric), metric);
+            case "has" -> new FormulaNode.Has(slot(metric), metric);
+            case "linear" -> {
+                arity(function, args, 0);
+                usesLinear = true;
+                yield new FormulaNode.Linear();
+            }
+            case "abs" -> {
+                arity(function, args, 1);
+                yield FormulaNode.abs(args.get(0));
+            }
+            case "clamp" -> {
+                arity(function, args, 3);
+                yield FormulaNode.min(FormulaNode.max(args.get(0), args.get(1)), args.get(2));
+            }
+            case "min", "max" -> {
+                if (args.size() < 2) throw error(function + "() takes at least 2 arguments");
+                FormulaNode node = args.get(0);
+                for (int i = 1; i < args.size(); i++) {
+                    node = function.equals("min") ? FormulaNode.min(node, args.get(i)) : FormulaNode.max(node, args.get(i));
+                }
+                yield node;
+            }
+            case "if" -> {
+                arity(function, args, 3);
+                yield FormulaNode.cond(args.get(0), args.get(1), args.get(2));
+            }
+            default -> throw error("unknown function " + function + "()");
+        };
+    }
+
+    private String metricArgument() {
+        skipSpace();
+        if (pos >= text.length() || text.charAt(pos) != '[') throw error("expected a metric name in brackets");
+        String metric = bracketName();
+        expect(")");
+        return metric;
+    }
+
+    private void arity(String function, List<FormulaNode> args, int n) {
+        if (args.size() != n) throw error(function + "() takes " + n + " argument" + (n == 1 ? "" : "s"));
+    }
+
+    private FormulaNode value(String metric) {
+        return new FormulaNode.Value(slot(metric), metric);
+    }
+
+    private int slot(String metric) {
+        return slots.computeIfAbsent(metric, m -> slots.size());
+    }
+
+    // Tokens
+
+    private String identifier() {
+        skipSpace();
+        int start = pos;
+        if (pos < text.length() && (Character.isLetter(text.charAt(pos)) || text.charAt(pos) == '_')) {
+            pos++;
+            while (pos < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_' || text.charAt(pos) == '.')) {
+                pos++;
+            }
+        }
+        return pos > start ? text.substring(start, pos) : null;
+    }
+
+    private String bracketName() {
+        int close = text.indexOf(']', pos);
+        if (close < 0) throw error("missing ']'");
+        String name = text.substring(pos + 1, close).strip();
+        if (name.isEmpty()) throw error("empty metric name");
+        pos = close + 1;
+        return name;
+    }
+
+    private double number() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) pos++;
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) pos++;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+        }
+        try {
+            return Double.parseDouble(text.substring(start, pos));
+        } catch (NumberFormatException ex) {
+            pos = start;
+            throw error("bad number");
+        }
+    }
+
+    private boolean accept(String token) {
+        skipSpace();
+        if (!text.startsWith(token, pos)) return false;
+        // '<' is not the start of '<=', and so on.
+        if (token.length() == 1 && "<>=!".indexOf(token.charAt(0)) >= 0
+                && pos + 1 < text.length() && text.charAt(pos + 1) == '=') {
+            return false;
+        }
+        pos += token.length();
+        return true;
+    }
+
+    private boolean acceptWord(String word) {
+        skipSpace();
+        int end = pos + word.length();
+        if (!text.startsWith(word, pos)) return false;
+        if (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_')) return false;
+        pos = end;
+        return true;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("expected '" + token + "'");
+        }
+    }
+
+    private void skipSpace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Formula line " + line + ", column " + (pos + 1) + ": " + message);
+    }
+}
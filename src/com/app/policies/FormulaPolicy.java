@@ -0,0 +1,256 @@
+package com.app.policies;
+
+import com.app.columns.DoubleColumn;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.SymbolTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores with a formula over metric names, read from a file of definitions such as
+ *
+ * <pre>
+ * # Cap volume, double-count quality above 90
+ * volume = min([Sales Volume], 120)
+ * quality = [Quality Score] > 90 ? 2 * [Quality Score] : [Quality Score]
+ * score = 0.6 * volume + 0.4 * quality
+ * </pre>
+ *
+ * <p>Each line is {@code name = expression}; indented lines continue the one above and
+ * {@code #} starts a comment. {@code score} is the result; other names are helpers usable by
+ * later lines, and using a name not defined above is an error. Metrics are written in brackets
+ * and stand for the value of the employee's row for them (the last such row if there are
+ * several, 0 if none). Expressions have {@code + - * /}, comparisons, {@code and or not},
+ * {@code c ? a : b}, and the functions {@code min max clamp(x, lo, hi) abs if(c, a, b)},
+ * {@code weight([metric])}, {@code has([metric])} and {@code linear()}, the
+ * {@link LinearWeightsPolicy} score. Comparisons and logic give 1 or 0.
+ *
+ * <p>A line {@code dept <name>:} starts the definitions for one department, which end at the
+ * next such line:
+ *
+ * <pre>
+ * dept Sales:
+ * score = 0.8 * volume + 0.2 * [Quality Score]
+ * </pre>
+ *
+ * <p>Each section defines its own {@code score} and sees the definitions above the first
+ * section, which it may redefine for itself. Employees of that department are scored with it,
+ * through {@link #forDepartment(int)}; the others with the {@code score} above the sections.
+ *
+ * <p>The file is compiled once into a {@link FormulaNode} tree with metrics resolved to slots
+ * and each helper one shared node, and the tree into bytecode by {@link FormulaCompiler}, which reads an employee's rows into the
+ * slots by metric code and then evaluates the formula.
+ * Scores come only from the forms that see metric codes: the record form and the
+ * {@code int[] metrics} forms. Aggregates cannot be scored.
+ */
+public final class FormulaPolicy implements WeightingPolicy {
+
+    private final FormulaNode root;
+    private final String definitions;
+    private final FormulaCompiler.Code code;
+    private final List<String> metrics;
+    private final int helpers;
+    private final boolean usesLinear;
+    private final int[] slotByCode;
+    private final Map<String, FormulaPolicy> departments;
+    // Department policies by SymbolTable code, filled on first use. Section names are not
+    // interned, so department codes stay in the order the data introduces them.
+    private volatile FormulaPolicy[] byDeptCode = new FormulaPolicy[0];
+
+    private FormulaPolicy(FormulaNode root, List<String> metrics, int[] slotByCode, int helpers, boolean usesLinear,
+                          Map<String, FormulaPolicy> departments) {
+        this.root = root;
+        this.definitions = definitions(root);
+        this.helpers = helpers;
+        int[] codeBySlot = new int[metrics.size()];
+        for (int c = 0; c < slotByCode.length; c++) {
+            if (slotByCode[c] >= 0) codeBySlot[slotByCode[c]] = c;
+        }
+        this.code = FormulaCompiler.compile(root, codeBySlot, helpers);
+        this.metrics = metrics;
+        this.slotByCode = slotByCode;
+        this.usesLinear = usesLinear;
+        this.departments = departments;
+    }
+
+    /** Compiles definitions; throws {@link IllegalArgumentException} naming the line of an error. */
+    public static FormulaPolicy compile(String source) {
+        FormulaParser.Compiled compiled = FormulaParser.compile(source);
+        List<String> metrics = compiled.metrics();
+        int[] codes = new int[metrics.size()];
+        int max = -1;
+        for (int s = 0; s < codes.length; s++) {
+            codes[s] = SymbolTable.METRICS.intern(metrics.get(s));
+            max = Math.max(max, codes[s]);
+        }
+        int[] slotByCode = new int[max + 1];
+        Arrays.fill(slotByCode, -1);
+        for (int s = 0; s < codes.length; s++) slotByCode[codes[s]] = s;
+
+        // Sections share the slots, so one frame layout serves every department.
+        Map<String, FormulaPolicy> departments = new LinkedHashMap<>();
+        compiled.departments().forEach((dept, root) -> departments.put(dept,
+                new FormulaPolicy(root, metrics, slotByCode, compiled.helpers(), compiled.usesLinear(), Map.of())));
+        return new FormulaPolicy(compiled.root(), metrics, slotByCode, compiled.helpers(), compiled.usesLinear(),
+                Collections.unmodifiableMap(departments));
+    }
+
+    // The helpers score uses, in definition order, then score; as long as the definitions, not
+    // as long as score with every helper written out.
+    private static String definitions(FormulaNode root) {
+        StringBuilder sb = new StringBuilder();
+        for (FormulaNode.Helper h : FormulaNode.helpers(root)) sb.append(h.name).append(" = ").append(h.body).append("; ");
+        return sb.append("score = ").append(root).toString();
+    }
+
+    public static FormulaPolicy load(Path file) throws IOException {
+        try {
+            return compile(Files.readString(file));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(file + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Metrics the formula reads, in order of first use. */
+    public List<String> metrics() { return metrics; }
+
+    /**
+     * The compiled definitions {@code score} uses, ending with {@code score}, each fully
+     * parenthesized and separated by {@code "; "}.
+     */
+    public String formula() { return definitions; }
+
+    /** The policies of the {@code dept} sections by department name, in file order. */
+    public Map<String, FormulaPolicy> departments() { return departments; }
+
+    @Override
+    public String identity() { return "formula:" + definitions; }
+
+    @Override
+    public boolean readsMetrics() { return true; }
+
+    @Override
+    public boolean variesByDepartment() { return !departments.isEmpty(); }
+
+    @Override
+    public WeightingPolicy forDepartment(int deptCode) {
+        if (departments.isEmpty() || deptCode < 0) return this;
+        FormulaPolicy[] policies = byDeptCode;
+        if (deptCode < policies.length && policies[deptCode] != null) return policies[deptCode];
+        return resolve(deptCode);
+    }
+
+    private synchronized FormulaPolicy resolve(int deptCode) {
+        FormulaPolicy[] policies = byDeptCode;
+        if (deptCode < policies.length && policies[deptCode] != null) return policies[deptCode];
+        // Copied on write, so readers never see a partly written array.
+        policies = Arrays.copyOf(policies, Math.max(deptCode + 1, policies.length));
+        policies[deptCode] = departments.getOrDefault(SymbolTable.DEPARTMENTS.name(deptCode), this);
+        byDeptCode = policies;
+        return policies[deptCode];
+    }
+
+    @Override
+    public double computeScore(List<KpiRecord> kpis) {
+        FormulaNode.Frame f = new FormulaNode.Frame(metrics.size(), helpers);
+        f.stamp = 1;
+        CompensatedSum linear = usesLinear ? new CompensatedSum() : null;
+        for (KpiRecord k : kpis) {
+            int slot = slot(k.getMetricCode());
+            if (slot >= 0) put(f, slot, k.getValue(), k.getWeight());
+            if (linear != null) linear.add(k.getValue() * k.getWeight());
+        }
+        if (linear != null) f.linear = linear.sum();
+        return code.eval(f);
+    }
+
+    @Override
+    public double computeScore(int[] metrics, double[] values, double[] weights, int from, int to) {
+        return score(metrics, values, weights, from, to);
+    }
+
+    @Override
+    public double computeScore(int[] metrics, DoubleColumn values, DoubleColumn weights, int from, int to) {
+        FormulaNode.Frame f = new FormulaNode.Frame(this.metrics.size(), helpers);
+        return score(f, metrics, values, weights, from, to);
+    }
+
+    @Override
+    public void computeScores(int[] metrics, double[] values, double[] weights, int[] offsets, int from, int to,
+                              double[] out) {
+        for (int e = from; e < to; e++) out[e] = score(metrics, values, weights, offsets[e], offsets[e + 1]);
+    }
+
+    @Override
+    public void computeScores(int[] metrics, DoubleColumn values, DoubleColumn weights, int[] offsets,
+                              int from, int to, DoubleColumn out) {
+        FormulaNode.Frame f = new FormulaNode.Frame(this.metrics.size(), helpers);
+        for (int e = from; e < to; e++) out.set(e, score(f, metrics, values, weights, offsets[e], offsets[e + 1]));
+    }
+
+    @Override
+    public double computeScore(double[] values, double[] weights, int from, int to) {
+        throw new UnsupportedOperationException("A formula needs each row's metric");
+    }
+
+    @Override
+    public double computeScore(DoubleColumn values, DoubleColumn weights, int from, int to) {
+        throw new UnsupportedOperationException("A formula needs each row's metric");
+    }
+
+    @Override
+    public void computeScores(double[] values, double[] weights, int[] offsets, int from, int to, double[] out) {
+        throw new UnsupportedOperationException("A formula needs each row's metric");
+    }
+
+    @Override
+    public void computeScores(DoubleColumn values, DoubleColumn weights, int[] offsets, int from, int to,
+                              DoubleColumn out) {
+        throw new UnsupportedOperationException("A formula needs each row's metric");
+    }
+
+    private double score(int[] metrics, double[] values, double[] weights, int from, int to) {
+        double linear = 0;
+        if (usesLinear) {
+            CompensatedSum sum = new CompensatedSum();
+            for (int r = from; r < to; r++) sum.add(values[r] * weights[r]);
+            linear = sum.sum();
+        }
+        return code.score(slotByCode, metrics, values, weights, from, to, linear);
+    }
+
+    // One frame per call or batch; a new stamp marks every slot absent again.
+    private double score(FormulaNode.Frame f, int[] metrics, DoubleColumn values, DoubleColumn weights,
+                         int from, int to) {
+        f.stamp++;
+        if (usesLinear) {
+            CompensatedSum linear = new CompensatedSum();
+            for (int r = from; r < to; r++) linear.add(values.get(r) * weights.get(r));
+            f.linear = linear.sum();
+        }
+        if (slotByCode.length > 0) {
+            for (int r = from; r < to; r++) {
+                int slot = slot(metrics[r]);
+                if (slot >= 0) put(f, slot, values.get(r), weights.get(r));
+            }
+        }
+        return code.eval(f);
+    }
+
+    private int slot(int code) {
+        return code >= 0 && code < slotByCode.length ? slotByCode[code] : -1;
+    }
+
+    private static void put(FormulaNode.Frame f, int slot, double value, double weight) {
+        f.values[slot] = value;
+        f.weights[slot] = weight;
+        f.seen[slot] = f.stamp;
+    }
+}
@@ -1,5 +1,7 @@
 package com.app.policies;
 
+import com.app.columns.DoubleColumn;
+import com.app.inputs.KpiAggregate;
 import com.app.inputs.KpiRecord;
 import java.util.List;
 
@@ -10,4 +12,30 @@ public class LinearWeightsPolicy implements WeightingPolicy {
                 .mapToDouble(k -> k.getValue() * k.getWeight())
                 .sum();
     }
+
+    @Override
+    public double computeScore(double[] values, double[] weights, int from, int to) {
+        CompensatedSum sum = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            sum.add(values[i] * weights[i]);
+        }
+        return sum.sum();
+    }
+
+    @Override
+    public double computeScore(DoubleColumn values, DoubleColumn weights, int from, int to) {
+        CompensatedSum sum = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            sum.add(values.get(i) * weights.get(i));
+        }
+        return sum.sum();
+    }
+
+    @Override
+    public boolean scoresAggregates() { return true; }
+
+    @Override
+    public double computeScore(KpiAggregate aggregate) {
+        return aggregate.getSumWeightedValue();
+    }
 }
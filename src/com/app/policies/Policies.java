@@ -0,0 +1,23 @@
+package com.app.policies;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Policies by name: {@code linear}, {@code zscore} (SIMD where available, see
+ * {@link SimdPolicies}) or {@code formula:<file>} for a {@link FormulaPolicy}.
+ */
+public final class Policies {
+
+    private static final String FORMULA = "formula:";
+
+    private Policies() {}
+
+    public static WeightingPolicy forName(String name) throws IOException {
+        String n = name.strip();
+        if (n.equals("linear")) return new LinearWeightsPolicy();
+        if (n.equals("zscore")) return SimdPolicies.zScore();
+        if (n.startsWith(FORMULA)) return FormulaPolicy.load(Path.of(n.substring(FORMULA.length())));
+        throw new IllegalArgumentException("Unknown policy '" + name + "'; expected linear, zscore or formula:<file>");
+    }
+}
@@ -0,0 +1,152 @@
+package com.app.policies;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batched ZScore scoring on the incubating Vector API. Each lane scores one employee: lane
+ * {@code l} of a group reads row {@code k} of employee {@code e + l}, so every lane runs the
+ * same {@link CompensatedSum} steps, in the same order, as the scalar loop for its employee.
+ * Lane arithmetic is IEEE add/sub/mul/div/sqrt without fusing, so results are bit-identical to
+ * {@link ZScorePolicy} (NaN payloads aside).
+ *
+ * <p>Only loaded once {@link SimdPolicies} has checked that the module is present.
+ */
+final class SimdKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final int VALUE = 0;
+    private static final int SQUARED_DEVIATION = 1;
+    private static final int WEIGHTED_Z = 2;
+
+    private SimdKernels() {}
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /** Scores whole groups of lanes from {@code from}; returns the first employee left unscored. */
+    static int zScore(double[] values, double[] weights, int[] offsets, int from, int to, double[] out) {
+        int lanes = SPECIES.length();
+        Block block = new Block();
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        int e = from;
+        for (; e + lanes <= to; e += lanes) {
+            block.load(values, weights, offsets, e);
+            DoubleVector n = DoubleVector.fromArray(SPECIES, block.counts, 0);
+            VectorMask<Double> empty = n.compare(VectorOperators.EQ, 0);
+
+            sum(VALUE, block, block.mean, 0);
+            DoubleVector.fromArray(SPECIES, block.mean, 0).div(n).blend(zero, empty).intoArray(block.mean, 0);
+            sum(SQUARED_DEVIATION, block, block.std, 0);
+            DoubleVector std = DoubleVector.fromArray(SPECIES, block.std, 0).div(n).blend(zero, empty).sqrt();
+            std.intoArray(block.std, 0);
+            sum(WEIGHTED_Z, block, out, e);
+            DoubleVector.fromArray(SPECIES, out, e)
+                    .blend(zero, std.compare(VectorOperators.EQ, 0))
+                    .intoArray(out, e);
+        }
+        return e;
+    }
+
+    /*
+     * Compensated sum of one term over each lane's rows, written to into[at..]; lanes past their
+     * row count keep their state. Passes hand vectors over through arrays, not arguments or return
+     * values, so nothing is boxed when C2 stops inlining in the three-pass ZScore loop.
+     */
+    private static void sum(int term, Block block, double[] into, int at) {
+        DoubleVector n = DoubleVector.fromArray(SPECIES, block.counts, 0);
+        DoubleVector mean = DoubleVector.fromArray(SPECIES, block.mean, 0);
+        DoubleVector std = DoubleVector.fromArray(SPECIES, block.std, 0);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector compensation = sum;
+        DoubleVector simpleSum = sum;
+
+        for (int k = 0; k < block.rows; k++) {
+            VectorMask<Double> live = n.compare(VectorOperators.GT, k);
+            DoubleVector x = term(term, block, k, mean, std);
+            DoubleVector tmp = x.sub(compensation);
+            DoubleVector velvel = sum.add(tmp);
+            compensation = compensation.blend(velvel.sub(sum).sub(tmp), live);
+            sum = sum.blend(velvel, live);
+            simpleSum = simpleSum.blend(simpleSum.add(x), live);
+        }
+
+        DoubleVector tmp = sum.sub(compensation);
+        VectorMask<Double> overflow = tmp.test(VectorOperators.IS_NAN)
+                .and(simpleSum.test(VectorOperators.IS_INFINITE));
+        tmp.blend(simpleSum, overflow).intoArray(into, at);
+    }
+
+    private static DoubleVector term(int term, Block block, int k, DoubleVector mean, DoubleVector std) {
+        int at = k * SPECIES.length();
+        DoubleVector v = DoubleVector.fromArray(SPECIES, block.values, at);
+        if (term == VALUE) return v;
+        if (term == SQUARED_DEVIATION) {
+            DoubleVector d = v.sub(mean);
+            return d.mul(d);
+        }
+        return v.sub(mean).div(std).mul(DoubleVector.fromArray(SPECIES, block.weights, at));
+    }
+
+    /**
+     * One group's rows transposed so that row {@code k} of every lane is contiguous at
+     * {@code k * lanes}; lanes past their last row read zeros. The Vector API's indexed
+     * {@code fromArray} could gather straight from the columns, but C2 in JDK 21.0.1
+     * miscompiles those gathers in unrolled loops on AVX-512 (SIGSEGV). The transposed block
+     * is reused by all three ZScore passes.
+     */
+    private static final class Block {
+        final double[] counts = new double[SPECIES.length()];
+        final double[] mean = new double[SPECIES.length()];
+        final double[] std = new double[SPECIES.length()];
+        int rows;
+        boolean uniform;
+        double[] values = new double[0];
+        double[] weights = new double[0];
+
+        void load(double[] v, double[] w, int[] offsets, int e) {
+            bounds(offsets, e);
+            transpose(v, offsets, e, values);
+            transpose(w, offsets, e, weights);
+        }
+
+        private void bounds(int[] offsets, int e) {
+            int lanes = SPECIES.length();
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int l = 0; l < lanes; l++) {
+                int c = offsets[e + l + 1] - offsets[e + l];
+                counts[l] = c;
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+            rows = max;
+            uniform = min == max;
+            if (values.length < rows * lanes) {
+                values = new double[rows * lanes];
+                weights = new double[rows * lanes];
+            }
+        }
+
+        // Row k of lane l, src[offsets[e + l] + k], goes to dst[k * lanes + l].
+        private void transpose(double[] src, int[] offsets, int e, double[] dst) {
+            int lanes = SPECIES.length();
+            if (uniform) {
+                int from = offsets[e];
+                for (int k = 0, at = 0; k < rows; k++) {
+                    for (int l = 0; l < lanes; l++) dst[at++] = src[from + l * rows + k];
+                }
+                return;
+            }
+            for (int l = 0; l < lanes; l++) {
+                int start = offsets[e + l];
+                int count = offsets[e + l + 1] - offsets[e + l];
+                for (int k = 0; k < rows; k++) dst[k * lanes + l] = k < count ? src[start + k] : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.app.policies;
+
+/**
+ * Policies whose batch form, {@link WeightingPolicy#computeScores}, runs on the Vector API.
+ * The API is an incubator module, so SIMD is used only when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector} and the platform has at least two double lanes;
+ * otherwise the plain scalar policy is returned. {@code -Dsimd=false} forces scalar.
+ *
+ * <p>Either way scores are bit-identical: each SIMD lane runs one employee's scalar
+ * compensated sum, so only the batch form is vectorized and single-employee calls stay scalar.
+ * There is no SIMD {@link LinearWeightsPolicy}: with one multiply per row, regrouping rows
+ * into lanes costs more than the scalar loop, which already overlaps independent employees.
+ */
+public final class SimdPolicies {
+
+    private static final boolean AVAILABLE = detect();
+
+    private SimdPolicies() {}
+
+    public static boolean available() {
+        return AVAILABLE;
+    }
+
+    public static WeightingPolicy zScore() {
+        return AVAILABLE ? new SimdZScorePolicy() : new ZScorePolicy();
+    }
+
+    private static boolean detect() {
+        if (!Boolean.parseBoolean(System.getProperty("simd", "true"))) return false;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            return SimdKernels.lanes() >= 2;
+        } catch (LinkageError ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.app.policies;
+
+/** {@link ZScorePolicy} with SIMD batch scoring; see {@link SimdKernels}. */
+final class SimdZScorePolicy extends ZScorePolicy {
+
+    @Override
+    public String identity() {
+        return ZScorePolicy.class.getName();
+    }
+
+    @Override
+    public void computeScores(double[] values, double[] weights, int[] offsets, int from, int to, double[] out) {
+        int done = SimdKernels.zScore(values, weights, offsets, from, to, out);
+        super.computeScores(values, weights, offsets, done, to, out);
+    }
+}
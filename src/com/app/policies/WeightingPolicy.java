@@ -1,8 +1,133 @@
 package com.app.policies;
 
+import com.app.columns.DoubleColumn;
+import com.app.inputs.KpiAggregate;
 import com.app.inputs.KpiRecord;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public interface WeightingPolicy {
     double computeScore(List<KpiRecord> kpis);
+
+    /**
+     * Names the scores this policy computes, for caches that outlive the process. Policies
+     * whose scores are equal share an identity; change it whenever the scores would change.
+     */
+    default String identity() {
+        return getClass().getName();
+    }
+
+    /**
+     * Scores the KPI rows {@code [from, to)} of columnar value/weight arrays.
+     * Implementations should override this with a primitive loop; the default
+     * materializes records and delegates to {@link #computeScore(List)}.
+     */
+    default double computeScore(double[] values, double[] weights, int from, int to) {
+        List<KpiRecord> kpis = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            kpis.add(new KpiRecord(null, null, values[i], weights[i]));
+        }
+        return computeScore(kpis);
+    }
+
+    /**
+     * Scores employees {@code [from, to)} of a columnar layout in which employee {@code e} owns
+     * rows {@code [offsets[e], offsets[e + 1])}, writing its score to {@code out[e]}. Results
+     * must equal {@link #computeScore(double[], double[], int, int)} per employee.
+     */
+    default void computeScores(double[] values, double[] weights, int[] offsets, int from, int to, double[] out) {
+        for (int e = from; e < to; e++) {
+            out[e] = computeScore(values, weights, offsets[e], offsets[e + 1]);
+        }
+    }
+
+    /**
+     * Column form of {@link #computeScore(double[], double[], int, int)}, for columns that may be
+     * off-heap; results must be equal. The default copies the rows into arrays.
+     */
+    default double computeScore(DoubleColumn values, DoubleColumn weights, int from, int to) {
+        double[] v = new double[to - from];
+        double[] w = new double[to - from];
+        for (int i = from; i < to; i++) {
+            v[i - from] = values.get(i);
+            w[i - from] = weights.get(i);
+        }
+        return computeScore(v, w, 0, v.length);
+    }
+
+    /** Column form of {@link #computeScores(double[], double[], int[], int, int, double[])}. */
+    default void computeScores(DoubleColumn values, DoubleColumn weights, int[] offsets, int from, int to,
+                               DoubleColumn out) {
+        for (int e = from; e < to; e++) {
+            out.set(e, computeScore(values, weights, offsets[e], offsets[e + 1]));
+        }
+    }
+
+    /**
+     * Whether scores depend on which metric each row holds. Such policies are scored only
+     * through the record form and the forms below that take each row's
+     * {@link com.app.inputs.SymbolTable#METRICS} code; the others cannot tell rows apart.
+     */
+    default boolean readsMetrics() {
+        return false;
+    }
+
+    /** {@link #computeScore(double[], double[], int, int)} with metric codes; the default ignores them. */
+    default double computeScore(int[] metrics, double[] values, double[] weights, int from, int to) {
+        return computeScore(values, weights, from, to);
+    }
+
+    /** {@link #computeScore(DoubleColumn, DoubleColumn, int, int)} with metric codes; the default ignores them. */
+    default double computeScore(int[] metrics, DoubleColumn values, DoubleColumn weights, int from, int to) {
+        return computeScore(values, weights, from, to);
+    }
+
+    /**
+     * {@link #computeScores(double[], double[], int[], int, int, double[])} with metric codes;
+     * the default ignores them, keeping the policy's batch loop.
+     */
+    default void computeScores(int[] metrics, double[] values, double[] weights, int[] offsets, int from, int to,
+                               double[] out) {
+        computeScores(values, weights, offsets, from, to, out);
+    }
+
+    /** Column form of {@link #computeScores(int[], double[], double[], int[], int, int, double[])}. */
+    default void computeScores(int[] metrics, DoubleColumn values, DoubleColumn weights, int[] offsets,
+                               int from, int to, DoubleColumn out) {
+        computeScores(values, weights, offsets, from, to, out);
+    }
+
+    /**
+     * Whether some departments are scored by another policy. Evaluators then score each
+     * employee with {@link #forDepartment(int)} of its department instead of this policy.
+     */
+    default boolean variesByDepartment() {
+        return false;
+    }
+
+    /**
+     * The policy scoring employees of department {@code deptCode}, a
+     * {@link com.app.inputs.SymbolTable#DEPARTMENTS} code; the default is this policy.
+     */
+    default WeightingPolicy forDepartment(int deptCode) {
+        return this;
+    }
+
+    /**
+     * Whether {@link #computeScore(KpiAggregate)} is supported. Windowed scoring over a
+     * {@code KpiHistory} sees only aggregates, so it accepts only policies that return true.
+     */
+    default boolean scoresAggregates() {
+        return false;
+    }
+
+    /**
+     * Scores rows known only by their {@link KpiAggregate}; called only on policies whose
+     * {@link #scoresAggregates()} is true, which override both. Results agree with the row
+     * forms up to rounding.
+     */
+    default double computeScore(KpiAggregate aggregate) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot score from KPI aggregates");
+    }
 }
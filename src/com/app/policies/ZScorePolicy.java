@@ -1,6 +1,8 @@
 package com.app.policies;
 
 import java.util.List;
+import com.app.columns.DoubleColumn;
+import com.app.inputs.KpiAggregate;
 import com.app.inputs.KpiRecord;
 
 public class ZScorePolicy implements WeightingPolicy {
@@ -23,6 +25,76 @@ public class ZScorePolicy implements WeightingPolicy {
                 .sum();
     }
 
+    @Override
+    public double computeScore(double[] values, double[] weights, int from, int to) {
+        CompensatedSum total = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            total.add(values[i]);
+        }
+        double mean = total.average(0);
+
+        CompensatedSum squares = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            double d = values[i] - mean;
+            squares.add(d * d);
+        }
+        double stdDev = Math.sqrt(squares.average(0));
+
+        if (stdDev == 0) {
+            return 0;
+        }
+
+        CompensatedSum score = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            score.add(((values[i] - mean) / stdDev) * weights[i]);
+        }
+        return score.sum();
+    }
+
+    @Override
+    public double computeScore(DoubleColumn values, DoubleColumn weights, int from, int to) {
+        CompensatedSum total = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            total.add(values.get(i));
+        }
+        double mean = total.average(0);
+
+        CompensatedSum squares = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            double d = values.get(i) - mean;
+            squares.add(d * d);
+        }
+        double stdDev = Math.sqrt(squares.average(0));
+
+        if (stdDev == 0) {
+            return 0;
+        }
+
+        CompensatedSum score = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            score.add(((values.get(i) - mean) / stdDev) * weights.get(i));
+        }
+        return score.sum();
+    }
+
+    @Override
+    public boolean scoresAggregates() { return true; }
+
+    /**
+     * sum(((v - mean) / std) * w) = sum(w * (v - mean)) / std, from the aggregate's Welford
+     * mean and squared deviations. Constant values leave those exactly 0 and score 0, as in
+     * the row form.
+     */
+    @Override
+    public double computeScore(KpiAggregate aggregate) {
+        double variance = aggregate.getVariance();
+        if (!(variance > 0)) {
+            return 0;
+        }
+
+        return aggregate.getWeightedDeviation() / Math.sqrt(variance);
+    }
+
     private double calculateStdDev(List<KpiRecord> kpis, double mean) {
         double variance = kpis.stream()
                 .mapToDouble(k -> Math.pow(k.getValue() - mean, 2))
@@ -0,0 +1,64 @@
+package com.app.service;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.RankingIndex;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.summary.DeptSummary;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published result set: the results table, its ranking and the department summaries.
+ * Nothing here is modified after publication, so any number of threads may query it without
+ * locks. Results are handed out as views over the table.
+ */
+public final class Evaluation {
+
+    static final Evaluation EMPTY = new Evaluation(0, new ResultsTable(new Employee[0]), Map.of());
+
+    private final long version;
+    private final ResultsTable table;
+    private final RankingIndex ranking;
+    private final Map<String, DeptSummary> deptSummaries;
+
+    Evaluation(long version, ResultsTable table, Map<String, DeptSummary> deptSummaries) {
+        this.version = version;
+        this.table = table;
+        this.ranking = new RankingIndex(table);
+        this.deptSummaries = Collections.unmodifiableMap(deptSummaries);
+    }
+
+    /** Increases with every publication; 0 for the empty evaluation the service starts with. */
+    public long version() { return version; }
+
+    public int size() { return table.size(); }
+    public boolean isEmpty() { return table.isEmpty(); }
+
+    /** The results; must not be written to. */
+    public ResultsTable table() { return table; }
+    public RankingIndex ranking() { return ranking; }
+    public Map<String, DeptSummary> deptSummaries() { return deptSummaries; }
+
+    /** Result of the employee with {@code id}, or {@code null} if it was not evaluated. */
+    public EvaluationResult byId(String id) {
+        int i = table.indexOf(id);
+        return i < 0 ? null : table.get(i);
+    }
+
+    /** Results of the department, best first; empty for an unknown department. */
+    public List<EvaluationResult> byDept(String dept) {
+        return ranking.topNInDept(dept, Integer.MAX_VALUE);
+    }
+
+    public List<EvaluationResult> topN(int n) {
+        return ranking.topN(n);
+    }
+
+    /** Summary of the department, or {@code null} if it had no evaluated employees. */
+    public DeptSummary deptSummary(String dept) {
+        return deptSummaries.get(dept);
+    }
+}
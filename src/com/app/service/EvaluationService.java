@@ -0,0 +1,76 @@
+package com.app.service;
+
+import com.app.evaluator.EvaluationMetrics;
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.ParallelEvaluator;
+import com.app.evaluator.RatingBands;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiStore;
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptSummary;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embeddable query front for the engine. Queries read the current {@link Evaluation} with one
+ * volatile load and never block. A new evaluation is computed on the side, on the caller's
+ * thread, and published by replacing that reference, so readers see either the previous result
+ * set or the new one in full, never a mix. Publications are serialized.
+ *
+ * <p>Callers that run several queries against one result set should take {@link #current()}
+ * once and query that.
+ */
+public class EvaluationService {
+
+    private static final Timer RANKING = EvaluationMetrics.phase("ranking");
+    private static final Counter PUBLISHED = Metrics.counter("engine_evaluations_published_total");
+
+    private final WeightingPolicy policy;
+    private final RatingBands bands;
+    private final int threads;
+    private volatile Evaluation current = Evaluation.EMPTY;
+
+    public EvaluationService(WeightingPolicy policy, RatingBands bands, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.policy = policy;
+        this.bands = bands;
+        this.threads = threads;
+    }
+
+    /** The latest published evaluation; empty until the first one. */
+    public Evaluation current() { return current; }
+
+    public EvaluationResult byId(String id) { return current.byId(id); }
+    public List<EvaluationResult> byDept(String dept) { return current.byDept(dept); }
+    public List<EvaluationResult> topN(int n) { return current.topN(n); }
+    public DeptSummary deptSummary(String dept) { return current.deptSummary(dept); }
+
+    /** Evaluates {@code employees} from {@code kpiStore} and publishes the result. */
+    public Evaluation evaluate(Collection<Employee> employees, KpiStore kpiStore) {
+        ResultsTable results = new ResultsTable(employees);
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        new ParallelEvaluator(policy, bands, kpiStore, threads).evaluate(results, summaries);
+        return publish(results, summaries);
+    }
+
+    /**
+     * Ranks a completed result set and makes it current. The caller hands both over: neither
+     * may be modified afterwards.
+     */
+    public synchronized Evaluation publish(ResultsTable results, Map<String, DeptSummary> deptSummaries) {
+        long t = Metrics.start();
+        Evaluation next = new Evaluation(current.version() + 1, results, deptSummaries);
+        RANKING.stop(t);
+
+        current = next;
+        PUBLISHED.increment();
+        return next;
+    }
+}
@@ -0,0 +1,530 @@
+package com.app.snapshot;
+
+import com.app.evaluator.Rating;
+import com.app.evaluator.ResultsTable;
+import com.app.inputs.Employee;
+import com.app.inputs.KpiHistory;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.SymbolTable;
+import com.app.summary.DeptSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary image of the loaded and evaluated state. Dept, level, metric, period and
+ * rating strings go through one dictionary and ids through another; everything else is primitive
+ * columns. Int columns are packed to 1, 2 or 4 bytes by range, or to just a start value when
+ * they count up by one as id columns usually do. Double columns holding short decimals (KPI
+ * values and weights) are stored as scaled ints when that round-trips exactly. Maps are written and read back in iteration order, so reloaded {@code HashMap}s
+ * iterate exactly as the saved ones did; results keep their table ordinals, so they rank and
+ * export the same way too.
+ *
+ * <p>Layout, big-endian: magic, version, dictionary, ids, then the employee, KPI, evaluation,
+ * summary and KPI history sections, each a count followed by its columns, and the magic again.
+ * The history section holds one block of aggregate columns per period, oldest first.
+ */
+public class EngineSnapshot {
+
+    private static final int MAGIC = 0x5045534E; // "PESN"
+    private static final int VERSION = 2;
+
+    private static final int BONUS = 1;
+    private static final int PROMO = 2;
+
+    private final Map<String, Employee> employees;
+    private final Map<String, List<KpiRecord>> kpiByEmployee;
+    private final KpiHistory history;
+    private final ResultsTable results;
+    private final Map<String, DeptSummary> deptSummaries;
+
+    /** {@code results} is only read by {@link #save}; {@link #load} returns the restored table. */
+    public EngineSnapshot(Map<String, Employee> employees,
+                          Map<String, List<KpiRecord>> kpiByEmployee,
+                          KpiHistory history,
+                          ResultsTable results,
+                          Map<String, DeptSummary> deptSummaries) {
+        this.employees = employees;
+        this.kpiByEmployee = kpiByEmployee;
+        this.history = history;
+        this.results = results;
+        this.deptSummaries = deptSummaries;
+    }
+
+    /** Writes the maps, history and results to {@code file}, replacing it atomically. Returns the file size. */
+    public long save(Path file) throws IOException {
+        Dictionary dict = new Dictionary();
+        Dictionary ids = new Dictionary();
+
+        int ne = employees.size();
+        int[] empId = new int[ne], empDept = new int[ne], empLevel = new int[ne];
+        int i = 0;
+        for (var entry : employees.entrySet()) {
+            empId[i] = ids.code(entry.getKey());
+            empDept[i] = dict.code(entry.getValue().getDept());
+            empLevel[i] = dict.code(entry.getValue().getLevel());
+            i++;
+        }
+
+        int groups = kpiByEmployee.size();
+        int rows = 0;
+        for (List<KpiRecord> list : kpiByEmployee.values()) rows += list.size();
+        int[] kpiId = new int[groups], kpiCount = new int[groups], metric = new int[rows], period = new int[rows];
+        double[] value = new double[rows], weight = new double[rows];
+        i = 0;
+        int r = 0;
+        for (var entry : kpiByEmployee.entrySet()) {
+            kpiId[i] = ids.code(entry.getKey());
+            kpiCount[i++] = entry.getValue().size();
+            for (KpiRecord k : entry.getValue()) {
+                metric[r] = dict.code(k.getMetric());
+                period[r] = k.getPeriodCode() < 0 ? -1 : dict.code(k.getPeriod());
+                value[r] = k.getValue();
+                weight[r++] = k.getWeight();
+            }
+        }
+
+        int nr = results.size();
+        int[] resId = new int[nr], resDept = new int[nr], resLevel = new int[nr];
+        int[] rating = new int[nr], flags = new int[nr];
+        double[] raw = new double[nr], norm = new double[nr];
+        for (i = 0; i < nr; i++) {
+            Employee e = results.employee(i);
+            resId[i] = ids.code(e.getId());
+            resDept[i] = dict.code(e.getDept());
+            resLevel[i] = dict.code(e.getLevel());
+            raw[i] = results.rawScore(i);
+            norm[i] = results.normalizedScore(i);
+            rating[i] = dict.code(results.rating(i).label());
+            flags[i] = (results.isBonusEligible(i) ? BONUS : 0) | (results.isPromotionCandidate(i) ? PROMO : 0);
+        }
+
+        int ns = deptSummaries.size();
+        int[] sumDept = new int[ns], sumCount = new int[ns], sumBonus = new int[ns];
+        int[] sumPromo = new int[ns], sumTop = new int[ns];
+        double[] avgRaw = new double[ns], avgNorm = new double[ns];
+        i = 0;
+        for (DeptSummary s : deptSummaries.values()) {
+            sumDept[i] = dict.code(s.getDept());
+            avgRaw[i] = s.getAvgRawScore();
+            avgNorm[i] = s.getAvgNormScore();
+            sumCount[i] = s.getEmployeeCount();
+            sumBonus[i] = s.getBonusCount();
+            sumPromo[i] = s.getPromoCount();
+            sumTop[i++] = ids.code(s.getTopPerformerId());
+        }
+
+        List<KpiHistory.PeriodColumns> periods = history.export();
+        int[] periodName = new int[periods.size()];
+        int[][] periodIds = new int[periods.size()][];
+        for (i = 0; i < periodName.length; i++) {
+            KpiHistory.PeriodColumns p = periods.get(i);
+            periodName[i] = dict.code(p.period());
+            periodIds[i] = new int[p.ids().length];
+            for (int e = 0; e < periodIds[i].length; e++) periodIds[i][e] = ids.code(p.ids()[e]);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Out out = new Out(tmp)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putStrings(dict.names);
+            out.putStrings(ids.names);
+
+            out.putInt(ne);
+            out.putInts(empId);
+            out.putInts(empDept);
+            out.putInts(empLevel);
+
+            out.putInt(groups);
+            out.putInt(rows);
+            out.putInts(kpiId);
+            out.putInts(kpiCount);
+            out.putInts(metric);
+            out.putInts(period);
+            out.putDoubles(value);
+            out.putDoubles(weight);
+
+            out.putInt(nr);
+            out.putInts(resId);
+            out.putInts(resDept);
+            out.putInts(resLevel);
+            out.putDoubles(raw);
+            out.putDoubles(norm);
+            out.putInts(rating);
+            out.putInts(flags);
+
+            out.putInt(ns);
+            out.putInts(sumDept);
+            out.putDoubles(avgRaw);
+            out.putDoubles(avgNorm);
+            out.putInts(sumCount);
+            out.putInts(sumBonus);
+            out.putInts(sumPromo);
+            out.putInts(sumTop);
+
+            out.putInt(periodName.length);
+            out.putInts(periodName);
+            for (i = 0; i < periodName.length; i++) {
+                KpiHistory.PeriodColumns p = periods.get(i);
+                out.putInt(periodIds[i].length);
+                out.putInts(periodIds[i]);
+                out.putInts(p.counts());
+                out.putDoubles(p.mean());
+                out.putDoubles(p.m2());
+                out.putDoubles(p.weightedDeviation());
+                out.putDoubles(p.sumWeight());
+                out.putDoubles(p.sumWeightedValue());
+            }
+
+            out.putInt(MAGIC);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    /**
+     * Reads {@code file} into the maps and history, which the caller is expected to have
+     * cleared, and returns the restored results.
+     */
+    public ResultsTable load(Path file) throws IOException {
+        ResultsTable restored;
+        try (In in = new In(file)) {
+            if (in.getInt() != MAGIC) throw new IOException("Not a snapshot file: " + file);
+            int version = in.getInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+            String[] dict = in.getStrings();
+            String[] ids = in.getStrings();
+
+            int ne = in.getInt();
+            int[] empId = in.getInts(ne), empDept = in.getInts(ne), empLevel = in.getInts(ne);
+            for (int i = 0; i < ne; i++) {
+                String id = ids[empId[i]];
+                employees.put(id, new Employee(id, dict[empDept[i]], dict[empLevel[i]]));
+            }
+
+            int groups = in.getInt();
+            int rows = in.getInt();
+            int[] kpiId = in.getInts(groups), kpiCount = in.getInts(groups);
+            int[] metric = in.getInts(rows), period = in.getInts(rows);
+            double[] value = in.getDoubles(rows), weight = in.getDoubles(rows);
+            int[] metricCode = symbols(SymbolTable.METRICS, dict, metric);
+            int[] periodCode = symbols(SymbolTable.PERIODS, dict, period);
+            for (int g = 0, r = 0; g < groups; g++) {
+                String id = ids[kpiId[g]];
+                List<KpiRecord> list = new ArrayList<>(kpiCount[g]);
+                for (int end = r + kpiCount[g]; r < end; r++) {
+                    list.add(new KpiRecord(id, metricCode[metric[r]], value[r], weight[r],
+                            period[r] < 0 ? -1 : periodCode[period[r]]));
+                }
+                kpiByEmployee.put(id, list);
+            }
+
+            int nr = in.getInt();
+            int[] resId = in.getInts(nr), resDept = in.getInts(nr), resLevel = in.getInts(nr);
+            double[] raw = in.getDoubles(nr), norm = in.getDoubles(nr);
+            int[] rating = in.getInts(nr), flags = in.getInts(nr);
+            Employee[] evaluated = new Employee[nr];
+            for (int i = 0; i < nr; i++) {
+                String id = ids[resId[i]];
+                String dept = dict[resDept[i]];
+                String level = dict[resLevel[i]];
+                // Share the Employee with the employees map unless it changed after evaluation.
+                Employee e = employees.get(id);
+                if (e == null || !e.getDept().equals(dept) || !e.getLevel().equals(level)) {
+                    e = new Employee(id, dept, level);
+                }
+                evaluated[i] = e;
+            }
+            restored = new ResultsTable(evaluated);
+            Rating[] ratingByCode = new Rating[dict.length];
+            for (int i = 0; i < nr; i++) {
+                int code = rating[i];
+                if (ratingByCode[code] == null) ratingByCode[code] = Rating.fromLabel(dict[code]);
+                restored.set(i, raw[i], norm[i], ratingByCode[code],
+                        (flags[i] & BONUS) != 0, (flags[i] & PROMO) != 0);
+            }
+
+            int ns = in.getInt();
+            int[] sumDept = in.getInts(ns);
+            double[] avgRaw = in.getDoubles(ns), avgNorm = in.getDoubles(ns);
+            int[] sumCount = in.getInts(ns), sumBonus = in.getInts(ns);
+            int[] sumPromo = in.getInts(ns), sumTop = in.getInts(ns);
+            for (int i = 0; i < ns; i++) {
+                String dept = dict[sumDept[i]];
+                deptSummaries.put(dept, new DeptSummary(dept, avgRaw[i], avgNorm[i],
+                        sumCount[i], sumBonus[i], sumPromo[i], ids[sumTop[i]]));
+            }
+
+            int np = in.getInt();
+            int[] periodName = in.getInts(np);
+            for (int p = 0; p < np; p++) {
+                int n = in.getInt();
+                int[] periodIds = in.getInts(n);
+                String[] entryIds = new String[n];
+                for (int e = 0; e < n; e++) entryIds[e] = ids[periodIds[e]];
+                int[] counts = in.getInts(n);
+                double[] mean = in.getDoubles(n), m2 = in.getDoubles(n), deviation = in.getDoubles(n);
+                double[] sumWeight = in.getDoubles(n), sumWeightedValue = in.getDoubles(n);
+                history.restore(new KpiHistory.PeriodColumns(dict[periodName[p]], entryIds, counts, mean, m2,
+                        deviation, sumWeight, sumWeightedValue));
+            }
+
+            if (in.getInt() != MAGIC) throw new IOException("Corrupt snapshot trailer: " + file);
+        }
+        return restored;
+    }
+
+    // Symbol table code of each dictionary entry that {@code used} refers to; negative entries are skipped.
+    private static int[] symbols(SymbolTable table, String[] dict, int[] used) {
+        int[] codes = new int[dict.length];
+        Arrays.fill(codes, -1);
+        for (int c : used) {
+            if (c >= 0 && codes[c] < 0) codes[c] = table.intern(dict[c]);
+        }
+        return codes;
+    }
+
+    private static final class Dictionary {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String s) {
+            Integer code = codes.get(s);
+            if (code == null) {
+                code = names.size();
+                names.add(s);
+                codes.put(s, code);
+            }
+            return code;
+        }
+    }
+
+    // Column encodings; ints carry their width, doubles a scale (or RAW).
+    private static final int RAW = -1;
+    private static final int MAX_SCALE = 6;
+    private static final double[] POW10 = { 1, 10, 100, 1e3, 1e4, 1e5, 1e6 };
+
+    private static final class Out implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocate(1 << 20);
+
+        Out(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        void putInts(int[] a) throws IOException {
+            int min = 0, max = 0;
+            if (a.length > 0) {
+                min = max = a[0];
+                for (int v : a) {
+                    if (v < min) min = v;
+                    if (v > max) max = v;
+                }
+            }
+            long range = (long) max - min;
+            int width = isSequence(a) ? 0 : range < 1 << 8 ? 1 : range < 1 << 16 ? 2 : 4;
+            if (width == 0) min = a[0];
+            if (width == 4) min = 0;
+
+            ensure(5);
+            buf.put((byte) width);
+            buf.putInt(min);
+            if (width == 0) return;
+            for (int v : a) {
+                ensure(width);
+                switch (width) {
+                    case 1 -> buf.put((byte) (v - min));
+                    case 2 -> buf.putShort((short) (v - min));
+                    default -> buf.putInt(v);
+                }
+            }
+        }
+
+        // Id columns usually follow the dictionary order exactly; those are stored as a start value.
+        private static boolean isSequence(int[] a) {
+            for (int i = 1; i < a.length; i++) {
+                if (a[i] != a[0] + i) return false;
+            }
+            return a.length > 1;
+        }
+
+        void putDoubles(double[] a) throws IOException {
+            int scale = decimalScale(a);
+            putInt(scale);
+            if (scale == RAW) {
+                for (double v : a) {
+                    ensure(8);
+                    buf.putDouble(v);
+                }
+                return;
+            }
+            int[] units = new int[a.length];
+            for (int i = 0; i < a.length; i++) units[i] = (int) Math.round(a[i] * POW10[scale]);
+            putInts(units);
+        }
+
+        // Smallest scale s at which every value is exactly units / 10^s, or RAW.
+        private static int decimalScale(double[] a) {
+            scales:
+            for (int s = 0; s <= MAX_SCALE; s++) {
+                double p = POW10[s];
+                for (double v : a) {
+                    double scaled = v * p;
+                    if (!(Math.abs(scaled) <= Integer.MAX_VALUE)) continue scales;
+                    if (Double.compare(Math.round(scaled) / p, v) != 0) continue scales;
+                }
+                return s;
+            }
+            return RAW;
+        }
+
+        void putStrings(List<String> strings) throws IOException {
+            byte[][] bytes = new byte[strings.size()][];
+            int[] lengths = new int[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                lengths[i] = bytes[i].length;
+            }
+            putInt(bytes.length);
+            putInts(lengths);
+            for (byte[] b : bytes) {
+                for (int off = 0; off < b.length; ) {
+                    ensure(1);
+                    int n = Math.min(buf.remaining(), b.length - off);
+                    buf.put(b, off, n);
+                    off += n;
+                }
+            }
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() < n) flush();
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /** Reads through read-only mappings of at most {@link #WINDOW} bytes, remapped as it advances. */
+    private static final class In implements Closeable {
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer buf;
+        private long base;
+
+        In(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            size = channel.size();
+        }
+
+        int getInt() throws IOException {
+            require(4);
+            return buf.getInt();
+        }
+
+        int[] getInts(int n) throws IOException {
+            require(5);
+            int width = buf.get();
+            int min = buf.getInt();
+            require((long) n * width);
+
+            int[] a = new int[n];
+            switch (width) {
+                case 0 -> { for (int i = 0; i < n; i++) a[i] = min + i; }
+                case 1 -> { for (int i = 0; i < n; i++) a[i] = min + (buf.get() & 0xFF); }
+                case 2 -> { for (int i = 0; i < n; i++) a[i] = min + (buf.getShort() & 0xFFFF); }
+                case 4 -> {
+                    buf.asIntBuffer().get(a);
+                    buf.position(buf.position() + 4 * n);
+                }
+                default -> throw new IOException("Bad column width " + width);
+            }
+            return a;
+        }
+
+        double[] getDoubles(int n) throws IOException {
+            int scale = getInt();
+            if (scale == RAW) {
+                require(8L * n);
+                double[] a = new double[n];
+                buf.asDoubleBuffer().get(a);
+                buf.position(buf.position() + 8 * n);
+                return a;
+            }
+            if (scale < 0 || scale > MAX_SCALE) throw new IOException("Bad column scale " + scale);
+
+            int[] units = getInts(n);
+            double p = POW10[scale];
+            double[] a = new double[n];
+            for (int i = 0; i < n; i++) a[i] = units[i] / p;
+            return a;
+        }
+
+        String[] getStrings() throws IOException {
+            int n = getInt();
+            int[] lengths = getInts(n);
+            long total = 0;
+            for (int len : lengths) total += len;
+            require(total);
+
+            String[] out = new String[n];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < n; i++) {
+                if (lengths[i] > scratch.length) scratch = new byte[lengths[i]];
+                buf.get(scratch, 0, lengths[i]);
+                out[i] = new String(scratch, 0, lengths[i], StandardCharsets.UTF_8);
+            }
+            return out;
+        }
+
+        private void require(long n) throws IOException {
+            if (buf != null && buf.remaining() >= n) return;
+            long pos = buf == null ? 0 : base + buf.position();
+            long len = Math.min(size - pos, Math.max(n, WINDOW));
+            if (len < n) throw new IOException("Truncated snapshot");
+            if (len > Integer.MAX_VALUE) throw new IOException("Snapshot column too large to map");
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            base = pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
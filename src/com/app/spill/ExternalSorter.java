@@ -0,0 +1,235 @@
+package com.app.spill;
+
+import com.app.metrics.Counter;
+import com.app.metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more records than fit on the heap. Records are buffered up to {@code runLength}; each
+ * full buffer is sorted and written to a run file, and iteration merges the runs. When no run
+ * was written the buffer is sorted in place and never touches disk. Orders must be total, so
+ * the result does not depend on how records fell into runs.
+ *
+ * <p>Call {@link #finish()} once all records are added; the sorter can then be iterated any
+ * number of times, each iteration opening its own run readers and closing them when exhausted.
+ */
+final class ExternalSorter<T> implements Iterable<T>, Closeable {
+
+    interface Codec<T> {
+        void write(DataOutputStream out, T record) throws IOException;
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static final Counter RUNS = Metrics.counter("engine_spill_runs_total");
+    private static final Counter BYTES = Metrics.counter("engine_spill_bytes_total");
+
+    // Runs merged at once; more runs are first merged down in passes.
+    private static final int MAX_FAN_IN = 64;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final Codec<T> codec;
+    private final Comparator<? super T> order;
+    private final int runLength;
+    private final Path dir;
+    private final String name;
+    private final List<Run> runs = new ArrayList<>();
+
+    private Object[] buffer = new Object[1024];
+    private int size;
+    private long count;
+    private boolean finished;
+
+    ExternalSorter(Codec<T> codec, Comparator<? super T> order, int runLength, Path dir, String name) {
+        if (runLength < 1) throw new IllegalArgumentException("runLength must be >= 1");
+        this.codec = codec;
+        this.order = order;
+        this.runLength = runLength;
+        this.dir = dir;
+        this.name = name;
+    }
+
+    void add(T record) throws IOException {
+        if (finished) throw new IllegalStateException("Sorter " + name + " is finished");
+        if (size == runLength) spill();
+        if (size == buffer.length) buffer = Arrays.copyOf(buffer, (int) Math.min(runLength, size * 2L));
+        buffer[size++] = record;
+        count++;
+    }
+
+    /** Ends input. With runs on disk the remainder is spilled too and runs are merged down to one pass. */
+    void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        if (runs.isEmpty()) {
+            sortBuffer();
+            return;
+        }
+        if (size > 0) spill();
+        buffer = null;
+        while (runs.size() > MAX_FAN_IN) mergeRuns();
+    }
+
+    long count() { return count; }
+    int runCount() { return runs.size(); }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        if (!finished) throw new IllegalStateException("Sorter " + name + " is not finished");
+        if (runs.isEmpty()) {
+            return new Iterator<>() {
+                private int next;
+                @Override public boolean hasNext() { return next < size; }
+                @Override public T next() {
+                    if (next >= size) throw new NoSuchElementException();
+                    return (T) buffer[next++];
+                }
+            };
+        }
+        try {
+            return new Merge(runs);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        size = 0;
+        for (Run run : runs) Files.deleteIfExists(run.file);
+        runs.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sortBuffer() {
+        Arrays.sort((T[]) buffer, 0, size, order);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void spill() throws IOException {
+        sortBuffer();
+        Path file = Files.createTempFile(dir, name + "-", ".run");
+        try (DataOutputStream out = open(file)) {
+            for (int i = 0; i < size; i++) {
+                codec.write(out, (T) buffer[i]);
+                buffer[i] = null;
+            }
+        }
+        runs.add(new Run(file, size));
+        RUNS.increment();
+        BYTES.add(Files.size(file));
+        size = 0;
+    }
+
+    private void mergeRuns() throws IOException {
+        List<Run> batch = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+        Path file = Files.createTempFile(dir, name + "-", ".run");
+        long records = 0;
+        Merge merge = new Merge(batch);
+        try (DataOutputStream out = open(file)) {
+            while (merge.hasNext()) {
+                codec.write(out, merge.next());
+                records++;
+            }
+        } finally {
+            merge.close();
+        }
+        for (Run run : batch) Files.delete(run.file);
+        runs.subList(0, MAX_FAN_IN).clear();
+        runs.add(new Run(file, records));
+        RUNS.increment();
+        BYTES.add(Files.size(file));
+    }
+
+    private static DataOutputStream open(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER));
+    }
+
+    private record Run(Path file, long records) {}
+
+    /** K-way merge of runs; ties go to the earlier run. */
+    private final class Merge implements Iterator<T> {
+        private final List<Run> runs;
+        private final DataInputStream[] in;
+        private final long[] left;
+        private final PriorityQueue<Head<T>> heads;
+
+        Merge(List<Run> runs) throws IOException {
+            this.runs = runs;
+            this.in = new DataInputStream[runs.size()];
+            this.left = new long[runs.size()];
+            this.heads = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+                int c = order.compare(a.record, b.record);
+                return c != 0 ? c : Integer.compare(a.run, b.run);
+            });
+            try {
+                for (int r = 0; r < in.length; r++) {
+                    in[r] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(r).file()), IO_BUFFER));
+                    left[r] = runs.get(r).records();
+                    advance(r);
+                }
+            } catch (IOException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        @Override
+        public boolean hasNext() { return !heads.isEmpty(); }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) throw new NoSuchElementException();
+            try {
+                advance(head.run);
+                if (heads.isEmpty()) close();
+            } catch (IOException ex) {
+                close();
+                throw new UncheckedIOException(ex);
+            }
+            return head.record;
+        }
+
+        private void advance(int r) throws IOException {
+            if (left[r] == 0) {
+                in[r].close();
+                in[r] = null;
+                return;
+            }
+            left[r]--;
+            heads.add(new Head<>(codec.read(in[r]), r));
+        }
+
+        void close() {
+            for (int r = 0; r < in.length; r++) {
+                if (in[r] == null) continue;
+                try {
+                    in[r].close();
+                } catch (IOException ignored) {
+                    // Reading is over; a failed close does not change what was read.
+                }
+                in[r] = null;
+            }
+        }
+    }
+
+    private record Head<T>(T record, int run) {}
+}
@@ -0,0 +1,309 @@
+package com.app.spill;
+
+import com.app.evaluator.DepartmentEvaluator;
+import com.app.evaluator.EvaluationMetrics;
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.Evaluator;
+import com.app.evaluator.RatingBands;
+import com.app.exception.MissingKpiException;
+import com.app.inputs.Employee;
+import com.app.inputs.EmployeeCsvLoader;
+import com.app.inputs.KpiCsvLoader;
+import com.app.inputs.SymbolTable;
+import com.app.metrics.Metrics;
+import com.app.metrics.Timer;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.DeptSummaryBuilder;
+import com.app.summary.RunningStats;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Evaluates employee and KPI files too large to hold on the heap, as a sequence of external
+ * sorts. Rows are spilled sorted by employee id and merge-joined into raw scores; the scores
+ * are re-sorted by department, which gives each department's {@link DeptStats} in one pass and
+ * its results in a second; results are finally sorted into the orders the reports need. Only
+ * the sort buffers and per-department totals are held, so memory is bounded by
+ * {@code heapBudget} whatever the population.
+ *
+ * <p>Results, ranks and summaries are identical to the in-memory evaluation in {@code Main}:
+ * every record carries the row number of its employee's first occurrence in the employees
+ * file, which is the in-memory result order, and every sort breaks ties on it.
+ */
+public class OutOfCoreEvaluator {
+
+    private static final Timer SPILL_INPUTS = EvaluationMetrics.phase("spill_inputs");
+    private static final Timer JOIN = EvaluationMetrics.phase("spill_join");
+
+    // At most this many sorters hold buffers at once: the scores and the three result orders.
+    private static final int LIVE_SORTERS = 4;
+    private static final int MIN_RUN_LENGTH = 1024;
+
+    // Rough heap cost of one buffered record with a short id, used to size runs.
+    private static final int EMPLOYEE_ROW_BYTES = 96;
+    private static final int KPI_ROW_BYTES = 96;
+    private static final int SCORED_BYTES = 104;
+    private static final int RESULT_BYTES = 160;
+
+    private final WeightingPolicy policy;
+    private final RatingBands bands;
+    private final long heapBudget;
+    private final Path spillDir;
+
+    public OutOfCoreEvaluator(WeightingPolicy policy, RatingBands bands, long heapBudget, Path spillDir) {
+        if (heapBudget <= 0) throw new IllegalArgumentException("heapBudget must be > 0");
+        this.policy = policy;
+        this.bands = bands;
+        this.heapBudget = heapBudget;
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * Evaluates every employee in {@code employeesFile} from the rows of {@code kpiFile}. The
+     * returned evaluation owns the remaining run files until it is closed.
+     */
+    public SpilledEvaluation evaluate(Path employeesFile, Path kpiFile) throws IOException {
+        Path dir = Files.createTempDirectory(spillDir, "evaluation-");
+        SpilledEvaluation evaluation = new SpilledEvaluation(dir);
+        try {
+            ExternalSorter<Scored> scored = evaluation.track(
+                    sorter(Scored.CODEC, Scored.BY_DEPT, SCORED_BYTES, dir, "scored"));
+            join(employeesFile, kpiFile, dir, scored);
+            scored.finish();
+
+            DeptStats[] statsByDept = deptStats(scored);
+            evaluateAll(scored, statsByDept, evaluation);
+            evaluation.release(scored);
+            return evaluation;
+        } catch (UncheckedIOException ex) {
+            evaluation.close();
+            throw ex.getCause();
+        } catch (IOException | RuntimeException | Error ex) {
+            evaluation.close();
+            throw ex;
+        }
+    }
+
+    private <T> ExternalSorter<T> sorter(ExternalSorter.Codec<T> codec, Comparator<? super T> order,
+                                         int recordBytes, Path dir, String name) {
+        long perSorter = heapBudget / LIVE_SORTERS;
+        int runLength = (int) Math.max(MIN_RUN_LENGTH, Math.min(Integer.MAX_VALUE - 8, perSorter / recordBytes));
+        return new ExternalSorter<>(codec, order, runLength, dir, name);
+    }
+
+    // Sorts both files by employee id and scores each employee from its KPI rows.
+    private void join(Path employeesFile, Path kpiFile, Path dir, ExternalSorter<Scored> into) throws IOException {
+        try (ExternalSorter<EmployeeRow> employees = sorter(EmployeeRow.CODEC, EmployeeRow.BY_ID,
+                     EMPLOYEE_ROW_BYTES, dir, "employees");
+             ExternalSorter<KpiRow> kpis = sorter(KpiRow.CODEC, KpiRow.BY_ID, KPI_ROW_BYTES, dir, "kpis")) {
+
+            long t = Metrics.start();
+            long[] seq = new long[1];
+            new EmployeeCsvLoader(e -> add(employees, new EmployeeRow(seq[0]++, e))).load(employeesFile);
+            seq[0] = 0;
+            new KpiCsvLoader(k -> add(kpis, new KpiRow(seq[0]++, k.getid(), k.getMetricCode(), k.getValue(), k.getWeight())))
+                    .load(kpiFile);
+            employees.finish();
+            kpis.finish();
+            SPILL_INPUTS.stop(t);
+            if (employees.count() == 0) throw new IllegalStateException("No employees loaded.");
+
+            t = Metrics.start();
+            Iterator<EmployeeRow> emp = employees.iterator();
+            Iterator<KpiRow> kpi = kpis.iterator();
+            KpiRow pending = kpi.hasNext() ? kpi.next() : null;
+            int[] metrics = new int[64];
+            double[] values = new double[64];
+            double[] weights = new double[64];
+            EmployeeRow missing = null;
+
+            EmployeeRow next = emp.next();
+            while (next != null) {
+                // Rows of a repeated id: the first gives the position, the last the department and level.
+                EmployeeRow first = next;
+                EmployeeRow last = next;
+                next = null;
+                while (emp.hasNext()) {
+                    EmployeeRow r = emp.next();
+                    if (!r.id.equals(first.id)) {
+                        next = r;
+                        break;
+                    }
+                    last = r;
+                }
+
+                // KPI rows of employees not in the employees file are not evaluated.
+                while (pending != null && pending.id.compareTo(first.id) < 0) {
+                    pending = kpi.hasNext() ? kpi.next() : null;
+                }
+                int n = 0;
+                while (pending != null && pending.id.equals(first.id)) {
+                    if (n == values.length) {
+                        metrics = Arrays.copyOf(metrics, n * 2);
+                        values = Arrays.copyOf(values, n * 2);
+                        weights = Arrays.copyOf(weights, n * 2);
+                    }
+                    metrics[n] = pending.metricCode;
+                    values[n] = pending.value;
+                    weights[n] = pending.weight;
+                    n++;
+                    pending = kpi.hasNext() ? kpi.next() : null;
+                }
+
+                if (n == 0) {
+                    // Reported as the in-memory path would: the first such employee in result order.
+                    if (missing == null || first.seq < missing.seq) missing = first;
+                    continue;
+                }
+                if (missing == null) {
+                    into.add(new Scored(first.seq, first.id, last.deptCode, last.levelCode,
+                            policy.forDepartment(last.deptCode).computeScore(metrics, values, weights, 0, n)));
+                }
+            }
+            if (missing != null) throw new MissingKpiException("Missing KPI records for " + missing.id);
+            JOIN.stop(t);
+        }
+    }
+
+    // Listener callbacks cannot throw IOException; evaluate() unwraps it again.
+    private static <T> void add(ExternalSorter<T> sorter, T record) {
+        try {
+            sorter.add(record);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Per-department raw score stats, accumulated in result order as the in-memory paths do.
+    private static DeptStats[] deptStats(ExternalSorter<Scored> scored) {
+        long t = Metrics.start();
+        RunningStats[] rawByDept = new RunningStats[SymbolTable.DEPARTMENTS.size()];
+        for (Scored s : scored) {
+            if (rawByDept[s.deptCode] == null) rawByDept[s.deptCode] = new RunningStats();
+            rawByDept[s.deptCode].add(s.raw);
+        }
+        DeptStats[] statsByDept = new DeptStats[rawByDept.length];
+        for (int code = 0; code < rawByDept.length; code++) {
+            if (rawByDept[code] != null) statsByDept[code] = rawByDept[code].toDeptStats();
+        }
+        EvaluationMetrics.DEPT_STATS.stop(t);
+        return statsByDept;
+    }
+
+    private void evaluateAll(ExternalSorter<Scored> scored, DeptStats[] statsByDept, SpilledEvaluation into)
+            throws IOException {
+        Path dir = into.dir();
+        ExternalSorter<SpilledResult> inOrder = into.track(
+                sorter(SpilledResult.CODEC, SpilledResult.BY_SEQ, RESULT_BYTES, dir, "ratings"));
+        ExternalSorter<SpilledResult> bestFirst = into.track(
+                sorter(SpilledResult.CODEC, SpilledResult.BEST_FIRST, RESULT_BYTES, dir, "best"));
+        ExternalSorter<SpilledResult> worstFirst = into.track(
+                sorter(SpilledResult.CODEC, SpilledResult.WORST_FIRST, RESULT_BYTES, dir, "worst"));
+
+        long t = Metrics.start();
+        Evaluator evaluator = new DepartmentEvaluator(policy, bands, statsByDept);
+        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+        for (Scored s : scored) {
+            EvaluationResult r = evaluator.evaluate(new Employee(s.id, s.deptCode, s.levelCode), s.raw);
+            SpilledResult spilled = new SpilledResult(s.seq, r);
+            inOrder.add(spilled);
+            if (r.isBonusEligible() || r.isPromotionCandidate()) bestFirst.add(spilled);
+            if (r.getRating().isPoor()) worstFirst.add(spilled);
+
+            builder.add(r);
+        }
+        EvaluationMetrics.EVALUATE.stop(t);
+
+        t = Metrics.start();
+        inOrder.finish();
+        bestFirst.finish();
+        worstFirst.finish();
+        into.results(inOrder, bestFirst, worstFirst, builder.build());
+        EvaluationMetrics.SUMMARY.stop(t);
+    }
+
+    private record EmployeeRow(long seq, String id, int deptCode, int levelCode) {
+
+        static final Comparator<EmployeeRow> BY_ID = (a, b) -> {
+            int c = a.id.compareTo(b.id);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        };
+
+        static final ExternalSorter.Codec<EmployeeRow> CODEC = new ExternalSorter.Codec<>() {
+            @Override
+            public void write(DataOutputStream out, EmployeeRow r) throws IOException {
+                out.writeLong(r.seq);
+                out.writeUTF(r.id);
+                out.writeInt(r.deptCode);
+                out.writeInt(r.levelCode);
+            }
+
+            @Override
+            public EmployeeRow read(DataInputStream in) throws IOException {
+                return new EmployeeRow(in.readLong(), in.readUTF(), in.readInt(), in.readInt());
+            }
+        };
+
+        EmployeeRow(long seq, Employee e) {
+            this(seq, e.getId(), e.getDeptCode(), e.getLevelCode());
+        }
+    }
+
+    private record KpiRow(long seq, String id, int metricCode, double value, double weight) {
+
+        // Within an employee, file order, which is the order the in-memory store keeps.
+        static final Comparator<KpiRow> BY_ID = (a, b) -> {
+            int c = a.id.compareTo(b.id);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        };
+
+        static final ExternalSorter.Codec<KpiRow> CODEC = new ExternalSorter.Codec<>() {
+            @Override
+            public void write(DataOutputStream out, KpiRow r) throws IOException {
+                out.writeLong(r.seq);
+                out.writeUTF(r.id);
+                out.writeInt(r.metricCode);
+                out.writeDouble(r.value);
+                out.writeDouble(r.weight);
+            }
+
+            @Override
+            public KpiRow read(DataInputStream in) throws IOException {
+                return new KpiRow(in.readLong(), in.readUTF(), in.readInt(), in.readDouble(), in.readDouble());
+            }
+        };
+    }
+
+    private record Scored(long seq, String id, int deptCode, int levelCode, double raw) {
+
+        static final Comparator<Scored> BY_DEPT = (a, b) -> {
+            int c = Integer.compare(a.deptCode, b.deptCode);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        };
+
+        static final ExternalSorter.Codec<Scored> CODEC = new ExternalSorter.Codec<>() {
+            @Override
+            public void write(DataOutputStream out, Scored s) throws IOException {
+                out.writeLong(s.seq);
+                out.writeUTF(s.id);
+                out.writeInt(s.deptCode);
+                out.writeInt(s.levelCode);
+                out.writeDouble(s.raw);
+            }
+
+            @Override
+            public Scored read(DataInputStream in) throws IOException {
+                return new Scored(in.readLong(), in.readUTF(), in.readInt(), in.readInt(), in.readDouble());
+            }
+        };
+    }
+}
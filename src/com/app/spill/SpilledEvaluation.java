@@ -0,0 +1,88 @@
+package com.app.spill;
+
+import com.app.export.ReportExporter;
+import com.app.export.StreamingReportExporter;
+import com.app.summary.DeptSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of an {@link OutOfCoreEvaluator} run: department summaries on the heap, results
+ * in sorted run files under a private spill directory. {@link #exporter()} streams the results
+ * into the reports as often as needed; {@link #close()} deletes the directory.
+ */
+public final class SpilledEvaluation implements Closeable {
+
+    private final Path dir;
+    private final List<ExternalSorter<?>> sorters = new ArrayList<>();
+    private ExternalSorter<SpilledResult> inOrder;
+    private ExternalSorter<SpilledResult> bestFirst;
+    private ExternalSorter<SpilledResult> worstFirst;
+    private Map<String, DeptSummary> deptSummaries = Map.of();
+
+    SpilledEvaluation(Path dir) {
+        this.dir = dir;
+    }
+
+    Path dir() { return dir; }
+
+    <T> ExternalSorter<T> track(ExternalSorter<T> sorter) {
+        sorters.add(sorter);
+        return sorter;
+    }
+
+    void release(ExternalSorter<?> sorter) throws IOException {
+        sorters.remove(sorter);
+        sorter.close();
+    }
+
+    void results(ExternalSorter<SpilledResult> inOrder, ExternalSorter<SpilledResult> bestFirst,
+                 ExternalSorter<SpilledResult> worstFirst, Map<String, DeptSummary> deptSummaries) {
+        this.inOrder = inOrder;
+        this.bestFirst = bestFirst;
+        this.worstFirst = worstFirst;
+        this.deptSummaries = Collections.unmodifiableMap(deptSummaries);
+    }
+
+    /** Number of employees evaluated. */
+    public long size() { return inOrder == null ? 0 : inOrder.count(); }
+
+    public Map<String, DeptSummary> deptSummaries() { return deptSummaries; }
+
+    /** Run files the results are held in; 0 when they all fit in their sort buffers. */
+    public int runCount() {
+        int runs = 0;
+        for (ExternalSorter<?> s : sorters) runs += s.runCount();
+        return runs;
+    }
+
+    /** Writes the five reports, the same files {@code ExportPipeline} writes for the in-memory evaluation. */
+    public ReportExporter exporter() {
+        return exporter(Path.of(""));
+    }
+
+    /** As {@link #exporter()}, writing into {@code dir}. */
+    public ReportExporter exporter(Path dir) {
+        if (inOrder == null) throw new IllegalStateException("Evaluation is closed");
+        return new StreamingReportExporter(inOrder, bestFirst, worstFirst, deptSummaries, dir);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inOrder = bestFirst = worstFirst = null;
+        for (ExternalSorter<?> s : sorters) s.close();
+        sorters.clear();
+        if (!Files.isDirectory(dir)) return;
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.spill;
+
+import com.app.evaluator.EvaluationResult;
+import com.app.evaluator.Rating;
+import com.app.inputs.Employee;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * An evaluation result that can be written to a run file. {@code seq} is the employee's
+ * position in the in-memory result order, which the sort orders below use to break ties.
+ */
+final class SpilledResult extends EvaluationResult {
+
+    private static final Rating[] RATINGS = Rating.values();
+
+    static final Comparator<SpilledResult> BY_SEQ = (a, b) -> Long.compare(a.seq, b.seq);
+    static final Comparator<SpilledResult> BEST_FIRST = (a, b) -> {
+        int c = Double.compare(b.normalizedScore, a.normalizedScore);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    };
+    static final Comparator<SpilledResult> WORST_FIRST = (a, b) -> {
+        int c = Double.compare(a.normalizedScore, b.normalizedScore);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    };
+
+    static final ExternalSorter.Codec<SpilledResult> CODEC = new ExternalSorter.Codec<>() {
+        @Override
+        public void write(DataOutputStream out, SpilledResult r) throws IOException {
+            out.writeLong(r.seq);
+            out.writeUTF(r.employee.getId());
+            out.writeInt(r.employee.getDeptCode());
+            out.writeInt(r.employee.getLevelCode());
+            out.writeDouble(r.rawScore);
+            out.writeDouble(r.normalizedScore);
+            out.writeByte(r.rating.ordinal() | (r.bonusEligible ? 0x40 : 0) | (r.promotionCandidate ? 0x80 : 0));
+        }
+
+        @Override
+        public SpilledResult read(DataInputStream in) throws IOException {
+            long seq = in.readLong();
+            Employee e = new Employee(in.readUTF(), in.readInt(), in.readInt());
+            double raw = in.readDouble();
+            double norm = in.readDouble();
+            int flags = in.readUnsignedByte();
+            return new SpilledResult(seq, e, raw, norm, RATINGS[flags & 0x3f], (flags & 0x40) != 0, (flags & 0x80) != 0);
+        }
+    };
+
+    final long seq;
+    private final Employee employee;
+    private final double rawScore;
+    private final double normalizedScore;
+    private final Rating rating;
+    private final boolean bonusEligible;
+    private final boolean promotionCandidate;
+
+    SpilledResult(long seq, EvaluationResult r) {
+        this(seq, r.getEmployee(), r.getRawScore(), r.getNormalizedScore(), r.getRating(),
+                r.isBonusEligible(), r.isPromotionCandidate());
+    }
+
+    private SpilledResult(long seq, Employee employee, double rawScore, double normalizedScore, Rating rating,
+                          boolean bonusEligible, boolean promotionCandidate) {
+        this.seq = seq;
+        this.employee = employee;
+        this.rawScore = rawScore;
+        this.normalizedScore = normalizedScore;
+        this.rating = rating;
+        this.bonusEligible = bonusEligible;
+        this.promotionCandidate = promotionCandidate;
+    }
+
+    @Override public Employee getEmployee() { return employee; }
+    @Override public double getRawScore() { return rawScore; }
+    @Override public double getNormalizedScore() { return normalizedScore; }
+    @Override public Rating getRating() { return rating; }
+    @Override public boolean isBonusEligible() { return bonusEligible; }
+    @Override public boolean isPromotionCandidate() { return promotionCandidate; }
+}
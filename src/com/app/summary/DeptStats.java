@@ -13,6 +13,12 @@ public class DeptStats {
         this.max = max;
     }
 
+    public static DeptStats of(double[] scores, int from, int to) {
+        RunningStats stats = new RunningStats();
+        for (int i = from; i < to; i++) stats.add(scores[i]);
+        return stats.toDeptStats();
+    }
+
     public double getMean() { return mean; }
     public double getStd() { return std; }
     public double getMin() { return min; }
@@ -3,36 +3,90 @@ package com.app.summary;
 import java.util.*;
 
 import com.app.evaluator.EvaluationResult;
+import com.app.inputs.SymbolTable;
 
 public class DeptSummaryBuilder {
 
-    private final Map<String, List<EvaluationResult>> byDept = new HashMap<>();
+    // Indexed by department code; codes lists them in the order they were first added.
+    private Partial[] byDept = new Partial[0];
+    private int[] codes = new int[8];
+    private int deptCount;
 
     public void add(EvaluationResult r) {
-        String dept = r.getEmployee().getDept();
-        byDept.computeIfAbsent(dept, d -> new ArrayList<>()).add(r);
+        partial(r.getEmployee().getDeptCode()).add(r);
+    }
+
+    // Folds another builder's departments into this one; results from 'other' count as added after ours.
+    public DeptSummaryBuilder merge(DeptSummaryBuilder other) {
+        for (int i = 0; i < other.deptCount; i++) {
+            int code = other.codes[i];
+            partial(code).merge(other.byDept[code]);
+        }
+        return this;
     }
 
     public Map<String, DeptSummary> build() {
         Map<String, DeptSummary> result = new HashMap<>();
+        for (int i = 0; i < deptCount; i++) {
+            DeptSummary s = build(codes[i]);
+            result.put(s.getDept(), s);
+        }
+        return result;
+    }
 
-        for (var entry : byDept.entrySet()) {
-            String dept = entry.getKey();
-            List<EvaluationResult> list = entry.getValue();
+    /** Summary of one department, or null if none of its results were added. */
+    public DeptSummary build(int deptCode) {
+        Partial p = deptCode < byDept.length ? byDept[deptCode] : null;
+        if (p == null) return null;
 
-            double avgRaw = list.stream().mapToDouble(EvaluationResult::getRawScore).average().orElse(0.0);
-            double avgNorm = list.stream().mapToDouble(EvaluationResult::getNormalizedScore).average().orElse(0.0);
-            int count = list.size();
-            int bonus = (int) list.stream().filter(EvaluationResult::isBonusEligible).count();
-            int promo = (int) list.stream().filter(EvaluationResult::isPromotionCandidate).count();
+        return new DeptSummary(SymbolTable.DEPARTMENTS.name(deptCode), p.raw.getMean(), p.norm.getMean(),
+                (int) p.raw.getCount(), p.bonus, p.promo, p.topId);
+    }
 
-            String top = list.stream()
-                    .max(Comparator.comparingDouble(EvaluationResult::getNormalizedScore))
-                    .map(r -> r.getEmployee().getId())
-                    .orElse("");
+    private Partial partial(int code) {
+        if (code >= byDept.length) {
+            byDept = Arrays.copyOf(byDept, Math.max(code + 1, SymbolTable.DEPARTMENTS.size()));
+        }
+        Partial p = byDept[code];
+        if (p == null) {
+            byDept[code] = p = new Partial();
+            if (deptCount == codes.length) codes = Arrays.copyOf(codes, deptCount * 2);
+            codes[deptCount++] = code;
+        }
+        return p;
+    }
+
+    private static final class Partial {
+        private final RunningStats raw = new RunningStats();
+        private final RunningStats norm = new RunningStats();
+        private int bonus;
+        private int promo;
+        private String topId = "";
+        private double topScore;
+
+        void add(EvaluationResult r) {
+            raw.add(r.getRawScore());
+            norm.add(r.getNormalizedScore());
+            if (r.isBonusEligible()) bonus++;
+            if (r.isPromotionCandidate()) promo++;
 
-            result.put(dept, new DeptSummary(dept, avgRaw, avgNorm, count, bonus, promo, top));
+            // Same tie-breaking as Stream.max: the first of equal scores wins.
+            if (norm.getCount() == 1 || Double.compare(r.getNormalizedScore(), topScore) > 0) {
+                topScore = r.getNormalizedScore();
+                topId = r.getEmployee().getId();
+            }
+        }
+
+        void merge(Partial other) {
+            if (other.norm.getCount() == 0) return;
+            if (norm.getCount() == 0 || Double.compare(other.topScore, topScore) > 0) {
+                topScore = other.topScore;
+                topId = other.topId;
+            }
+            raw.merge(other.raw);
+            norm.merge(other.norm);
+            bonus += other.bonus;
+            promo += other.promo;
         }
-        return result;
     }
 }
@@ -0,0 +1,150 @@
+package com.app.evaluator;
+
+import com.app.inputs.Employee;
+import com.app.inputs.KpiRecord;
+import com.app.inputs.SymbolTable;
+import com.app.policies.Policies;
+import com.app.policies.WeightingPolicy;
+import com.app.summary.DeptStats;
+import com.app.summary.DeptSummary;
+import com.app.summary.DeptSummaryBuilder;
+import com.app.summary.RunningStats;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rounds of random KPI changes applied incrementally, each checked against a fresh evaluation
+ * of the same KPIs: raw scores exactly, normalized scores and summary averages to rounding,
+ * ratings, flags and summary counts exactly. Changes include a department's extremes, so
+ * stale bounds are rescanned, and unchanged rows, which must leave results alone.
+ */
+class IncrementalEvaluatorTest {
+
+    private static final String[] DEPTS = { "IncEng", "IncSales", "IncOps", "IncHR", "IncTiny" };
+    private static final String[] LEVELS = { "Junior", "Mid", "Senior", "Principal" };
+    private static final String[] METRICS = { "quality", "delivery", "teamwork", "growth" };
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void linearMatchesFullEvaluation() throws IOException {
+        assertSameAsFull(Policies.forName("linear"), 1);
+    }
+
+    @Test
+    void zScoreMatchesFullEvaluation() throws IOException {
+        assertSameAsFull(Policies.forName("zscore"), 2);
+    }
+
+    private static void assertSameAsFull(WeightingPolicy policy, long seed) {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>();
+        Map<String, List<KpiRecord>> kpis = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // One department of two, where every change moves an extreme
+            String dept = i < 2 ? DEPTS[4] : DEPTS[random.nextInt(4)];
+            Employee e = new Employee("I" + i, dept, LEVELS[random.nextInt(LEVELS.length)]);
+            employees.add(e);
+            kpis.put(e.getId(), randomKpis(random, e.getId()));
+        }
+
+        ResultsTable table = new ResultsTable(employees);
+        Map<String, DeptSummary> summaries = new HashMap<>();
+        evaluateFully(policy, table, kpis, summaries);
+        IncrementalEvaluator incremental = new IncrementalEvaluator(policy, RatingBands.DEFAULT, table, summaries);
+
+        for (int round = 0; round < 40; round++) {
+            Map<String, List<KpiRecord>> changed = new LinkedHashMap<>();
+            int n = 1 + random.nextInt(round % 4 == 0 ? 400 : 30);
+            for (int k = 0; k < n; k++) {
+                String id = employees.get(random.nextInt(employees.size())).getId();
+                changed.put(id, random.nextInt(5) == 0 ? kpis.get(id) : randomKpis(random, id));
+            }
+            if (round % 5 == 0) changed.put("I0", List.of(new KpiRecord("I0", METRICS[0], 1e6 * (round + 1), 1)));
+            changed.put("not-an-employee", randomKpis(random, "not-an-employee"));
+
+            ResultsTable copy = table.copy();
+            Map<String, DeptSummary> copiedSummaries = new HashMap<>(summaries);
+            incremental.retarget(copy, copiedSummaries);
+            incremental.update(changed);
+            changed.remove("not-an-employee");
+            kpis.putAll(changed);
+            table = copy;
+            summaries = copiedSummaries;
+
+            ResultsTable full = new ResultsTable(employees);
+            Map<String, DeptSummary> fullSummaries = new HashMap<>();
+            evaluateFully(policy, full, kpis, fullSummaries);
+            assertSameResults(full, table, fullSummaries, summaries, "round " + round);
+        }
+    }
+
+    private static List<KpiRecord> randomKpis(Random random, String id) {
+        List<KpiRecord> list = new ArrayList<>();
+        int rows = 1 + random.nextInt(6);
+        for (int r = 0; r < rows; r++) {
+            list.add(new KpiRecord(id, METRICS[random.nextInt(METRICS.length)],
+                    Math.round(random.nextDouble() * 12000) / 100.0, random.nextInt(40) / 100.0));
+        }
+        return list;
+    }
+
+    // What a sequential full evaluation does, from the KPI lists.
+    private static void evaluateFully(WeightingPolicy policy, ResultsTable results, Map<String, List<KpiRecord>> kpis,
+                                      Map<String, DeptSummary> summaries) {
+        int n = results.size();
+        double[] raw = new double[n];
+        RunningStats[] rawByDept = new RunningStats[SymbolTable.DEPARTMENTS.size()];
+        for (int i = 0; i < n; i++) {
+            Employee e = results.employee(i);
+            raw[i] = policy.forDepartment(e.getDeptCode()).computeScore(kpis.get(e.getId()));
+            if (rawByDept[e.getDeptCode()] == null) rawByDept[e.getDeptCode()] = new RunningStats();
+            rawByDept[e.getDeptCode()].add(raw[i]);
+        }
+        DeptStats[] statsByDept = new DeptStats[rawByDept.length];
+        for (int code = 0; code < rawByDept.length; code++) {
+            if (rawByDept[code] != null) statsByDept[code] = rawByDept[code].toDeptStats();
+        }
+        Evaluator evaluator = new DepartmentEvaluator(policy, RatingBands.DEFAULT, statsByDept);
+        for (int i = 0; i < n; i++) evaluator.evaluate(results.employee(i), raw[i], results, i);
+
+        DeptSummaryBuilder builder = new DeptSummaryBuilder();
+        ResultsTable.Row row = results.row();
+        for (int i = 0; i < n; i++) builder.add(row.moveTo(i));
+        summaries.putAll(builder.build());
+    }
+
+    private static void assertSameResults(ResultsTable expected, ResultsTable actual,
+                                          Map<String, DeptSummary> expectedSummaries,
+                                          Map<String, DeptSummary> actualSummaries, String where) {
+        assertEquals(expected.size(), actual.size(), where);
+        for (int i = 0; i < expected.size(); i++) {
+            String id = where + ", " + expected.employee(i).getId();
+            assertEquals(expected.rawScore(i), actual.rawScore(i), id);
+            assertEquals(expected.normalizedScore(i), actual.normalizedScore(i), TOLERANCE, id);
+            assertEquals(expected.rating(i), actual.rating(i), id);
+            assertEquals(expected.isBonusEligible(i), actual.isBonusEligible(i), id);
+            assertEquals(expected.isPromotionCandidate(i), actual.isPromotionCandidate(i), id);
+        }
+        assertEquals(expectedSummaries.keySet(), actualSummaries.keySet(), where);
+        for (DeptSummary e : expectedSummaries.values()) {
+            DeptSummary a = actualSummaries.get(e.getDept());
+            String dept = where + ", " + e.getDept();
+            assertEquals(e.getAvgRawScore(), a.getAvgRawScore(), TOLERANCE * Math.max(1, Math.abs(e.getAvgRawScore())), dept);
+            assertEquals(e.getAvgNormScore(), a.getAvgNormScore(), TOLERANCE, dept);
+            assertEquals(e.getEmployeeCount(), a.getEmployeeCount(), dept);
+            assertEquals(e.getBonusCount(), a.getBonusCount(), dept);
+            assertEquals(e.getPromoCount(), a.getPromoCount(), dept);
+            assertEquals(e.getTopPerformerId(), a.getTopPerformerId(), dept);
+        }
+    }
+}
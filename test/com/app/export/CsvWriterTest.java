@@ -0,0 +1,89 @@
+package com.app.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link CsvWriter#writeFixed4} against the {@code String.format(Locale.ROOT, "%.4f", v)} it
+ * replaces: ties and near-ties at the fifth decimal, signed zeros, values on either side of the
+ * fast path's limit, NaN and infinities, and random doubles of every magnitude.
+ */
+class CsvWriterTest {
+
+    private static final double LIMIT = 1e7;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void edgeCasesMatchFormat() throws IOException {
+        List<Double> values = new ArrayList<>();
+        for (double v : new double[] { 0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, -Double.MAX_VALUE,
+                1e-5, 4e-5, 5e-5, 6e-5, -5e-5, 0.00015, 0.12345, 1.00005, 2.5, 0.99995, -0.99995, 9.99995,
+                123.45675, 4503599627370496.5, Long.MAX_VALUE, Long.MIN_VALUE }) {
+            values.add(v);
+        }
+        // Around the fast path's limit, a few ulps each way.
+        for (double base : new double[] { LIMIT, LIMIT - 0.00005, LIMIT - 0.5, LIMIT / 10 - 0.00005 }) {
+            double v = base;
+            for (int i = 0; i < 8; i++) v = Math.nextDown(v);
+            for (int i = 0; i < 16; i++, v = Math.nextUp(v)) {
+                values.add(v);
+                values.add(-v);
+            }
+        }
+        // Every tie at the fifth decimal below 10, and its neighbours.
+        for (int units = 0; units < 100_000; units++) {
+            double tie = (units * 10 + 5) / 100_000.0;
+            values.add(tie);
+            values.add(Math.nextUp(tie));
+            values.add(Math.nextDown(tie));
+            values.add(-tie);
+        }
+        assertSameAsFormat(values);
+    }
+
+    @Test
+    void randomValuesMatchFormat() throws IOException {
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            values.add(switch (i % 4) {
+                // Short decimals, as scores and averages usually are
+                case 0 -> (random.nextInt(2_000_000_001) - 1_000_000_000) / 100_000.0;
+                // Uniform below the limit
+                case 1 -> (random.nextDouble() * 2 - 1) * LIMIT;
+                // Any magnitude
+                case 2 -> (random.nextBoolean() ? 1 : -1) * Math.pow(10, random.nextDouble() * 30 - 12);
+                // Any bit pattern
+                default -> Double.longBitsToDouble(random.nextLong());
+            });
+        }
+        assertSameAsFormat(values);
+    }
+
+    private void assertSameAsFormat(List<Double> values) throws IOException {
+        Path file = dir.resolve("fixed4.csv");
+        try (CsvWriter out = new CsvWriter(file)) {
+            for (double v : values) out.writeFixed4(v).newLine();
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(values.size(), lines.size());
+        for (int i = 0; i < values.size(); i++) {
+            double v = values.get(i);
+            assertEquals(String.format(Locale.ROOT, "%.4f", v), lines.get(i), () -> "value " + v);
+        }
+    }
+}
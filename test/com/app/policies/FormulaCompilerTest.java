@@ -0,0 +1,143 @@
+package com.app.policies;
+
+import com.app.inputs.SymbolTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generated code against the node tree it was compiled from, on random rows: metrics missing,
+ * repeated, in and out of slot order, and unknown to the formula. Scores must be the same
+ * doubles, NaN and signed zeros included.
+ */
+class FormulaCompilerTest {
+
+    private static final double[] INTERESTING = { 0, -0.0, 1, -1, 3, 45, 50, 60, 90, 100, 110, 1e300, -7.25 };
+
+    @Test
+    void conditionalsHelpersAndLinearMatchTheTree() {
+        assertSameAsTree("""
+                capped = min([A], 100) * weight([A])
+                boosted = [B] > 90 ? 1.5 * [B] * weight([B]) : [B] * weight([B])
+                gate = has([C]) and not ([D] == 0) or [E] != 3
+                score = capped + boosted + clamp([C], 50, 110) * 0.25 - ([D] < 45 ? 5 : 0)
+                      + if(gate, abs([E] - 60) / weight([E]), -[A]) + linear() * 0.01 + max([A], [B], [C])
+                dept Sales:
+                score = capped * 2 + [F] / 3 - (boosted >= [F] ? linear() : has([A])) + ([D] ? [E] : gate)
+                """, true);
+    }
+
+    @Test
+    void manyMetricsUseWideLocals() {
+        // 60 metrics keep 6 locals each, well past the 255 that fit a one-byte index.
+        StringBuilder sb = new StringBuilder("score = 0");
+        for (int k = 0; k < 60; k++) {
+            sb.append(" + ([W").append(k).append("] > 50 ? [W").append(k).append("] * weight([W").append(k)
+                    .append("]) : has([W").append(k).append("]))");
+        }
+        assertSameAsTree(sb.toString(), true);
+    }
+
+    @Test
+    void formulaWithoutMetrics() {
+        assertSameAsTree("score = linear() * 2 + 1", true);
+    }
+
+    @Test
+    void chainedHelpersStayLinear() {
+        StringBuilder sb = new StringBuilder("h0 = [X] + 1\n");
+        for (int i = 1; i < 40; i++) sb.append("h").append(i).append(" = h").append(i - 1).append(" + h").append(i - 1).append(" * [Y]\n");
+        sb.append("score = h39\n");
+        assertTrue(FormulaPolicy.compile(sb.toString()).identity().length() < 2000);
+        assertSameAsTree(sb.toString(), true);
+    }
+
+    @Test
+    void tooLargeFormulaKeepsTheTree() {
+        StringBuilder sb = new StringBuilder("score = 0");
+        for (int i = 0; i < 3000; i++) sb.append(" + [L").append(i % 7).append("] * ").append(i + 1);
+        assertSameAsTree(sb.toString(), false);
+    }
+
+    private static void assertSameAsTree(String source, boolean generated) {
+        FormulaParser.Compiled compiled = FormulaParser.compile(source);
+        int slots = compiled.metrics().size();
+        int[] codeBySlot = new int[slots];
+        int max = -1;
+        for (int s = 0; s < slots; s++) {
+            codeBySlot[s] = SymbolTable.METRICS.intern(compiled.metrics().get(s));
+            max = Math.max(max, codeBySlot[s]);
+        }
+        int[] slotByCode = new int[max + 1];
+        Arrays.fill(slotByCode, -1);
+        for (int s = 0; s < slots; s++) slotByCode[codeBySlot[s]] = s;
+        int unknown = SymbolTable.METRICS.intern("FormulaCompilerTest unknown");
+
+        List<FormulaNode> roots = new ArrayList<>();
+        roots.add(compiled.root());
+        roots.addAll(compiled.departments().values());
+        Random random = new Random(source.hashCode());
+        for (FormulaNode root : roots) {
+            FormulaCompiler.Code code = FormulaCompiler.compile(root, codeBySlot, compiled.helpers());
+            assertEquals(generated, code.getClass().isHidden());
+            for (int t = 0; t < 3000; t++) {
+                int n = random.nextInt(2 * slots + 4);
+                int[] metrics = new int[n];
+                double[] values = new double[n];
+                double[] weights = new double[n];
+                boolean inOrder = random.nextInt(3) == 0;
+                for (int r = 0, slot = 0; r < n; r++) {
+                    if (inOrder && slots > 0) {
+                        // Slot order, with some slots skipped and some repeated.
+                        metrics[r] = codeBySlot[slot];
+                        slot = Math.min(slots - 1, slot + random.nextInt(3));
+                    } else {
+                        metrics[r] = slots == 0 || random.nextInt(8) == 0 ? unknown : codeBySlot[random.nextInt(slots)];
+                    }
+                    values[r] = number(random);
+                    weights[r] = number(random);
+                }
+                double linear = number(random);
+
+                FormulaNode.Frame f = new FormulaNode.Frame(slots, compiled.helpers());
+                f.stamp = 1;
+                f.linear = linear;
+                for (int r = 0; r < n; r++) {
+                    int slot = metrics[r] < slotByCode.length ? slotByCode[metrics[r]] : -1;
+                    if (slot < 0) continue;
+                    f.values[slot] = values[r];
+                    f.weights[slot] = weights[r];
+                    f.seen[slot] = f.stamp;
+                }
+                double expected = root.eval(f);
+                String rows = Arrays.toString(metrics) + " " + Arrays.toString(values) + " " + Arrays.toString(weights);
+                assertEquals(expected, code.score(slotByCode, metrics, values, weights, 0, n, linear), rows);
+                assertEquals(expected, code.eval(f), rows);
+
+                // The same rows inside a larger batch
+                int[] paddedMetrics = new int[n + 2];
+                double[] paddedValues = new double[n + 2];
+                double[] paddedWeights = new double[n + 2];
+                Arrays.fill(paddedMetrics, slots > 0 ? codeBySlot[0] : unknown);
+                Arrays.fill(paddedValues, 12345);
+                System.arraycopy(metrics, 0, paddedMetrics, 1, n);
+                System.arraycopy(values, 0, paddedValues, 1, n);
+                System.arraycopy(weights, 0, paddedWeights, 1, n);
+                assertEquals(expected, code.score(slotByCode, paddedMetrics, paddedValues, paddedWeights, 1, n + 1, linear), rows);
+            }
+        }
+    }
+
+    private static double number(Random random) {
+        return random.nextBoolean()
+                ? INTERESTING[random.nextInt(INTERESTING.length)]
+                : Math.round(random.nextDouble() * 20000 - 5000) / 100.0;
+    }
+}
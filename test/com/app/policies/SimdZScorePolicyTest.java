@@ -0,0 +1,87 @@
+package com.app.policies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SIMD batch scores against {@link ZScorePolicy}'s scalar loop, employee by employee: uneven and
+ * empty row counts, batches that leave a scalar tail, constant values, overflow, NaN and signed
+ * zeros. Scores must be the same doubles. Enough batches run for C2 to compile the kernel.
+ */
+class SimdZScorePolicyTest {
+
+    private static final double[] INTERESTING = { 0, -0.0, 1, -1, 50, 1e-300, 1e200, -1e200, 1e300,
+            Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+    private final ZScorePolicy scalar = new ZScorePolicy();
+    private final SimdZScorePolicy simd = new SimdZScorePolicy();
+
+    @Test
+    void unevenBatchesMatchScalar() {
+        Random random = new Random(7);
+        for (int batch = 0; batch < 3000; batch++) {
+            int employees = 1 + random.nextInt(40);
+            int maxRows = 1 + random.nextInt(batch % 3 == 0 ? 3 : 30);
+            assertBatch(random, employees, () -> random.nextInt(maxRows + 1), batch % 5 == 0);
+        }
+    }
+
+    @Test
+    void uniformBatchesMatchScalar() {
+        Random random = new Random(11);
+        for (int batch = 0; batch < 3000; batch++) {
+            int rows = random.nextInt(20);
+            assertBatch(random, 1 + random.nextInt(40), () -> rows, batch % 5 == 0);
+        }
+    }
+
+    @Test
+    void constantValuesMatchScalar() {
+        // Some constants average exactly and score 0; others miss by an ulp and score far from it.
+        int employees = 16, rows = 7;
+        double[] values = new double[employees * rows];
+        double[] weights = new double[employees * rows];
+        int[] offsets = new int[employees + 1];
+        for (int e = 0; e < employees; e++) {
+            offsets[e + 1] = offsets[e] + rows;
+            for (int r = offsets[e]; r < offsets[e + 1]; r++) {
+                values[r] = 0.1 * e;
+                weights[r] = 0.25;
+            }
+        }
+        double[] out = new double[employees];
+        simd.computeScores(values, weights, offsets, 0, employees, out);
+        for (int e = 0; e < employees; e++) {
+            assertEquals(scalar.computeScore(values, weights, offsets[e], offsets[e + 1]), out[e], "employee " + e);
+        }
+    }
+
+    private void assertBatch(Random random, int employees, IntSupplier rowCount, boolean interesting) {
+        int[] offsets = new int[employees + 1];
+        for (int e = 0; e < employees; e++) offsets[e + 1] = offsets[e] + rowCount.getAsInt();
+        int rows = offsets[employees];
+        double[] values = new double[rows];
+        double[] weights = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            values[r] = interesting && random.nextInt(4) == 0
+                    ? INTERESTING[random.nextInt(INTERESTING.length)]
+                    : Math.round(random.nextDouble() * 20000 - 5000) / 100.0;
+            weights[r] = random.nextInt(8) == 0 ? INTERESTING[random.nextInt(5)] : random.nextInt(100) / 100.0;
+        }
+
+        // A batch starting past employee 0, as the parallel paths hand out.
+        int from = random.nextInt(Math.min(employees, 3));
+        double[] out = new double[employees];
+        simd.computeScores(values, weights, offsets, from, employees, out);
+        for (int e = from; e < employees; e++) {
+            int e0 = e;
+            assertEquals(scalar.computeScore(values, weights, offsets[e], offsets[e + 1]), out[e],
+                    () -> "employee " + e0 + " of " + employees + ", offsets " + Arrays.toString(offsets));
+        }
+    }
+}